@@ -1,7 +1,9 @@
 package com.devdam.desktop;
 
+import com.devdam.desktop.controller.MainController;
+import com.devdam.desktop.controller.SplashController;
+import com.devdam.desktop.service.Toolchain;
 import com.devdam.desktop.service.ViewManager;
-import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
@@ -14,6 +16,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
 @Slf4j
 @SpringBootApplication
 public class DesktopApplication extends Application {
@@ -21,6 +29,10 @@ public class DesktopApplication extends Application {
     private static ConfigurableApplicationContext context;
     private static String[] args;
 
+    private StartupPhases phases;
+    private CompletableFuture<ConfigurableApplicationContext> springContext;
+    private CompletableFuture<PreparedView> mainView;
+
     public static void main(String[] args) {
         DesktopApplication.args = args;
         System.setProperty("java.awt.headless", "false");
@@ -32,36 +44,56 @@ public class DesktopApplication extends Application {
 
     @Override
     public void init() throws Exception {
-        // Initialize Spring Boot context
-        context = SpringApplication.run(DesktopApplication.class, args);
-        context.getAutowireCapableBeanFactory().autowireBean(this);
+        // Everything the main window needs is started here and shown as soon as it is ready;
+        // the tool probes only warm caches the services would otherwise fill on first use
+        phases = new StartupPhases();
+        springContext = phases.run("spring context", () -> {
+            ConfigurableApplicationContext started = SpringApplication.run(DesktopApplication.class, args);
+            started.getAutowireCapableBeanFactory().autowireBean(this);
+            return started;
+        });
+        mainView = phases.run("main view", () -> PreparedView.parse(resource("/fxml/main.fxml")))
+                .exceptionally(e -> {
+                    log.warn("Could not prepare the main view, loading it when shown", e);
+                    return null;
+                });
+        phases.run("toolchain", () -> Toolchain.jpackageVersion() != null && Toolchain.jlinkVersion() != null);
+        phases.run("module catalog", Toolchain::availableModules);
+        phases.close();
     }
 
     @Override
     public void start(Stage primaryStage) throws Exception {
         log.info("Starting Packaroo application...");
         
-        // Show splash screen first
-        Stage splashStage = showSplashScreen();
-        
-        // Load main application after splash with proper timing
-        Timeline timeline = new Timeline();
-        timeline.getKeyFrames().add(new javafx.animation.KeyFrame(
-            javafx.util.Duration.seconds(4.0), // Give splash 4 seconds to display
-            e -> {
-                try {
-                    splashStage.close();
-                    showMainApplication(primaryStage);
-                } catch (Exception ex) {
-                    log.error("Error loading main application", ex);
-                    Platform.exit();
+        // Show splash screen until the main window is ready
+        SplashController splash = new SplashController(applicationVersion());
+        Stage splashStage = showSplashScreen(splash);
+
+        AtomicInteger ready = new AtomicInteger();
+        springContext.thenRun(() -> Platform.runLater(
+                () -> splash.showProgress(ready.incrementAndGet() / 2.0, "Services ready")));
+        mainView.thenRun(() -> Platform.runLater(
+                () -> splash.showProgress(ready.incrementAndGet() / 2.0, "Interface ready")));
+
+        springContext.thenCombine(mainView, (started, view) -> view).whenComplete((view, error) -> Platform.runLater(() -> {
+            try {
+                if (error != null) {
+                    throw error;
                 }
+                context = springContext.join();
+                showMainApplication(primaryStage, view);
+                // Closed only now so the main scene reuses the stylesheet the splash has loaded
+                splashStage.close();
+                log.info("Main window shown {} ms after launch", phases.sinceLaunch());
+            } catch (Throwable ex) {
+                log.error("Error loading main application", ex);
+                Platform.exit();
             }
-        ));
-        timeline.play();
+        }));
     }
 
-    private Stage showSplashScreen() {
+    private Stage showSplashScreen(SplashController splash) {
         try {
             // Use URL for better resource access in packaged apps
             var fxmlUrl = getClass().getResource("/fxml/splash.fxml");
@@ -70,7 +102,7 @@ public class DesktopApplication extends Application {
             }
             
             FXMLLoader loader = new FXMLLoader(fxmlUrl);
-            loader.setControllerFactory(context::getBean);
+            loader.setControllerFactory(type -> splash);
             Parent splashRoot = loader.load();
             
             Stage splashStage = new Stage();
@@ -112,19 +144,19 @@ public class DesktopApplication extends Application {
         }
     }
 
-    private void showMainApplication(Stage primaryStage) throws Exception {
+    private void showMainApplication(Stage primaryStage, PreparedView view) throws Exception {
         // Initialize ViewManager with the primary stage
         ViewManager viewManager = context.getBean(ViewManager.class);
         viewManager.setPrimaryStage(primaryStage);
         
-        var fxmlUrl = getClass().getResource("/fxml/main.fxml");
-        if (fxmlUrl == null) {
-            throw new RuntimeException("Could not find main.fxml resource");
+        Parent root;
+        if (view != null) {
+            root = view.bind(context.getBean(MainController.class));
+        } else {
+            FXMLLoader loader = new FXMLLoader(resource("/fxml/main.fxml"));
+            loader.setControllerFactory(context::getBean);
+            root = loader.load();
         }
-        
-        FXMLLoader loader = new FXMLLoader(fxmlUrl);
-        loader.setControllerFactory(context::getBean);
-        Parent root = loader.load();
 
         Scene scene = new Scene(root, 1200, 800);
         
@@ -161,6 +193,29 @@ public class DesktopApplication extends Application {
         });
     }
 
+    private URL resource(String name) {
+        var url = getClass().getResource(name);
+        if (url == null) {
+            throw new RuntimeException("Could not find " + name.substring(name.lastIndexOf('/') + 1) + " resource");
+        }
+        return url;
+    }
+
+    /**
+     * Read directly, the splash is shown before Spring has loaded the properties.
+     */
+    private String applicationVersion() {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (Exception e) {
+            log.warn("Could not read application.properties", e);
+        }
+        return properties.getProperty("application.version", "");
+    }
+
     @Override
     public void stop() throws Exception {
         if (context != null) {
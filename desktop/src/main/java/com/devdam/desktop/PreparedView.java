@@ -0,0 +1,58 @@
+package com.devdam.desktop;
+
+import javafx.fxml.FXML;
+import javafx.fxml.FXMLLoader;
+import javafx.fxml.Initializable;
+import javafx.scene.Parent;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * An FXML view parsed ahead of its controller.
+ * <p>
+ * Parsing builds no more than a node graph that is not yet part of a scene, which JavaFX allows
+ * off the application thread, so it can run while the controller's dependencies are still being
+ * created. The controller is bound afterwards, on the application thread, the way
+ * {@link FXMLLoader} would have done it: {@code @FXML} fields are set from the nodes with the
+ * same {@code fx:id} and {@link Initializable#initialize} is called. Views with {@code #handler}
+ * event attributes need the controller while parsing and cannot be prepared this way.
+ */
+final class PreparedView {
+
+    private final URL location;
+    private final Parent root;
+    private final Map<String, Object> namespace;
+
+    private PreparedView(URL location, Parent root, Map<String, Object> namespace) {
+        this.location = location;
+        this.root = root;
+        this.namespace = namespace;
+    }
+
+    static PreparedView parse(URL location) throws IOException {
+        FXMLLoader loader = new FXMLLoader(location);
+        // Stands in for the fx:controller until the real one exists
+        loader.setControllerFactory(type -> new Object());
+        Parent root = loader.load();
+        return new PreparedView(location, root, loader.getNamespace());
+    }
+
+    Parent bind(Object controller) throws ReflectiveOperationException {
+        for (Class<?> type = controller.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(FXML.class) && namespace.containsKey(field.getName())) {
+                    field.setAccessible(true);
+                    field.set(controller, namespace.get(field.getName()));
+                }
+            }
+        }
+        if (controller instanceof Initializable initializable) {
+            initializable.initialize(location, (ResourceBundle) namespace.get(FXMLLoader.RESOURCES_KEY));
+        }
+        return root;
+    }
+}
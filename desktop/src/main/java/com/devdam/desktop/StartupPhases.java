@@ -0,0 +1,60 @@
+package com.devdam.desktop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the independent parts of startup side by side and logs how long each took.
+ * <p>
+ * Times are measured from the start of the JVM process where the platform reports it, so they
+ * include JVM and JavaFX startup; otherwise from when the phases were created.
+ */
+@Slf4j
+final class StartupPhases implements AutoCloseable {
+
+    private final Instant launched;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    StartupPhases() {
+        this.launched = ProcessHandle.current().info().startInstant().orElseGet(Instant::now);
+    }
+
+    <T> CompletableFuture<T> run(String phase, Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                T result = task.call();
+                log.info("Startup phase '{}' took {} ms, done {} ms after launch",
+                        phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), sinceLaunch());
+                return result;
+            } catch (Exception e) {
+                log.warn("Startup phase '{}' failed after {} ms",
+                        phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                throw new IllegalStateException("Startup phase '" + phase + "' failed", e);
+            }
+        }, executor);
+    }
+
+    long sinceLaunch() {
+        return Duration.between(launched, Instant.now()).toMillis();
+    }
+
+    /**
+     * Lets running phases finish but starts no more.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
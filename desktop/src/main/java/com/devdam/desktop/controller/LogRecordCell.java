@@ -0,0 +1,36 @@
+package com.devdam.desktop.controller;
+
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import javafx.scene.control.ListCell;
+import javafx.scene.paint.Color;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Console row colored by its log level. Rows are recycled by the list as it scrolls, so only the
+ * visible records ever have a cell.
+ */
+class LogRecordCell extends ListCell<LogRecord> {
+
+    private static final Color PLAIN = Color.web("#d4d4d4");
+    private static final Map<LogLevel, Color> COLORS = new EnumMap<>(LogLevel.class);
+
+    static {
+        for (LogLevel level : LogLevel.values()) {
+            COLORS.put(level, Color.web(level.getColor()));
+        }
+    }
+
+    @Override
+    protected void updateItem(LogRecord record, boolean empty) {
+        super.updateItem(record, empty);
+        if (empty || record == null) {
+            setText(null);
+            return;
+        }
+        setText(record.displayText());
+        setTextFill(record.getLevel() != null ? COLORS.get(record.getLevel()) : PLAIN);
+    }
+}
@@ -1,26 +1,56 @@
 package com.devdam.desktop.controller;
 
+import com.devdam.desktop.model.BuildEvent;
+import com.devdam.desktop.model.BuildLog;
+import com.devdam.desktop.model.BuildProgress;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.BuildSummary;
+import com.devdam.desktop.model.BuildTrend;
 import com.devdam.desktop.model.DependencyAnalysis;
+import com.devdam.desktop.model.JLinkOptions;
+import com.devdam.desktop.model.JLinkTuningReport;
+import com.devdam.desktop.model.JLinkVariantResult;
+import com.devdam.desktop.model.JvmProfile;
+import com.devdam.desktop.model.JvmProfileBenchmark;
+import com.devdam.desktop.model.LogFilter;
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import com.devdam.desktop.model.ModuleProfile;
 import com.devdam.desktop.model.PackageConfiguration;
 import com.devdam.desktop.model.PackagingResult;
+import com.devdam.desktop.model.PresetSummary;
+import com.devdam.desktop.model.SmokeTestResult;
+import com.devdam.desktop.model.StageMetrics;
+import com.devdam.desktop.service.BuildExecutionService;
+import com.devdam.desktop.service.BuildHandle;
+import com.devdam.desktop.service.BuildHistoryService;
+import com.devdam.desktop.service.CoalescingBuildSubscriber;
 import com.devdam.desktop.service.ConfigurationService;
 import com.devdam.desktop.service.ConsoleLoggerService;
 import com.devdam.desktop.service.DependencyAnalysisService;
+import com.devdam.desktop.service.JLinkTuningService;
+import com.devdam.desktop.service.JvmTuningService;
+import com.devdam.desktop.service.LogExportService;
+import com.devdam.desktop.service.LogStore;
+import com.devdam.desktop.service.ModuleProfilingService;
 import com.devdam.desktop.service.PackagingService;
+import com.devdam.desktop.service.SmokeTestService;
 import com.devdam.desktop.service.ViewManager;
 import javafx.application.Platform;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.VBox;
 import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
-import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
 import org.controlsfx.control.CheckListView;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +61,7 @@ import java.io.File;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.prefs.Preferences;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -58,41 +89,64 @@ public class MainController implements Initializable {
     // Platform and Format
     @FXML private ComboBox<PackageConfiguration.TargetPlatform> targetPlatformCombo;
     @FXML private ComboBox<PackageConfiguration.OutputFormat> outputFormatCombo;
+    @FXML private CheckBox smokeTestCheck;
+    @FXML private CheckBox writeManifestCheck;
 
     // JLink Configuration
     @FXML private CheckBox enableJLinkCheck;
+    @FXML private CheckBox linkModulesCheck;
     @FXML private CheckListView<String> modulesListView;
     @FXML private TextField customModuleField;
     @FXML private Button addModuleButton;
+    @FXML private Button profileModulesButton;
+    @FXML private Label jlinkOptionsLabel;
+    @FXML private ComboBox<JLinkTuningReport.Objective> jlinkObjectiveCombo;
+    @FXML private Button tuneJLinkButton;
 
     // Advanced Options
+    @FXML private ComboBox<JvmProfile> jvmProfileCombo;
+    @FXML private Button benchmarkProfilesButton;
+    @FXML private CheckBox recordBuildCheck;
     @FXML private TextArea jvmArgsArea;
     @FXML private TextArea appArgsArea;
 
     // Actions
     @FXML private Button analyzeButton;
     @FXML private Button packageButton;
+    @FXML private Button cancelBuildButton;
     @FXML private Button resetButton;
     @FXML private ProgressBar progressBar;
     @FXML private Label statusLabel;
 
-    // Animation
-    private Timeline progressAnimation;
-    private double currentProgress = 0.0;
-    private boolean isIncrementing = true;
-    private static final double PROGRESS_STEP = 0.05; // 5% increments
+    // Build history report
+    private static final int HISTORY_RECENT_BUILDS = 10;
+    private static final int HISTORY_TREND_DAYS = 30;
+
+    // Presets listed while searching
+    private static final int PRESET_SEARCH_RESULTS = 50;
+
+    private static final String ALL_LEVELS = "All levels";
+    private static final String ALL_CATEGORIES = "All categories";
+    private static final KeyCombination COPY_SHORTCUT = new KeyCodeCombination(KeyCode.C, KeyCombination.SHORTCUT_DOWN);
 
     // Console
-    @FXML private TextArea consoleArea;
+    @FXML private ListView<LogRecord> consoleView;
+    @FXML private ComboBox<String> consoleLevelFilter;
+    @FXML private ComboBox<String> consoleCategoryFilter;
+    @FXML private TextField consoleSearchField;
+    @FXML private Label consoleMatchLabel;
     @FXML private Button clearConsoleButton;
     @FXML private Button exportLogsButton;
 
     // Presets
+    @FXML private TextField presetSearchField;
     @FXML private ComboBox<String> presetsCombo;
     @FXML private TextField presetNameField;
     @FXML private Button savePresetButton;
     @FXML private Button loadPresetButton;
     @FXML private Button deletePresetButton;
+    @FXML private Button importPresetsButton;
+    @FXML private Button exportPresetsButton;
 
     // Theme
     @FXML private CheckMenuItem darkThemeCheck;
@@ -109,6 +163,7 @@ public class MainController implements Initializable {
     @FXML private MenuItem exitMenuItem;
     @FXML private MenuItem analyzeJarMenuItem;
     @FXML private MenuItem packageAppMenuItem;
+    @FXML private MenuItem buildHistoryMenuItem;
     @FXML private MenuItem clearConsoleMenuItem;
     @FXML private MenuItem setupMenuItem;
     @FXML private MenuItem aboutMenuItem;
@@ -120,6 +175,24 @@ public class MainController implements Initializable {
     @Autowired
     private PackagingService packagingService;
 
+    @Autowired
+    private BuildExecutionService buildExecutionService;
+
+    @Autowired
+    private BuildHistoryService buildHistoryService;
+
+    @Autowired
+    private ModuleProfilingService moduleProfilingService;
+
+    @Autowired
+    private JvmTuningService jvmTuningService;
+
+    @Autowired
+    private JLinkTuningService jlinkTuningService;
+
+    @Autowired
+    private SmokeTestService smokeTestService;
+
     @Autowired
     private ConfigurationService configurationService;
 
@@ -129,6 +202,19 @@ public class MainController implements Initializable {
     @Autowired
     private ConsoleLoggerService consoleLogger;
 
+    @Autowired
+    private LogExportService logExportService;
+
+    // Tuned jlink options are not editable in the form, so they are carried here between presets
+    private JLinkOptions jlinkOptions;
+    private JLinkTuningReport jlinkTuningReport;
+
+    // Preset the form was loaded from or saved as; smoke test baselines are kept per preset
+    private String activePresetName;
+
+    private volatile BuildHandle currentBuild;
+    private Task<Long> logExport;
+
     // Application properties
     @Value("${application.description}")
     private String applicationDescription;
@@ -145,11 +231,11 @@ public class MainController implements Initializable {
     public void initialize(URL location, ResourceBundle resources) {
         initializeComponents();
         loadDefaultConfiguration();
-        refreshPresets();
+        initializePresets();
         updateToolAvailability();
         
         // Initialize console logger
-        consoleLogger.setConsoleArea(consoleArea);
+        initializeConsole();
         consoleLogger.info("SYSTEM", "Packaroo application initialized successfully");
         
         // Initialize menu visibility
@@ -165,10 +251,15 @@ public class MainController implements Initializable {
         List<PackageConfiguration.OutputFormat> sortedFormats = Arrays.asList(PackageConfiguration.OutputFormat.values());
         sortedFormats.sort((a, b) -> a.toString().compareToIgnoreCase(b.toString()));
         outputFormatCombo.setItems(FXCollections.observableArrayList(sortedFormats));
+        jvmProfileCombo.setItems(FXCollections.observableArrayList(JvmProfile.values()));
+        jlinkObjectiveCombo.setItems(FXCollections.observableArrayList(JLinkTuningReport.Objective.values()));
 
         // Set default values
         targetPlatformCombo.setValue(PackageConfiguration.TargetPlatform.CURRENT);
         outputFormatCombo.setValue(PackageConfiguration.OutputFormat.APP_IMAGE);
+        jvmProfileCombo.setValue(JvmProfile.NONE);
+        jlinkObjectiveCombo.setValue(JLinkTuningReport.Objective.SIZE);
+        showJLinkOptions(null, null);
 
         // Initialize modules list
         modulesListView.setItems(FXCollections.observableArrayList(dependencyService.getSuggestedModules()));
@@ -196,6 +287,7 @@ public class MainController implements Initializable {
         // Actions
         analyzeButton.setOnAction(e -> analyzeJar());
         packageButton.setOnAction(e -> packageApplication());
+        cancelBuildButton.setOnAction(e -> cancelBuild());
         resetButton.setOnAction(e -> resetForm());
 
         // Console
@@ -207,11 +299,18 @@ public class MainController implements Initializable {
 
         // Modules
         addModuleButton.setOnAction(e -> addCustomModule());
+        profileModulesButton.setOnAction(e -> profileModules());
+        tuneJLinkButton.setOnAction(e -> tuneJLinkOptions());
+
+        // JVM tuning
+        benchmarkProfilesButton.setOnAction(e -> benchmarkJvmProfiles());
 
         // Presets
         savePresetButton.setOnAction(e -> savePreset());
         loadPresetButton.setOnAction(e -> loadPreset());
         deletePresetButton.setOnAction(e -> deletePreset());
+        importPresetsButton.setOnAction(e -> importPresets());
+        exportPresetsButton.setOnAction(e -> exportPresets());
 
         // Theme
         darkThemeCheck.setOnAction(e -> toggleTheme());
@@ -230,8 +329,11 @@ public class MainController implements Initializable {
         enableJLinkCheck.setOnAction(e -> {
             boolean enabled = enableJLinkCheck.isSelected();
             modulesListView.setDisable(!enabled);
+            linkModulesCheck.setDisable(!enabled);
             customModuleField.setDisable(!enabled);
             addModuleButton.setDisable(!enabled);
+            profileModulesButton.setDisable(!enabled);
+            tuneJLinkButton.setDisable(!enabled);
         });
     }
 
@@ -258,11 +360,21 @@ public class MainController implements Initializable {
         // Set platform and format (with defaults)
         targetPlatformCombo.setValue(config.getTargetPlatform() != null ? config.getTargetPlatform() : PackageConfiguration.TargetPlatform.CURRENT);
         outputFormatCombo.setValue(config.getOutputFormat() != null ? config.getOutputFormat() : PackageConfiguration.OutputFormat.APP_IMAGE);
+        smokeTestCheck.setSelected(config.isSmokeTest());
+        writeManifestCheck.setSelected(config.isWriteManifest());
+        recordBuildCheck.setSelected(config.isRecordBuild());
+        activePresetName = config.getPresetName();
 
         // Set JLink configuration
         enableJLinkCheck.setSelected(config.isEnableJLink());
+        linkModulesCheck.setSelected(config.isLinkApplicationModules());
+        showJLinkOptions(config.getJlinkOptions(), config.getJlinkTuning());
+        if (config.getJlinkTuning() != null && config.getJlinkTuning().getObjective() != null) {
+            jlinkObjectiveCombo.setValue(config.getJlinkTuning().getObjective());
+        }
 
         // Clear or set advanced options
+        jvmProfileCombo.setValue(config.getJvmProfile() != null ? config.getJvmProfile() : JvmProfile.NONE);
         jvmArgsArea.setText(config.getJvmArgs() != null ? String.join("\n", config.getJvmArgs()) : "");
         appArgsArea.setText(config.getAppArgs() != null ? String.join("\n", config.getAppArgs()) : "");
 
@@ -302,8 +414,16 @@ public class MainController implements Initializable {
                 .copyright(copyrightField.getText())
                 .targetPlatform(targetPlatformCombo.getValue())
                 .outputFormat(outputFormatCombo.getValue())
+                .smokeTest(smokeTestCheck.isSelected())
+                .writeManifest(writeManifestCheck.isSelected())
+                .recordBuild(recordBuildCheck.isSelected())
+                .presetName(activePresetName)
                 .enableJLink(enableJLinkCheck.isSelected())
+                .linkApplicationModules(linkModulesCheck.isSelected())
+                .jlinkOptions(jlinkOptions)
+                .jlinkTuning(jlinkTuningReport)
                 .requiredModules(selectedModules)
+                .jvmProfile(jvmProfileCombo.getValue())
                 .jvmArgs(jvmArgs.isEmpty() ? null : jvmArgs)
                 .appArgs(appArgs.isEmpty() ? null : appArgs)
                 .build();
@@ -838,58 +958,81 @@ public class MainController implements Initializable {
             return;
         }
 
-        Task<PackagingResult> packageTask = new Task<PackagingResult>() {
-            @Override
-            protected PackagingResult call() throws Exception {
-                updateMessage("Packaging application...");
-                updateProgress(0, 1);
-
-                return packagingService.packageApplication(config, logMessage -> {
-                    Platform.runLater(() -> consoleLogger.info("BUILD", logMessage));
-                });
-            }
-
-            @Override
-            protected void succeeded() {
-                PackagingResult result = getValue();
-                Platform.runLater(() -> {
-                    statusLabel.textProperty().unbind();
-                    handlePackagingResult(result);
-                    stopAnimatedProgressBar();
-                    progressBar.setVisible(false);
-                    statusLabel.setText(result.isSuccess() ? "Packaging completed" : "Packaging failed");
-                });
-            }
+        if (currentBuild != null) {
+            showAlert(Alert.AlertType.WARNING, "Warning", "A build is already running.");
+            return;
+        }
 
-            @Override
-            protected void failed() {
-                Platform.runLater(() -> {
-                    statusLabel.textProperty().unbind();
-                    consoleLogger.error("BUILD", "Packaging failed: " + getException().getMessage());
-                    stopAnimatedProgressBar();
-                    progressBar.setVisible(false);
-                    statusLabel.setText("Packaging failed");
-                });
-            }
-        };
+        // Events reach the UI thread in batches, one batch per pass, however fast the tools write
+        BuildHandle build = buildExecutionService.submit(config,
+                new CoalescingBuildSubscriber(Platform::runLater, this::showBuildEvents));
+        currentBuild = build;
 
-        // Start animated progress bar instead of binding to task progress
+        progressBar.getStyleClass().add("build-progress");
+        progressBar.setProgress(0);
         progressBar.setVisible(true);
-        startAnimatedProgressBar();
-        statusLabel.textProperty().bind(packageTask.messageProperty());
+        statusLabel.setText("Packaging application...");
 
         // Disable package button during processing
         packageButton.setDisable(true);
-        packageTask.setOnSucceeded(e -> {
-            packageButton.setDisable(false);
-            stopAnimatedProgressBar();
-        });
-        packageTask.setOnFailed(e -> {
+        cancelBuildButton.setDisable(false);
+
+        build.result().whenComplete((result, error) -> Platform.runLater(() -> {
+            currentBuild = null;
             packageButton.setDisable(false);
-            stopAnimatedProgressBar();
-        });
+            cancelBuildButton.setDisable(true);
+            progressBar.getStyleClass().remove("build-progress");
+            progressBar.setProgress(0);
+            progressBar.setVisible(false);
+
+            if (error != null) {
+                consoleLogger.error("BUILD", "Packaging failed: " + error.getMessage());
+                statusLabel.setText("Packaging failed");
+            } else if (build.isCancelled()) {
+                consoleLogger.warning("BUILD", "Build cancelled, the runtime and app image it had started writing are being removed");
+                statusLabel.setText("Packaging cancelled");
+            } else {
+                handlePackagingResult(result);
+                statusLabel.setText(result.isSuccess() ? "Packaging completed" : "Packaging failed");
+            }
+        }));
+    }
+
+    private void showBuildEvents(List<BuildEvent> events) {
+        for (BuildEvent event : events) {
+            switch (event.getType()) {
+                case LINE -> consoleLogger.info("BUILD", event.getText());
+                case ARTIFACT -> consoleLogger.info("BUILD", event.getText() + ": " + event.getPath());
+                case SAMPLE -> showBuildProgress(event.getProgress());
+                default -> { } // Stage timings are shown with the result
+            }
+        }
+    }
 
-        new Thread(packageTask).start();
+    private void showBuildProgress(BuildProgress progress) {
+        if (currentBuild == null || currentBuild.isCancelled()) {
+            return; // A late update must not overwrite the final status
+        }
+        progressBar.setProgress(progress.getFraction());
+        String status = String.format("Packaging: %s (%d%%", progress.getStage().getDisplayName(),
+                Math.round(progress.getFraction() * 100));
+        if (progress.getRemainingMs() >= 0) {
+            status += ", about " + formatRemaining(progress.getRemainingMs()) + " left";
+        }
+        statusLabel.setText(status + ")");
+    }
+
+    private static String formatRemaining(long millis) {
+        long seconds = Math.max(1, Math.round(millis / 1000.0));
+        return seconds < 60 ? seconds + " s" : String.format("%d min %02d s", seconds / 60, seconds % 60);
+    }
+
+    private void cancelBuild() {
+        BuildHandle build = currentBuild;
+        if (build != null) {
+            statusLabel.setText("Cancelling build...");
+            build.cancel();
+        }
     }
 
     private void handlePackagingResult(PackagingResult result) {
@@ -898,6 +1041,14 @@ public class MainController implements Initializable {
             consoleLogger.success("BUILD", "PACKAGING COMPLETED SUCCESSFULLY!");
             consoleLogger.info("BUILD", "Output location: " + result.getOutputPath());
             consoleLogger.info("BUILD", "Execution time: " + result.getExecutionTimeMs() + " ms");
+            logStages(result.getStages());
+            logSmokeTest(result.getSmokeTest());
+            if (result.getManifestPath() != null) {
+                consoleLogger.info("BUILD", "Checksum manifest: " + result.getManifestPath());
+            }
+            if (result.getFlightRecording() != null) {
+                consoleLogger.info("BUILD", "Flight recording: " + result.getFlightRecording());
+            }
             consoleLogger.separator();
 
             showAlert(Alert.AlertType.INFORMATION, "Success",
@@ -906,15 +1057,104 @@ public class MainController implements Initializable {
             consoleLogger.separator();
             consoleLogger.error("BUILD", "PACKAGING FAILED!");
             consoleLogger.error("BUILD", "Error: " + result.getMessage());
+            logStages(result.getStages());
+            logSmokeTest(result.getSmokeTest());
+            if (result.getFlightRecording() != null) {
+                consoleLogger.info("BUILD", "Flight recording: " + result.getFlightRecording());
+            }
             consoleLogger.separator();
 
-            showAlert(Alert.AlertType.ERROR, "Packaging Failed", result.getMessage());
+            SmokeTestResult smokeTest = result.getSmokeTest();
+            if (smokeTest != null && smokeTest.isPassed() && smokeTest.hasRegressions()) {
+                offerNewBaseline(smokeTest, result.getMessage());
+            } else {
+                showAlert(Alert.AlertType.ERROR, "Packaging Failed", result.getMessage());
+            }
+        }
+
+        // The full output, details included, is in the build's log file
+        BuildLog buildLog = result.getBuildLog();
+        if (buildLog != null && buildLog.getPath() != null) {
+            consoleLogger.info("BUILD", String.format("Build log: %s (%d lines, %d with errors)",
+                    buildLog.getPath(), buildLog.getLines(), buildLog.getErrorLines()));
+        }
+    }
+
+    private void logStages(List<StageMetrics> stages) {
+        if (stages == null) {
+            return;
+        }
+        for (StageMetrics stage : stages) {
+            consoleLogger.info("STAGES", stage.summary());
+        }
+    }
+
+    private void showBuildHistory() {
+        // Builds of the active preset, or of the app name in the form when no preset is loaded
+        String presetName = activePresetName;
+        String appName = presetName == null && !appNameField.getText().trim().isEmpty()
+                ? appNameField.getText().trim() : null;
+        String subject = presetName != null ? "preset " + presetName
+                : appName != null ? "app " + appName : "all apps";
+
+        consoleLogger.section("BUILD HISTORY: " + subject.toUpperCase());
+        List<BuildSummary> recent = buildHistoryService.recent(presetName, appName, HISTORY_RECENT_BUILDS);
+        if (recent.isEmpty()) {
+            consoleLogger.info("HISTORY", "No builds recorded for " + subject);
+            return;
+        }
+
+        consoleLogger.info("HISTORY", "Most recent builds:");
+        recent.forEach(build -> consoleLogger.info("HISTORY", String.format("  %s  %-7s %7d ms  %s%s",
+                build.getTimestamp().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")),
+                build.isSuccess() ? "OK" : "FAILED", build.getExecutionTimeMs(),
+                build.getOutputSizeBytes() >= 0 ? formatBytes(build.getOutputSizeBytes()) : "size n/a",
+                build.getCacheHit() == null ? "" : build.getCacheHit() ? ", runtime cached" : ", runtime linked")));
+
+        if (presetName == null && appName == null) {
+            return;
+        }
+        consoleLogger.info("HISTORY", "Last " + HISTORY_TREND_DAYS + " days:");
+        Duration window = Duration.ofDays(HISTORY_TREND_DAYS);
+        consoleLogger.info("HISTORY", "  " + buildHistoryService.trend(presetName, appName, null, window).summary());
+        for (BuildStage stage : BuildStage.values()) {
+            BuildTrend trend = buildHistoryService.trend(presetName, appName, stage, window);
+            if (!trend.getPoints().isEmpty()) {
+                consoleLogger.info("HISTORY", "  " + trend.summary());
+            }
+        }
+    }
+
+    private void offerNewBaseline(SmokeTestResult smokeTest, String message) {
+        ButtonType accept = new ButtonType("Accept as New Baseline", ButtonBar.ButtonData.OK_DONE);
+        Alert alert = new Alert(Alert.AlertType.ERROR, message + "\n\nIf this change in size or startup is intended, "
+                + "accept this build as the reference for the next ones.", accept, ButtonType.CLOSE);
+        alert.setTitle("Packaging Failed");
+        alert.setHeaderText(null);
+        if (alert.showAndWait().filter(accept::equals).isPresent()) {
+            smokeTestService.acceptBaseline(smokeTest);
+            consoleLogger.info("SMOKE", "Accepted this build as the new baseline for " + smokeTest.getBaselineKey());
         }
+    }
 
-        // Log all messages
-        if (result.getLogs() != null) {
-            for (String log : result.getLogs()) {
-                consoleLogger.info("BUILD", log);
+    private void logSmokeTest(SmokeTestResult smokeTest) {
+        if (smokeTest == null) {
+            return;
+        }
+        String startup = formatMillis(smokeTest.getStartupMs());
+        String size = formatBytes(smokeTest.getOutputSizeBytes());
+        if (smokeTest.getBaselineStartupMs() >= 0) {
+            startup += " (previous " + formatMillis(smokeTest.getBaselineStartupMs()) + ")";
+        }
+        if (smokeTest.getBaselineOutputSizeBytes() >= 0) {
+            size += " (previous " + formatBytes(smokeTest.getBaselineOutputSizeBytes()) + ")";
+        }
+        consoleLogger.info("SMOKE", "Startup: " + startup);
+        consoleLogger.info("SMOKE", "Peak RSS: " + formatBytes(smokeTest.getPeakRssBytes()));
+        consoleLogger.info("SMOKE", "Output size: " + size);
+        if (smokeTest.hasRegressions()) {
+            for (String regression : smokeTest.getRegressions()) {
+                consoleLogger.error("SMOKE", "Regression: " + regression);
             }
         }
     }
@@ -936,18 +1176,26 @@ public class MainController implements Initializable {
         // Reset platform and format to defaults
         targetPlatformCombo.setValue(PackageConfiguration.TargetPlatform.CURRENT);
         outputFormatCombo.setValue(PackageConfiguration.OutputFormat.APP_IMAGE);
+        smokeTestCheck.setSelected(false);
+        writeManifestCheck.setSelected(false);
+        recordBuildCheck.setSelected(false);
+        activePresetName = null;
         
         // Reset JLink configuration
         enableJLinkCheck.setSelected(false);
+        linkModulesCheck.setSelected(false);
+        showJLinkOptions(null, null);
+        jlinkObjectiveCombo.setValue(JLinkTuningReport.Objective.SIZE);
         modulesListView.getCheckModel().clearChecks();
         customModuleField.clear();
         
         // Clear advanced options
+        jvmProfileCombo.setValue(JvmProfile.NONE);
         jvmArgsArea.clear();
         appArgsArea.clear();
         
         // Clear console and reset status
-        consoleArea.clear();
+        consoleLogger.clearView();
         statusLabel.setText("Ready");
         progressBar.setVisible(false);
         
@@ -963,6 +1211,264 @@ public class MainController implements Initializable {
         }
     }
 
+    private void profileModules() {
+        PackageConfiguration config = getConfigurationFromUI();
+
+        if (config.getJarFile() == null || !config.getJarFile().toFile().exists()) {
+            showAlert(Alert.AlertType.WARNING, "Warning", "Please select a valid JAR file.");
+            return;
+        }
+
+        if (config.getMainClass() == null || config.getMainClass().trim().isEmpty()) {
+            showAlert(Alert.AlertType.WARNING, "Warning", "Please enter the main class.");
+            return;
+        }
+
+        Task<ModuleProfile> profileTask = new Task<ModuleProfile>() {
+            @Override
+            protected ModuleProfile call() throws Exception {
+                updateMessage("Profiling module usage...");
+                Platform.runLater(() -> {
+                    consoleLogger.section("MODULE PROFILING");
+                    consoleLogger.info("PROFILE", "Starting traced session for: " + config.getJarFile().getFileName());
+                });
+                return moduleProfilingService.profileModules(config, logMessage -> {
+                    Platform.runLater(() -> consoleLogger.info("PROFILE", logMessage));
+                });
+            }
+
+            @Override
+            protected void succeeded() {
+                ModuleProfile profile = getValue();
+                Platform.runLater(() -> {
+                    statusLabel.textProperty().unbind();
+                    handleModuleProfile(profile);
+                    profileModulesButton.setDisable(false);
+                    statusLabel.setText(profile.isSuccess() ? "Profiling completed" : "Profiling failed");
+                });
+            }
+
+            @Override
+            protected void failed() {
+                Platform.runLater(() -> {
+                    statusLabel.textProperty().unbind();
+                    consoleLogger.error("PROFILE", "Profiling failed: " + getException().getMessage());
+                    profileModulesButton.setDisable(false);
+                    statusLabel.setText("Profiling failed");
+                });
+            }
+        };
+
+        profileModulesButton.setDisable(true);
+        statusLabel.textProperty().bind(profileTask.messageProperty());
+        new Thread(profileTask).start();
+    }
+
+    private void handleModuleProfile(ModuleProfile profile) {
+        if (!profile.isSuccess()) {
+            consoleLogger.error("PROFILE", profile.getErrorMessage());
+            showAlert(Alert.AlertType.ERROR, "Profiling Failed", profile.getErrorMessage());
+            return;
+        }
+
+        consoleLogger.success("PROFILE", "Proposed modules: " + profile.getProposedModules().size()
+                + " (was " + profile.getBaselineModules().size() + ")");
+        for (String module : profile.getProposedModules()) {
+            consoleLogger.info("MODULES", "  - " + module);
+        }
+        for (String module : profile.getRemovedModules()) {
+            consoleLogger.warning("MODULES", "  - " + module + " (never loaded during session, dropped)");
+        }
+
+        if (profile.hasComparison()) {
+            consoleLogger.info("PROFILE", "Runtime size: " + formatBytes(profile.getBaselineRuntimeSizeBytes())
+                    + " -> " + formatBytes(profile.getProfiledRuntimeSizeBytes()));
+            consoleLogger.info("PROFILE", "Startup time: " + formatMillis(profile.getBaselineStartupMs())
+                    + " -> " + formatMillis(profile.getProfiledStartupMs()));
+        }
+
+        // Propose the minimal set by checking it in the modules list
+        updateModulesList(profile.getProposedModules());
+    }
+
+    private void tuneJLinkOptions() {
+        PackageConfiguration config = getConfigurationFromUI();
+        JLinkTuningReport.Objective objective = jlinkObjectiveCombo.getValue();
+
+        if (config.getRequiredModules() == null || config.getRequiredModules().isEmpty()) {
+            showAlert(Alert.AlertType.WARNING, "Warning", "Please select the modules to link first.");
+            return;
+        }
+
+        Task<JLinkTuningReport> tuningTask = new Task<JLinkTuningReport>() {
+            @Override
+            protected JLinkTuningReport call() throws Exception {
+                updateMessage("Tuning jlink options...");
+                Platform.runLater(() -> consoleLogger.section("JLINK OPTION TUNING"));
+                return jlinkTuningService.tune(config, objective, logMessage -> {
+                    Platform.runLater(() -> consoleLogger.info("JLINK", logMessage));
+                });
+            }
+
+            @Override
+            protected void succeeded() {
+                JLinkTuningReport report = getValue();
+                Platform.runLater(() -> {
+                    statusLabel.textProperty().unbind();
+                    handleJLinkTuningReport(report);
+                    tuneJLinkButton.setDisable(false);
+                    statusLabel.setText(report.getRecommended() != null ? "jlink tuning completed" : "jlink tuning failed");
+                });
+            }
+
+            @Override
+            protected void failed() {
+                Platform.runLater(() -> {
+                    statusLabel.textProperty().unbind();
+                    consoleLogger.error("JLINK", "jlink tuning failed: " + getException().getMessage());
+                    tuneJLinkButton.setDisable(false);
+                    statusLabel.setText("jlink tuning failed");
+                });
+            }
+        };
+
+        tuneJLinkButton.setDisable(true);
+        statusLabel.textProperty().bind(tuningTask.messageProperty());
+        new Thread(tuningTask).start();
+    }
+
+    private void handleJLinkTuningReport(JLinkTuningReport report) {
+        if (report.getRecommended() == null) {
+            consoleLogger.error("JLINK", "No jlink variant could be linked");
+            showAlert(Alert.AlertType.ERROR, "Tuning Failed", "No jlink variant could be linked.");
+            return;
+        }
+
+        for (JLinkVariantResult variant : report.getVariants()) {
+            if (!variant.isSuccess()) {
+                continue;
+            }
+            String line = String.format("%-70s %10s  startup %s", variant.getOptions(),
+                    formatBytes(variant.getImageSizeBytes()), formatMillis(variant.getStartupMs()));
+            if (variant.getOptions().equals(report.getRecommended())) {
+                consoleLogger.success("JLINK", line + "  [recommended]");
+            } else {
+                consoleLogger.info("JLINK", line);
+            }
+        }
+
+        // Applied to the next build and stored with the preset
+        showJLinkOptions(report.getRecommended(), report);
+        consoleLogger.success("JLINK", report.getObjective().getDisplayName() + ": " + report.getRecommended());
+    }
+
+    private void showJLinkOptions(JLinkOptions options, JLinkTuningReport report) {
+        jlinkOptions = options;
+        jlinkTuningReport = report;
+        String text = (options != null ? options : JLinkOptions.defaults()).toString();
+        if (report != null && report.getObjective() != null) {
+            text += "  (tuned: " + report.getObjective().getDisplayName().toLowerCase() + ")";
+        }
+        jlinkOptionsLabel.setText(text);
+    }
+
+    private void benchmarkJvmProfiles() {
+        PackageConfiguration config = getConfigurationFromUI();
+
+        if (config.getJarFile() == null || !config.getJarFile().toFile().exists()) {
+            showAlert(Alert.AlertType.WARNING, "Warning", "Please select a valid JAR file.");
+            return;
+        }
+
+        if (config.getMainClass() == null || config.getMainClass().trim().isEmpty()) {
+            showAlert(Alert.AlertType.WARNING, "Warning", "Please enter the main class.");
+            return;
+        }
+
+        Task<List<JvmProfileBenchmark>> benchmarkTask = new Task<List<JvmProfileBenchmark>>() {
+            @Override
+            protected List<JvmProfileBenchmark> call() throws Exception {
+                updateMessage("Benchmarking JVM profiles...");
+                Platform.runLater(() -> consoleLogger.section("JVM PROFILE BENCHMARK"));
+                return jvmTuningService.benchmarkProfiles(config, logMessage -> {
+                    Platform.runLater(() -> consoleLogger.info("TUNING", logMessage));
+                });
+            }
+
+            @Override
+            protected void succeeded() {
+                List<JvmProfileBenchmark> results = getValue();
+                Platform.runLater(() -> {
+                    statusLabel.textProperty().unbind();
+                    handleBenchmarkResults(results);
+                    benchmarkProfilesButton.setDisable(false);
+                    statusLabel.setText("Benchmark completed");
+                });
+            }
+
+            @Override
+            protected void failed() {
+                Platform.runLater(() -> {
+                    statusLabel.textProperty().unbind();
+                    consoleLogger.error("TUNING", "Benchmark failed: " + getException().getMessage());
+                    benchmarkProfilesButton.setDisable(false);
+                    statusLabel.setText("Benchmark failed");
+                });
+            }
+        };
+
+        benchmarkProfilesButton.setDisable(true);
+        statusLabel.textProperty().bind(benchmarkTask.messageProperty());
+        new Thread(benchmarkTask).start();
+    }
+
+    private void handleBenchmarkResults(List<JvmProfileBenchmark> results) {
+        JvmProfileBenchmark fastest = results.stream()
+                .filter(result -> result.isSuccess() && result.getStartupMs() >= 0)
+                .min(Comparator.comparingLong(JvmProfileBenchmark::getStartupMs))
+                .orElse(null);
+        JvmProfileBenchmark leanest = results.stream()
+                .filter(result -> result.isSuccess() && result.getPeakRssBytes() > 0)
+                .min(Comparator.comparingLong(JvmProfileBenchmark::getPeakRssBytes))
+                .orElse(null);
+
+        for (JvmProfileBenchmark result : results) {
+            String name = result.getProfile().getDisplayName();
+            if (!result.isSuccess()) {
+                consoleLogger.error("TUNING", String.format("%-30s failed: %s", name, result.getErrorMessage()));
+                continue;
+            }
+
+            String line = String.format("%-30s startup %-16s peak RSS %s", name,
+                    formatMillis(result.getStartupMs()), formatBytes(result.getPeakRssBytes()));
+            if (result == fastest) {
+                line += "  [fastest startup]";
+            }
+            if (result == leanest) {
+                line += "  [lowest memory]";
+            }
+            if (result.getFailedRuns() > 0) {
+                consoleLogger.warning("TUNING", line + "  (" + result.getFailedRuns() + " failed runs)");
+            } else {
+                consoleLogger.info("TUNING", line);
+            }
+        }
+    }
+
+    private String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "n/a";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private String formatMillis(long millis) {
+        return millis < 0 ? "n/a (no output)" : millis + " ms";
+    }
+
     private void savePreset() {
         String name = presetNameField.getText().trim();
         if (name.isEmpty()) {
@@ -973,6 +1479,7 @@ public class MainController implements Initializable {
         try {
             PackageConfiguration config = getConfigurationFromUI();
             configurationService.savePreset(name, config);
+            activePresetName = name;
             refreshPresets();
             presetNameField.clear();
             showAlert(Alert.AlertType.INFORMATION, "Success", "Preset saved successfully!");
@@ -1020,27 +1527,196 @@ public class MainController implements Initializable {
         }
     }
 
+    private void importPresets() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Import Presets From");
+
+        File directory = directoryChooser.showDialog(presetsCombo.getScene().getWindow());
+        if (directory != null) {
+            try {
+                int imported = configurationService.importPresets(directory.toPath());
+                refreshPresets();
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Imported " + imported + " presets.");
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to import presets: " + e.getMessage());
+            }
+        }
+    }
+
+    private void exportPresets() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setTitle("Export Presets To");
+
+        File directory = directoryChooser.showDialog(presetsCombo.getScene().getWindow());
+        if (directory != null) {
+            try {
+                int exported = configurationService.exportPresets(directory.toPath());
+                showAlert(Alert.AlertType.INFORMATION, "Success", "Exported " + exported + " presets.");
+            } catch (Exception e) {
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to export presets: " + e.getMessage());
+            }
+        }
+    }
+
+    private void initializePresets() {
+        // Lists show what each preset builds; the catalog answers from memory
+        presetsCombo.setCellFactory(view -> new ListCell<>() {
+            @Override
+            protected void updateItem(String name, boolean empty) {
+                super.updateItem(name, empty);
+                if (empty || name == null) {
+                    setText(null);
+                    return;
+                }
+                setText(configurationService.findPreset(name)
+                        .filter(preset -> preset.getAppName() != null)
+                        .map(preset -> name + "  (" + preset.getAppName()
+                                + (preset.getOutputFormat() != null ? ", " + preset.getOutputFormat().getDisplayName() : "")
+                                + ")")
+                        .orElse(name));
+            }
+        });
+        configurationService.addPresetListener(() -> Platform.runLater(this::refreshPresets));
+        // Type-ahead search narrows the list to the best matches; Enter loads the top one
+        presetSearchField.textProperty().addListener((observable, previous, query) -> refreshPresets());
+        presetSearchField.setOnAction(e -> {
+            if (presetsCombo.getValue() != null) {
+                loadPreset();
+            }
+        });
+        refreshPresets();
+    }
+
     private void refreshPresets() {
-        List<String> presets = configurationService.getAvailablePresets();
-        presets.sort(String::compareToIgnoreCase);
-        presetsCombo.setItems(FXCollections.observableArrayList(presets));
+        String query = presetSearchField.getText();
+        if (query == null || query.isBlank()) {
+            String selected = presetsCombo.getValue();
+            presetsCombo.setItems(FXCollections.observableArrayList(configurationService.getAvailablePresets()));
+            if (selected != null && configurationService.findPreset(selected).isPresent()) {
+                presetsCombo.setValue(selected);
+            }
+            return;
+        }
+        List<String> matches = configurationService.searchPresets(query, PRESET_SEARCH_RESULTS).stream()
+                .map(PresetSummary::getName)
+                .toList();
+        presetsCombo.setItems(FXCollections.observableArrayList(matches));
+        presetsCombo.setValue(matches.isEmpty() ? null : matches.get(0));
+    }
+
+    private void initializeConsole() {
+        consoleView.setCellFactory(view -> new LogRecordCell());
+        consoleView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        consoleView.setOnKeyPressed(event -> {
+            if (COPY_SHORTCUT.match(event)) {
+                String text = consoleView.getSelectionModel().getSelectedItems().stream()
+                        .map(LogRecord::displayText)
+                        .collect(Collectors.joining("\n"));
+                ClipboardContent content = new ClipboardContent();
+                content.putString(text);
+                Clipboard.getSystemClipboard().setContent(content);
+            }
+        });
+        consoleLogger.setConsoleView(consoleView);
+
+        List<String> levels = new ArrayList<>();
+        levels.add(ALL_LEVELS);
+        Arrays.stream(LogLevel.values()).map(LogLevel::name).forEach(levels::add);
+        consoleLevelFilter.setItems(FXCollections.observableArrayList(levels));
+        consoleLevelFilter.setValue(ALL_LEVELS);
+        consoleCategoryFilter.setItems(FXCollections.observableArrayList(ALL_CATEGORIES));
+        consoleCategoryFilter.setValue(ALL_CATEGORIES);
+        // Categories show up as they are logged, so the list is refreshed whenever it opens
+        consoleCategoryFilter.setOnShowing(e -> {
+            List<String> categories = new ArrayList<>();
+            categories.add(ALL_CATEGORIES);
+            categories.addAll(consoleLogger.categories());
+            if (!categories.equals(consoleCategoryFilter.getItems())) {
+                String selected = consoleCategoryFilter.getValue();
+                consoleCategoryFilter.getItems().setAll(categories);
+                consoleCategoryFilter.setValue(selected);
+            }
+        });
+
+        consoleLevelFilter.valueProperty().addListener((obs, oldValue, newValue) -> applyConsoleFilter());
+        consoleCategoryFilter.valueProperty().addListener((obs, oldValue, newValue) -> applyConsoleFilter());
+        consoleSearchField.textProperty().addListener((obs, oldValue, newValue) -> applyConsoleFilter());
+    }
+
+    private void applyConsoleFilter() {
+        String level = consoleLevelFilter.getValue();
+        String category = consoleCategoryFilter.getValue();
+        LogFilter filter = LogFilter.builder()
+                .level(level == null || ALL_LEVELS.equals(level) ? null : LogLevel.valueOf(level))
+                .category(category == null || ALL_CATEGORIES.equals(category) ? null : category)
+                .text(consoleSearchField.getText())
+                .build();
+        int matches = consoleLogger.applyFilter(filter);
+        consoleMatchLabel.setText(filter.isEmpty() ? "" : matches + (matches == 1 ? " match" : " matches"));
     }
 
     private void exportLogs() {
+        if (logExport != null) {
+            logExport.cancel(true);
+            return;
+        }
+
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Export Logs");
         fileChooser.setInitialFileName("packaroo-logs.txt");
-        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text Files", "*.txt"));
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Text Files", "*.txt"),
+                new FileChooser.ExtensionFilter("Compressed Text Files", "*.txt.gz"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"),
+                new FileChooser.ExtensionFilter("Compressed JSON Lines", "*.jsonl.gz"));
 
         File file = fileChooser.showSaveDialog(exportLogsButton.getScene().getWindow());
-        if (file != null) {
-            try {
-                java.nio.file.Files.write(file.toPath(), consoleArea.getText().getBytes());
-                showAlert(Alert.AlertType.INFORMATION, "Success", "Logs exported successfully!");
-            } catch (Exception e) {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to export logs: " + e.getMessage());
-            }
+        if (file == null) {
+            return;
         }
+        Path target = file.toPath();
+        LogStore.Cursor history = consoleLogger.history();
+
+        Task<Long> exportTask = new Task<Long>() {
+            @Override
+            protected Long call() throws Exception {
+                updateMessage("Exporting logs...");
+                return logExportService.export(history, target, LogExportService.Format.forFile(target),
+                        LogExportService.isGzip(target),
+                        fraction -> updateMessage(String.format("Exporting logs... %.0f%%", fraction * 100)));
+            }
+
+            @Override
+            protected void succeeded() {
+                finishLogExport("Logs exported");
+                consoleLogger.success("SYSTEM", "Exported " + getValue() + " log records to " + target);
+            }
+
+            @Override
+            protected void cancelled() {
+                finishLogExport("Log export cancelled");
+            }
+
+            @Override
+            protected void failed() {
+                finishLogExport("Log export failed");
+                showAlert(Alert.AlertType.ERROR, "Error", "Failed to export logs: " + getException().getMessage());
+            }
+        };
+
+        logExport = exportTask;
+        exportLogsButton.setText("Cancel Export");
+        statusLabel.textProperty().bind(exportTask.messageProperty());
+        Thread worker = new Thread(exportTask, "log-export");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void finishLogExport(String status) {
+        logExport = null;
+        exportLogsButton.setText("Export Logs");
+        statusLabel.textProperty().unbind();
+        statusLabel.setText(status);
     }
 
     private void toggleTheme() {
@@ -1093,6 +1769,8 @@ public class MainController implements Initializable {
                         consoleLogger.warning("SYSTEM", "jlink tool is not available. JLink features will be disabled.");
                         enableJLinkCheck.setDisable(true);
                         enableJLinkCheck.setSelected(false);
+                        linkModulesCheck.setDisable(true);
+                        tuneJLinkButton.setDisable(true);
                     }
                 });
 
@@ -1121,7 +1799,8 @@ public class MainController implements Initializable {
         // Tools Menu
         analyzeJarMenuItem.setOnAction(e -> analyzeJar());
         packageAppMenuItem.setOnAction(e -> packageApplication());
-        clearConsoleMenuItem.setOnAction(e -> consoleArea.clear());
+        buildHistoryMenuItem.setOnAction(e -> showBuildHistory());
+        clearConsoleMenuItem.setOnAction(e -> consoleLogger.clearView());
 
         // Help Menu
         setupMenuItem.setOnAction(e -> showSetupGuideView());
@@ -1266,65 +1945,4 @@ public class MainController implements Initializable {
             backToMainMenuItem.setVisible(isSetupGuideViewActive);
         }
     }
-    
-    // Animated Progress Bar Methods
-    private void startAnimatedProgressBar() {
-        // Stop any existing animation
-        stopAnimatedProgressBar();
-        
-        // Add animated loading style class
-        progressBar.getStyleClass().add("animated-loading");
-        
-        // Reset progress values
-        currentProgress = 0.0;
-        isIncrementing = true;
-        progressBar.setProgress(currentProgress);
-        
-        // Create incremental progress animation
-        progressAnimation = new Timeline();
-        progressAnimation.setCycleCount(Timeline.INDEFINITE);
-        
-        // Update progress every 100ms for smooth animation
-        KeyFrame progressFrame = new KeyFrame(Duration.millis(100), e -> updateIncrementalProgress());
-        progressAnimation.getKeyFrames().add(progressFrame);
-        progressAnimation.play();
-    }
-    
-    private void stopAnimatedProgressBar() {
-        // Stop animation
-        if (progressAnimation != null) {
-            progressAnimation.stop();
-            progressAnimation = null;
-        }
-        
-        // Remove animated loading style class
-        progressBar.getStyleClass().removeAll("animated-loading");
-        
-        // Reset to determinate mode
-        progressBar.setProgress(0.0);
-        currentProgress = 0.0;
-        isIncrementing = true;
-    }
-    
-    private void updateIncrementalProgress() {
-        Platform.runLater(() -> {
-            if (isIncrementing) {
-                // Increment from 0 to 100%
-                currentProgress += PROGRESS_STEP;
-                if (currentProgress >= 1.0) {
-                    currentProgress = 1.0;
-                    isIncrementing = false; // Start decrementing
-                }
-            } else {
-                // Decrement from 100% to 0
-                currentProgress -= PROGRESS_STEP;
-                if (currentProgress <= 0.0) {
-                    currentProgress = 0.0;
-                    isIncrementing = true; // Start incrementing again
-                }
-            }
-            
-            progressBar.setProgress(currentProgress);
-        });
-    }
 }
@@ -20,15 +20,16 @@ import javafx.scene.paint.Stop;
 import javafx.scene.shape.Rectangle;
 import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.stereotype.Component;
 
 import java.net.URL;
 import java.util.ResourceBundle;
 import java.util.prefs.Preferences;
 
+/**
+ * Shown while startup runs, before the Spring context exists, so it is created directly
+ * rather than as a bean.
+ */
 @Slf4j
-@Component
 public class SplashController implements Initializable {
 
     @FXML private ImageView logoImageView;
@@ -42,12 +43,11 @@ public class SplashController implements Initializable {
     private static final Preferences prefs = Preferences.userRoot().node("com/devdam/desktop/theme");
     private static final String DARK_THEME_KEY = "darkTheme";
 
-    // Application properties
-    @Value("${application.title}")
-    private String applicationTitle;
-    
-    @Value("${application.version}")
-    private String applicationVersion;
+    private final String applicationVersion;
+
+    public SplashController(String applicationVersion) {
+        this.applicationVersion = applicationVersion;
+    }
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -57,6 +57,7 @@ public class SplashController implements Initializable {
         titleLabel.setText("Packaroo");
         versionLabel.setText("v" + applicationVersion);
         statusLabel.setText("Loading...");
+        loadingProgressBar.setProgress(0);
         
         // Ensure all elements are initially visible
         logoImageView.setOpacity(1.0);
@@ -72,10 +73,7 @@ public class SplashController implements Initializable {
         loadThemePreference();
         
         // Start animations with a slight delay to ensure everything is rendered
-        javafx.application.Platform.runLater(() -> {
-            startAnimations();
-            simulateLoading();
-        });
+        javafx.application.Platform.runLater(this::startAnimations);
     }
 
     private void setupLogo() {
@@ -194,44 +192,12 @@ public class SplashController implements Initializable {
         versionAnimation.play();
     }
 
-    private void simulateLoading() {
-        Timeline timeline = new Timeline();
-        
-        // Simulate loading progress
-        javafx.animation.KeyFrame keyFrame1 = new javafx.animation.KeyFrame(
-            Duration.seconds(0.5), 
-            e -> {
-                loadingProgressBar.setProgress(0.2);
-                statusLabel.setText("Initializing components...");
-            }
-        );
-        
-        javafx.animation.KeyFrame keyFrame2 = new javafx.animation.KeyFrame(
-            Duration.seconds(1.0), 
-            e -> {
-                loadingProgressBar.setProgress(0.5);
-                statusLabel.setText("Loading services...");
-            }
-        );
-        
-        javafx.animation.KeyFrame keyFrame3 = new javafx.animation.KeyFrame(
-            Duration.seconds(1.5), 
-            e -> {
-                loadingProgressBar.setProgress(0.8);
-                statusLabel.setText("Preparing UI...");
-            }
-        );
-        
-        javafx.animation.KeyFrame keyFrame4 = new javafx.animation.KeyFrame(
-            Duration.seconds(2.0), 
-            e -> {
-                loadingProgressBar.setProgress(1.0);
-                statusLabel.setText("Ready!");
-            }
-        );
-        
-        timeline.getKeyFrames().addAll(keyFrame1, keyFrame2, keyFrame3, keyFrame4);
-        timeline.play();
+    /**
+     * Shows how far startup got; called on the application thread.
+     */
+    public void showProgress(double progress, String status) {
+        loadingProgressBar.setProgress(progress);
+        statusLabel.setText(status);
     }
     
     private void loadThemePreference() {
@@ -0,0 +1,29 @@
+package com.devdam.desktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.devdam.packaroo.BuildOutput")
+@Label("Build Output")
+@Category({"Packaroo", "Build"})
+@Description("Output written by one build, from its first line to the last")
+public class BuildOutputEvent extends Event {
+
+    @Label("Application")
+    public String appName;
+
+    @Label("Lines")
+    public long lines;
+
+    @Label("Error Lines")
+    public long errorLines;
+
+    @Label("Characters")
+    public long characters;
+
+    @Label("Log File")
+    public String logFile;
+}
@@ -0,0 +1,21 @@
+package com.devdam.desktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.devdam.packaroo.BuildStage")
+@Label("Build Stage")
+@Category({"Packaroo", "Build"})
+public class BuildStageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Tool Processes")
+    public int processCount;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+}
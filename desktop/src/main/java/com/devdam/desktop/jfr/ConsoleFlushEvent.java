@@ -0,0 +1,18 @@
+package com.devdam.desktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.devdam.packaroo.ConsoleFlush")
+@Label("Console Flush")
+@Category({"Packaroo", "Console"})
+public class ConsoleFlushEvent extends Event {
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("Characters")
+    public long characters;
+}
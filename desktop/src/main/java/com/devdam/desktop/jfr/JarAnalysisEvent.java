@@ -0,0 +1,29 @@
+package com.devdam.desktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.devdam.packaroo.JarAnalysis")
+@Label("JAR Analysis")
+@Category({"Packaroo", "Analysis"})
+@Description("Dependency analysis of an application JAR")
+public class JarAnalysisEvent extends Event {
+
+    @Label("JAR")
+    public String jarPath;
+
+    @Label("JAR Size")
+    @DataAmount
+    public long jarSize;
+
+    @Label("Required Modules")
+    public int moduleCount;
+
+    @Label("Fell Back To Defaults")
+    @Description("jdeps was unavailable or failed and the default module set was used")
+    public boolean usedDefaults;
+}
@@ -0,0 +1,26 @@
+package com.devdam.desktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.devdam.packaroo.RuntimeCacheLookup")
+@Label("Runtime Cache Lookup")
+@Category({"Packaroo", "jlink"})
+@Description("Lookup of a linked runtime image in the runtime cache, including the link on a miss")
+public class RuntimeCacheEvent extends Event {
+
+    @Label("Cache Key")
+    public String cacheKey;
+
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("Module Count")
+    public int moduleCount;
+
+    @Label("jlink Options")
+    public String options;
+}
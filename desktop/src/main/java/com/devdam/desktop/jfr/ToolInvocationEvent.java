@@ -0,0 +1,26 @@
+package com.devdam.desktop.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.devdam.packaroo.ToolInvocation")
+@Label("Tool Invocation")
+@Category({"Packaroo", "Tools"})
+@Description("An external tool (jdeps, jlink, jpackage, ...) run by Packaroo, from start to exit")
+public class ToolInvocationEvent extends Event {
+
+    @Label("Tool")
+    public String tool;
+
+    @Label("Command Line")
+    public String commandLine;
+
+    @Label("Process Id")
+    public long pid;
+
+    @Label("Exit Code")
+    public int exitCode;
+}
@@ -0,0 +1,39 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expected course of a build, derived from earlier builds of the same or a similar configuration.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildEstimate {
+
+    private List<BuildStage> plannedStages;  // Stages the configuration will run, in order
+    private Map<BuildStage, Long> stageTimesMs;
+    private long runtimeSizeBytes;           // Expected jlink output, -1 when unknown
+    private long outputSizeBytes;            // Expected jpackage output, -1 when unknown
+    private int basedOnBuilds;               // 0 when the times are defaults rather than history
+    private String basis;                    // e.g. "preset release" or "similar configurations"
+
+    public boolean isFromHistory() {
+        return basedOnBuilds > 0;
+    }
+
+    public long stageTimeMs(BuildStage stage) {
+        Long time = stageTimesMs != null ? stageTimesMs.get(stage) : null;
+        return time != null ? time : 0;
+    }
+
+    public long totalMs() {
+        return plannedStages.stream().mapToLong(this::stageTimeMs).sum();
+    }
+}
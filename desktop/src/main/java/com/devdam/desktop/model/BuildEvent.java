@@ -0,0 +1,36 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Something that happened during a build, as published to the build's subscribers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildEvent {
+
+    public enum Type {
+        STAGE_STARTED,     // stage
+        STAGE_FINISHED,    // stage, metrics
+        LINE,              // text: a line of tool or build output
+        ARTIFACT,          // text: what was produced, path
+        SAMPLE             // stage, progress
+    }
+
+    private Type type;
+    private long timestamp;               // Epoch millis
+    private BuildStage stage;
+    private String text;
+    private String path;
+    private StageMetrics metrics;
+    private BuildProgress progress;
+
+    public static BuildEvent line(String text) {
+        return BuildEvent.builder().type(Type.LINE).timestamp(System.currentTimeMillis()).text(text).build();
+    }
+}
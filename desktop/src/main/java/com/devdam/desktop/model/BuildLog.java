@@ -0,0 +1,21 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Where the complete output of a build was stored, and how much of it there is.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildLog {
+
+    private String path;              // null when the log file could not be written
+    private long lines;
+    private long detailLines;         // Part of lines that was not shown in the console
+    private long errorLines;
+}
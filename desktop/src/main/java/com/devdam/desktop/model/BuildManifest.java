@@ -0,0 +1,30 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildManifest {
+
+    private String appName;
+    private String version;
+    private LocalDateTime createdAt;
+    private String algorithm;
+    private long totalSizeBytes;
+    private List<ManifestEntry> files;   // Sorted by path
+
+    public ManifestEntry find(String path) {
+        return files == null ? null : files.stream()
+                .filter(entry -> entry.getPath().equals(path))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildProgress {
+
+    private BuildStage stage;
+    private double fraction;                  // 0 to 1 over the whole build
+    private long remainingMs;                // -1 while there is no history to estimate from
+    private long bytesWritten;               // Written by the tool processes of the current stage
+}
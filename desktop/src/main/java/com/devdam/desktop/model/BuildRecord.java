@@ -0,0 +1,36 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary of one finished build as kept in the build history. Logs are not part of it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildRecord {
+
+    private LocalDateTime timestamp;
+    private String presetName;               // null for builds that were not started from a preset
+    private String appName;
+    private boolean success;
+    private String message;
+    private long executionTimeMs;
+    private PackageConfiguration.OutputFormat outputFormat;
+    private String outputPath;
+    private long outputSizeBytes;            // App image size, -1 when not measured
+    private long runtimeSizeBytes;           // jlink runtime size, -1 without a custom runtime
+    private long startupMs;                  // Smoke test startup, -1 without a smoke test
+    private Boolean cacheHit;                // Runtime cache outcome, null when jlink did not run
+    private long jarSizeBytes;               // -1 when the JAR could not be read
+    private int moduleCount;                 // Required modules selected for the build
+    private String configFingerprint;
+    private List<StageMetrics> stages;
+}
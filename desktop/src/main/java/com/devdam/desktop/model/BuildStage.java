@@ -0,0 +1,19 @@
+package com.devdam.desktop.model;
+
+public enum BuildStage {
+    VALIDATE("Validate"),
+    ANALYSIS("Analysis"),
+    JLINK("jlink"),
+    JPACKAGE("jpackage"),
+    POST_PROCESS("Post-processing");
+
+    private final String displayName;
+
+    BuildStage(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,46 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * The numbers of a {@link BuildRecord} that trend queries need, read from the history index
+ * without loading the record itself.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildSummary {
+
+    private int id;                          // Position in the history; changes when the history is compacted
+    private LocalDateTime timestamp;
+    private String presetName;
+    private String appName;
+    private boolean success;
+    private long executionTimeMs;
+    private Map<BuildStage, Long> stageTimesMs;  // Wall time of the stages that ran
+    private long outputSizeBytes;
+    private long startupMs;
+    private Boolean cacheHit;
+    private long runtimeSizeBytes;
+    private long jarSizeBytes;
+    private int moduleCount;                 // -1 when not recorded
+    private PackageConfiguration.OutputFormat outputFormat;
+
+    /**
+     * Wall time of one stage, or of the whole build when {@code stage} is null; -1 if the stage did not run.
+     */
+    public long timeMs(BuildStage stage) {
+        if (stage == null) {
+            return executionTimeMs;
+        }
+        Long time = stageTimesMs != null ? stageTimesMs.get(stage) : null;
+        return time != null ? time : -1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BuildTrend {
+
+    private String subject;                  // Preset or app name the trend was queried for
+    private BuildStage stage;                // null for whole-build time
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int builds;
+    private int successfulBuilds;
+    private long minMs;
+    private long medianMs;
+    private long p90Ms;
+    private long maxMs;
+    private double changePercent;            // Median of the newer half against the older half
+    private List<BuildSummary> points;       // Successful builds where the stage ran, oldest first
+
+    public String summary() {
+        String measured = stage != null ? stage.getDisplayName() : "Build";
+        if (points == null || points.isEmpty()) {
+            return String.format("%-16s no successful builds in %d builds", measured, builds);
+        }
+        return String.format("%-16s median %6d ms, p90 %6d ms, min %6d ms, max %6d ms, trend %+.1f%% (%d of %d builds)",
+                measured, medianMs, p90Ms, minMs, maxMs, changePercent, points.size(), builds);
+    }
+}
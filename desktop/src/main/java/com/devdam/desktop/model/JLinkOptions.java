@@ -0,0 +1,52 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class JLinkOptions {
+
+    @Builder.Default
+    private int compressLevel = 2;
+    private boolean stripDebug;
+    @Builder.Default
+    private boolean noHeaderFiles = true;
+    @Builder.Default
+    private boolean noManPages = true;
+    private boolean generateCdsArchive;
+
+    public static JLinkOptions defaults() {
+        return JLinkOptions.builder().build();
+    }
+
+    public List<String> toArguments() {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--compress=" + compressLevel);
+        if (stripDebug) {
+            arguments.add("--strip-debug");
+        }
+        if (noHeaderFiles) {
+            arguments.add("--no-header-files");
+        }
+        if (noManPages) {
+            arguments.add("--no-man-pages");
+        }
+        if (generateCdsArchive) {
+            arguments.add("--generate-cds-archive");
+        }
+        return arguments;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", toArguments());
+    }
+}
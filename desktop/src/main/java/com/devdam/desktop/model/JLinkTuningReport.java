@@ -0,0 +1,43 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JLinkTuningReport {
+
+    private Objective objective;
+    private LocalDateTime timestamp;
+    private int jdkVersion;
+    private List<String> modules;
+    private List<JLinkVariantResult> variants;
+    private JLinkOptions recommended;
+
+    public enum Objective {
+        SIZE("Smallest image"),
+        STARTUP("Fastest startup");
+
+        private final String displayName;
+
+        Objective(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+}
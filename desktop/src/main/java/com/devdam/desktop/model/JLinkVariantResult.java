@@ -0,0 +1,20 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JLinkVariantResult {
+
+    private JLinkOptions options;
+    private boolean success;
+    private String errorMessage;
+    private long imageSizeBytes;
+    private long startupMs;        // Median time to first output, -1 if not measured
+    private long linkTimeMs;
+}
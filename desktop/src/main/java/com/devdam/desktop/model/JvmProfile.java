@@ -0,0 +1,81 @@
+package com.devdam.desktop.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public enum JvmProfile {
+    NONE("None (custom arguments only)"),
+    LOW_LATENCY("Low Latency"),
+    THROUGHPUT("Throughput"),
+    LOW_MEMORY_DESKTOP("Low-Memory Desktop"),
+    CONTAINER("Container");
+
+    private final String displayName;
+
+    JvmProfile(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Vetted GC, heap and JIT flags for this profile.
+     *
+     * @param jdkFeature    feature release of the runtime the app will run on (17, 21, ...)
+     * @param linkedModules modules present in the runtime image, or {@code null} for a full JDK
+     */
+    public List<String> flags(int jdkFeature, Set<String> linkedModules) {
+        List<String> flags = new ArrayList<>();
+        switch (this) {
+            case LOW_LATENCY -> {
+                if (jdkFeature >= 23) {
+                    flags.add("-XX:+UseZGC"); // Generational mode is the default from 23
+                } else if (jdkFeature >= 21) {
+                    flags.add("-XX:+UseZGC");
+                    flags.add("-XX:+ZGenerational");
+                } else if (jdkFeature >= 15) {
+                    flags.add("-XX:+UseZGC");
+                } else {
+                    flags.add("-XX:+UseG1GC");
+                    flags.add("-XX:MaxGCPauseMillis=50");
+                }
+                flags.add("-XX:MaxRAMPercentage=50");
+            }
+            case THROUGHPUT -> {
+                flags.add("-XX:+UseParallelGC");
+                flags.add("-XX:MaxRAMPercentage=75");
+                flags.add("-XX:InitialRAMPercentage=25");
+            }
+            case LOW_MEMORY_DESKTOP -> {
+                flags.add("-XX:+UseSerialGC");
+                flags.add("-XX:MaxRAMPercentage=25");
+                flags.add("-XX:MinHeapFreeRatio=10");
+                flags.add("-XX:MaxHeapFreeRatio=30");
+                flags.add("-XX:TieredStopAtLevel=1"); // C1 only: faster warm-up, smaller code cache
+                flags.add("-XX:ReservedCodeCacheSize=32m");
+                flags.add("-Xss512k");
+            }
+            case CONTAINER -> {
+                flags.add("-XX:+UseContainerSupport");
+                flags.add("-XX:+UseG1GC");
+                flags.add("-XX:InitialRAMPercentage=50");
+                flags.add("-XX:MaxRAMPercentage=75");
+                flags.add("-XX:+ExitOnOutOfMemoryError");
+                if (hasModule(linkedModules, "jdk.jfr")) {
+                    // Continuous low-overhead recording, only when the runtime can actually load JFR
+                    flags.add("-XX:StartFlightRecording=disk=true,maxsize=64m,dumponexit=true");
+                }
+            }
+            case NONE -> {
+            }
+        }
+        return flags;
+    }
+
+    private static boolean hasModule(Set<String> linkedModules, String module) {
+        return linkedModules == null || linkedModules.contains(module);
+    }
+}
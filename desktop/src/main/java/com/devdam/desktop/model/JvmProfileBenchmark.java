@@ -0,0 +1,27 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JvmProfileBenchmark {
+
+    private JvmProfile profile;
+    private List<String> javaOptions;
+    private int runs;
+    private int failedRuns;
+    private long startupMs;        // Median time to first output, -1 if no run produced output
+    private long peakRssBytes;     // Highest resident set size seen across runs
+    private String errorMessage;
+
+    public boolean isSuccess() {
+        return runs > failedRuns;
+    }
+}
@@ -0,0 +1,34 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LaunchMeasurement {
+
+    private boolean started;
+    private long readyTimeMs;      // Time to first output line, -1 if the process never wrote anything
+    private long wallTimeMs;
+    private long peakRssBytes;
+    private boolean exited;
+    private Integer exitCode;
+    private boolean timedOut;
+    private String errorMessage;
+
+    public boolean isReady() {
+        return readyTimeMs >= 0;
+    }
+
+    public static LaunchMeasurement failed(String errorMessage) {
+        return LaunchMeasurement.builder()
+                .started(false)
+                .readyTimeMs(-1)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
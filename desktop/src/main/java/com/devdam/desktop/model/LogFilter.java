@@ -0,0 +1,21 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogFilter {
+
+    private LogLevel level;          // null for every level
+    private String category;         // null for every category
+    private String text;             // Words that must each start a word of the message
+
+    public boolean isEmpty() {
+        return level == null && category == null && (text == null || text.isBlank());
+    }
+}
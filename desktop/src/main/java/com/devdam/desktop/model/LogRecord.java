@@ -0,0 +1,88 @@
+package com.devdam.desktop.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One line of the console. Plain lines, such as separators, have no level.
+ * <p>
+ * Kept small because a session can hold a great many of them: the time is stored as epoch nanos,
+ * the level as its ordinal and the category as a shared instance. The text shown in the console or
+ * written to an export is only put together when it is asked for.
+ */
+public final class LogRecord {
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final DateTimeFormatter FULL_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LogLevel[] LEVELS = LogLevel.values();
+    private static final Map<String, String> CATEGORIES = new ConcurrentHashMap<>();
+    private static final int LEVEL_WIDTH = 8;
+
+    private final long epochNanos;
+    private final byte level;          // LogLevel ordinal, -1 for plain lines
+    private final String category;
+    private final String message;
+
+    public LogRecord(long epochNanos, LogLevel level, String category, String message) {
+        this.epochNanos = epochNanos;
+        this.level = level != null ? (byte) level.ordinal() : -1;
+        this.category = category != null ? CATEGORIES.computeIfAbsent(category, name -> name) : null;
+        this.message = message;
+    }
+
+    public static LogRecord now(LogLevel level, String category, String message) {
+        Instant now = Instant.now();
+        return new LogRecord(now.getEpochSecond() * 1_000_000_000L + now.getNano(), level, category, message);
+    }
+
+    public static LogRecord plain(String text) {
+        return now(null, null, text);
+    }
+
+    public long getEpochNanos() { return epochNanos; }
+    public LogLevel getLevel() { return level >= 0 ? LEVELS[level] : null; }
+    public String getCategory() { return category; }
+    public String getMessage() { return message; }
+
+    public LocalDateTime getTimestamp() {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(0, epochNanos), ZoneId.systemDefault());
+    }
+
+    /**
+     * The line as shown in the console.
+     */
+    public String displayText() {
+        if (level < 0) {
+            return message;
+        }
+        LogLevel logLevel = LEVELS[level];
+        StringBuilder text = new StringBuilder(32 + message.length());
+        text.append('[').append(getTimestamp().format(TIME_FORMATTER)).append("] ");
+        text.append(logLevel.getIcon()).append(' ');
+        text.append(logLevel.getName());
+        for (int pad = logLevel.getName().length(); pad < LEVEL_WIDTH; pad++) {
+            text.append(' ');
+        }
+        if (category != null && !category.isBlank()) {
+            text.append(" [").append(category.toUpperCase()).append("] ");
+        } else {
+            text.append(' ');
+        }
+        return text.append(message).toString();
+    }
+
+    /**
+     * The line as written to exported logs.
+     */
+    public String historyText() {
+        if (level < 0) {
+            return message;
+        }
+        return "[" + getTimestamp().format(FULL_FORMATTER) + "] " + LEVELS[level].getName()
+                + (category != null ? " [" + category + "]" : "") + " " + message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ManifestEntry {
+
+    private String path;             // Relative to the output directory, always with '/' separators
+    private long size;
+    private long lastModified;       // Epoch millis; an unchanged size and time lets the hash be reused
+    private String sha256;
+}
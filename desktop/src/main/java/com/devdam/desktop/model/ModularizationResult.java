@@ -0,0 +1,30 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModularizationResult {
+
+    private boolean success;
+    private String errorMessage;
+    private Path modulePath;             // Directory holding only explicit modules, ready for jlink
+    private String applicationModule;    // Module that contains the main class
+    private List<String> linkedModules;  // Application and dependency modules placed on the module path
+    private List<String> synthesizedModules; // Subset that received a generated module-info
+
+    public static ModularizationResult failure(String errorMessage) {
+        return ModularizationResult.builder()
+                .success(false)
+                .errorMessage(errorMessage)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModuleProfile {
+
+    private boolean success;
+    private String errorMessage;
+
+    // Module sets
+    private Set<String> baselineModules;   // What analysis / the user selected
+    private Set<String> observedModules;   // Modules that actually loaded classes during the session
+    private Set<String> proposedModules;   // Minimal set to hand to jlink
+    private Set<String> removedModules;    // Baseline modules that were never touched
+
+    // Session details
+    private long sessionSeconds;
+    private int classesLoaded;
+
+    // Before/after comparison (-1 when not measured)
+    private long baselineRuntimeSizeBytes;
+    private long profiledRuntimeSizeBytes;
+    private long baselineStartupMs;
+    private long profiledStartupMs;
+
+    public boolean hasComparison() {
+        return baselineRuntimeSizeBytes >= 0 && profiledRuntimeSizeBytes >= 0;
+    }
+
+    public static ModuleProfile failure(String errorMessage, Set<String> baselineModules) {
+        return ModuleProfile.builder()
+                .success(false)
+                .errorMessage(errorMessage)
+                .baselineModules(baselineModules)
+                .baselineRuntimeSizeBytes(-1)
+                .profiledRuntimeSizeBytes(-1)
+                .baselineStartupMs(-1)
+                .profiledStartupMs(-1)
+                .build();
+    }
+}
@@ -16,6 +16,7 @@ import java.util.Set;
 public class PackageConfiguration {
     
     // Basic configuration
+    private String presetName;               // Set when saved as or loaded from a preset
     private Path jarFile;
     private String appName;
     private String version;
@@ -26,15 +27,22 @@ public class PackageConfiguration {
     // Platform and format
     private TargetPlatform targetPlatform;
     private OutputFormat outputFormat;
+    private boolean smokeTest;               // Launch the app image after packaging and check for regressions
+    private boolean writeManifest;           // Hash the output and write a checksum manifest next to it
+    private boolean recordBuild;             // Capture the build in a JFR recording next to the output
     
     // JLink configuration
     private boolean enableJLink;
     private Set<String> requiredModules;
+    private boolean linkApplicationModules;  // Link the app JARs as modules instead of using the class path
+    private JLinkOptions jlinkOptions;       // null means the built-in defaults
+    private JLinkTuningReport jlinkTuning;   // Last autotuner run, kept with the preset
     
     // Additional options
     private String vendor;
     private String description;
     private String copyright;
+    private JvmProfile jvmProfile;
     private List<String> jvmArgs;
     private List<String> appArgs;
     
@@ -17,31 +17,32 @@ public class PackagingResult {
     private boolean success;
     private String message;
     private LocalDateTime timestamp;
-    private List<String> logs;
+    private BuildLog buildLog;            // Complete output of the build, stored as it was written
     private String outputPath;
     private long executionTimeMs;
     private PackageConfiguration configuration;
+    private SmokeTestResult smokeTest;
+    private List<StageMetrics> stages;    // Per-stage timing and resource usage, in build order
+    private String flightRecording;       // JFR file of the build, when recording was enabled
+    private String manifestPath;          // Checksum manifest of the output, when one was written
     
     public static PackagingResult success(String message, String outputPath, 
-                                        List<String> logs, long executionTimeMs, 
-                                        PackageConfiguration config) {
+                                        long executionTimeMs, PackageConfiguration config) {
         return PackagingResult.builder()
                 .success(true)
                 .message(message)
                 .outputPath(outputPath)
-                .logs(logs)
                 .executionTimeMs(executionTimeMs)
                 .configuration(config)
                 .timestamp(LocalDateTime.now())
                 .build();
     }
     
-    public static PackagingResult failure(String message, List<String> logs, 
-                                        long executionTimeMs, PackageConfiguration config) {
+    public static PackagingResult failure(String message, long executionTimeMs,
+                                        PackageConfiguration config) {
         return PackagingResult.builder()
                 .success(false)
                 .message(message)
-                .logs(logs)
                 .executionTimeMs(executionTimeMs)
                 .configuration(config)
                 .timestamp(LocalDateTime.now())
@@ -0,0 +1,23 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * What the preset list shows about a preset without loading it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresetSummary {
+
+    private String name;
+    private String appName;                                  // null when the file could not be read
+    private PackageConfiguration.OutputFormat outputFormat;
+    private String mainClass;
+    private String vendor;
+    private long lastModified;                               // Epoch millis of the last save
+}
@@ -0,0 +1,36 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SmokeTestResult {
+
+    private String baselineKey;         // Preset name, or the app name for unsaved configurations
+    private LocalDateTime timestamp;
+    private String launcher;
+    private boolean passed;             // Launched and did not exit with an error
+    private String errorMessage;
+    private long startupMs;             // Time to first output, -1 if the app stayed silent
+    private long peakRssBytes;
+    private long outputSizeBytes;
+    private Integer exitCode;           // null when the app was still running at the timeout
+    private boolean timedOut;
+
+    // Baseline of the same preset, -1 when there is none
+    private long baselineStartupMs;
+    private long baselineOutputSizeBytes;
+    private List<String> regressions;
+
+    public boolean hasRegressions() {
+        return regressions != null && !regressions.isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package com.devdam.desktop.model;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageMetrics {
+
+    private BuildStage stage;
+    private long wallTimeMs;
+    private long cpuTimeMs;          // CPU time of the tool processes started in this stage
+    private long peakRssBytes;       // Highest combined RSS of those processes
+    private long bytesRead;
+    private long bytesWritten;
+    private int processCount;
+    private Boolean cacheHit;        // null when the stage has no cache
+
+    public String summary() {
+        StringBuilder line = new StringBuilder(String.format("%-16s %7d ms wall", stage.getDisplayName(), wallTimeMs));
+        if (processCount > 0) {
+            line.append(String.format(", %6d ms CPU, peak RSS %6.1f MB, read %7.1f MB, written %7.1f MB (%d %s)",
+                    cpuTimeMs, peakRssBytes / (1024.0 * 1024.0), bytesRead / (1024.0 * 1024.0),
+                    bytesWritten / (1024.0 * 1024.0), processCount, processCount == 1 ? "process" : "processes"));
+        }
+        if (cacheHit != null) {
+            line.append(cacheHit ? ", cache hit" : ", cache miss");
+        }
+        return line.toString();
+    }
+}
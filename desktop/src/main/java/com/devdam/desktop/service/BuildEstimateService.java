@@ -0,0 +1,157 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildEstimate;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.BuildSummary;
+import com.devdam.desktop.model.PackageConfiguration;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Predicts how long each stage of a build will take from the build history.
+ * <p>
+ * Earlier builds of the same preset are preferred, then builds of the same app name. Without
+ * either, the builds closest in JAR size and module count among recent builds with the same
+ * output format and jlink setting are used.
+ */
+@Service
+public class BuildEstimateService {
+
+    private static final int SAME_CONFIGURATION_BUILDS = 10;
+    private static final int SIMILAR_BUILDS = 5;
+    private static final int SIMILAR_SCAN_LIMIT = 2000;
+
+    // Used until there is history; only the proportions matter, as no ETA is shown for them
+    private static final Map<BuildStage, Long> DEFAULT_STAGE_TIMES_MS = Map.of(
+            BuildStage.VALIDATE, 100L,
+            BuildStage.ANALYSIS, 2_000L,
+            BuildStage.JLINK, 15_000L,
+            BuildStage.JPACKAGE, 20_000L,
+            BuildStage.POST_PROCESS, 5_000L);
+
+    private final BuildHistoryService buildHistoryService;
+    private final PackagingService packagingService;
+
+    public BuildEstimateService(BuildHistoryService buildHistoryService, PackagingService packagingService) {
+        this.buildHistoryService = buildHistoryService;
+        this.packagingService = packagingService;
+    }
+
+    public BuildEstimate estimate(PackageConfiguration config) {
+        List<BuildStage> planned = plannedStages(config);
+
+        String basis = null;
+        List<BuildSummary> builds = List.of();
+        if (config.getPresetName() != null) {
+            builds = matching(buildHistoryService.recent(config.getPresetName(), null, SAME_CONFIGURATION_BUILDS * 3),
+                    config, planned);
+            basis = "preset " + config.getPresetName();
+        }
+        if (builds.isEmpty() && config.getAppName() != null) {
+            builds = matching(buildHistoryService.recent(null, config.getAppName(), SAME_CONFIGURATION_BUILDS * 3),
+                    config, planned);
+            basis = "app " + config.getAppName();
+        }
+        if (builds.isEmpty()) {
+            builds = similar(config, planned);
+            basis = "similar configurations";
+        }
+        builds = builds.stream().limit(SAME_CONFIGURATION_BUILDS).toList();
+
+        // Copying a cached runtime and linking one differ by an order of magnitude
+        Boolean cacheHit = planned.contains(BuildStage.JLINK) ? packagingService.predictRuntimeCacheHit(config) : null;
+        List<BuildSummary> sameCacheOutcome = builds.stream()
+                .filter(build -> cacheHit != null && cacheHit.equals(build.getCacheHit()))
+                .toList();
+
+        Map<BuildStage, Long> stageTimes = new EnumMap<>(BuildStage.class);
+        for (BuildStage stage : planned) {
+            List<BuildSummary> basedOn = stage == BuildStage.JLINK && !sameCacheOutcome.isEmpty() ? sameCacheOutcome : builds;
+            long median = median(basedOn, build -> build.timeMs(stage));
+            stageTimes.put(stage, median >= 0 ? median : DEFAULT_STAGE_TIMES_MS.get(stage));
+        }
+
+        return BuildEstimate.builder()
+                .plannedStages(planned)
+                .stageTimesMs(stageTimes)
+                .runtimeSizeBytes(median(builds, BuildSummary::getRuntimeSizeBytes))
+                .outputSizeBytes(median(builds, BuildSummary::getOutputSizeBytes))
+                .basedOnBuilds(builds.size())
+                .basis(builds.isEmpty() ? null : basis)
+                .build();
+    }
+
+    private List<BuildStage> plannedStages(PackageConfiguration config) {
+        List<BuildStage> stages = new ArrayList<>();
+        stages.add(BuildStage.VALIDATE);
+        if (config.isEnableJLink()) {
+            stages.add(BuildStage.ANALYSIS);
+            stages.add(BuildStage.JLINK);
+        }
+        stages.add(BuildStage.JPACKAGE);
+        if (smokeTested(config) || config.isWriteManifest()) {
+            stages.add(BuildStage.POST_PROCESS);
+        }
+        return stages;
+    }
+
+    private static boolean smokeTested(PackageConfiguration config) {
+        return config.isSmokeTest() && config.getOutputFormat() == PackageConfiguration.OutputFormat.APP_IMAGE;
+    }
+
+    /**
+     * Successful builds that ran jlink, post-processing and the smoke test exactly when the planned
+     * build will, newest first.
+     */
+    private List<BuildSummary> matching(List<BuildSummary> builds, PackageConfiguration config, List<BuildStage> planned) {
+        return builds.stream()
+                .filter(BuildSummary::isSuccess)
+                .filter(build -> build.getStageTimesMs().containsKey(BuildStage.JLINK) == planned.contains(BuildStage.JLINK))
+                .filter(build -> build.getStageTimesMs().containsKey(BuildStage.POST_PROCESS)
+                        == planned.contains(BuildStage.POST_PROCESS))
+                // Post-processing with a smoke test takes seconds, a checksum manifest alone much less
+                .filter(build -> (build.getStartupMs() >= 0) == smokeTested(config))
+                .toList();
+    }
+
+    private List<BuildSummary> similar(PackageConfiguration config, List<BuildStage> planned) {
+        long jarSize = jarSize(config);
+        int moduleCount = config.getRequiredModules() != null ? config.getRequiredModules().size() : 0;
+        return matching(buildHistoryService.recent(null, null, SIMILAR_SCAN_LIMIT), config, planned).stream()
+                .filter(build -> build.getOutputFormat() == config.getOutputFormat())
+                .sorted(Comparator.comparingDouble(build -> distance(build, jarSize, moduleCount)))
+                .limit(SIMILAR_BUILDS)
+                .toList();
+    }
+
+    private static double distance(BuildSummary build, long jarSize, int moduleCount) {
+        // JAR size counts by order of magnitude; ten modules weigh as much as a factor e in size
+        double distance = build.getJarSizeBytes() >= 0 && jarSize >= 0
+                ? Math.abs(Math.log((build.getJarSizeBytes() + 1.0) / (jarSize + 1.0)))
+                : 1;
+        distance += build.getModuleCount() >= 0 ? Math.abs(build.getModuleCount() - moduleCount) / 10.0 : 1;
+        return distance;
+    }
+
+    private static long jarSize(PackageConfiguration config) {
+        try {
+            return config.getJarFile() != null && Files.isRegularFile(config.getJarFile())
+                    ? Files.size(config.getJarFile()) : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long median(List<BuildSummary> builds, ToLongFunction<BuildSummary> value) {
+        long[] values = builds.stream().mapToLong(value).filter(v -> v >= 0).sorted().toArray();
+        return values.length > 0 ? values[values.length / 2] : -1;
+    }
+}
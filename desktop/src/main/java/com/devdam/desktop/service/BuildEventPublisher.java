@@ -0,0 +1,101 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildEstimate;
+import com.devdam.desktop.model.BuildEvent;
+import com.devdam.desktop.model.BuildProgress;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.StageMetrics;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes one build's output, stage boundaries, artifacts and progress samples as
+ * {@link BuildEvent}s through {@link Flow}.
+ * <p>
+ * Each subscriber gets its own bounded buffer and receives events on a shared pool of delivery
+ * threads as it requests them. A subscriber whose buffer is full holds up the thread publishing,
+ * which is the build worker or the stage sampler, never the UI thread; subscribers that feed the
+ * UI use {@link CoalescingBuildSubscriber} so that they always keep up.
+ */
+public class BuildEventPublisher implements BuildOutputSink, StageRecorder.Listener, Flow.Publisher<BuildEvent> {
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final AtomicInteger DELIVERY_THREADS = new AtomicInteger();
+    private static final ExecutorService DELIVERY = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "build-events-" + DELIVERY_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SubmissionPublisher<BuildEvent> publisher = new SubmissionPublisher<>(DELIVERY, BUFFER_SIZE);
+    private volatile StageRecorder.Listener progressTracker;
+
+    /**
+     * Publishes progress samples measured against the estimate from now on.
+     */
+    public void trackProgress(BuildEstimate estimate) {
+        progressTracker = new BuildProgressTracker(estimate, this::sample);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super BuildEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void line(String line) {
+        publish(BuildEvent.line(line));
+    }
+
+    @Override
+    public void artifact(String description, Path path) {
+        publish(event(BuildEvent.Type.ARTIFACT).text(description).path(path.toString()).build());
+    }
+
+    @Override
+    public void stageStarted(BuildStage stage) {
+        publish(event(BuildEvent.Type.STAGE_STARTED).stage(stage).build());
+    }
+
+    @Override
+    public void stageFinished(StageMetrics metrics) {
+        publish(event(BuildEvent.Type.STAGE_FINISHED).stage(metrics.getStage()).metrics(metrics).build());
+    }
+
+    @Override
+    public void progress(BuildStage stage, long elapsedMs, long bytesWritten) {
+        StageRecorder.Listener tracker = progressTracker;
+        if (tracker != null) {
+            tracker.progress(stage, elapsedMs, bytesWritten);
+        }
+    }
+
+    private void sample(BuildProgress progress) {
+        publish(event(BuildEvent.Type.SAMPLE).stage(progress.getStage()).progress(progress).build());
+    }
+
+    /**
+     * Completes every subscriber once the events published so far are delivered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    private void publish(BuildEvent event) {
+        try {
+            publisher.submit(event);
+        } catch (IllegalStateException e) {
+            // Closed; output of background cleanup can still arrive after the build ended
+        }
+    }
+
+    private static BuildEvent.BuildEventBuilder event(BuildEvent.Type type) {
+        return BuildEvent.builder().type(type).timestamp(System.currentTimeMillis());
+    }
+}
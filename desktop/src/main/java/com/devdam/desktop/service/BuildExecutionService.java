@@ -0,0 +1,117 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildEstimate;
+import com.devdam.desktop.model.BuildEvent;
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PackagingResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs builds on a bounded pool of workers so they can be queued and cancelled.
+ */
+@Slf4j
+@Service
+public class BuildExecutionService {
+
+    private final PackagingService packagingService;
+    private final BuildHistoryService buildHistoryService;
+    private final BuildEstimateService buildEstimateService;
+    private final DirectoryCleanupService directoryCleanupService;
+    private final ExecutorService workers;
+    private final Set<BuildHandle> activeBuilds = ConcurrentHashMap.newKeySet();
+
+    public BuildExecutionService(PackagingService packagingService, BuildHistoryService buildHistoryService,
+                                 BuildEstimateService buildEstimateService,
+                                 DirectoryCleanupService directoryCleanupService,
+                                 @Value("${packaroo.build.max-concurrent:1}") int maxConcurrentBuilds) {
+        this.packagingService = packagingService;
+        this.buildHistoryService = buildHistoryService;
+        this.buildEstimateService = buildEstimateService;
+        this.directoryCleanupService = directoryCleanupService;
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, maxConcurrentBuilds), runnable -> {
+            Thread thread = new Thread(runnable, "build-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a build. Its output, stages, artifacts and progress are published to the subscriber,
+     * which completes when the build is over.
+     */
+    public BuildHandle submit(PackageConfiguration config, Flow.Subscriber<? super BuildEvent> subscriber) {
+        BuildHandle[] holder = new BuildHandle[1];
+        BuildHandle handle = new BuildHandle(config, () -> onCancelled(holder[0]));
+        holder[0] = handle;
+        activeBuilds.add(handle);
+        handle.result().whenComplete((result, error) -> activeBuilds.remove(handle));
+        BuildEventPublisher events = new BuildEventPublisher();
+        events.subscribe(subscriber);
+
+        workers.execute(() -> {
+            if (handle.isCancelled()) {
+                events.close(); // Cancelled while queued
+                return;
+            }
+            CancellationToken.bind(handle.token());
+            try {
+                BuildEstimate estimate = buildEstimateService.estimate(config);
+                events.trackProgress(estimate);
+                if (estimate.isFromHistory()) {
+                    events.line(String.format("Estimated build time: %.1f s (%d earlier builds of %s)",
+                            estimate.totalMs() / 1000.0, estimate.getBasedOnBuilds(), estimate.getBasis()));
+                }
+                PackagingResult result = packagingService.packageApplication(config, events, events);
+                buildHistoryService.record(result);
+                handle.result().complete(result);
+            } catch (Throwable t) {
+                handle.result().completeExceptionally(t);
+            } finally {
+                events.close();
+                CancellationToken.unbind();
+                if (handle.isCancelled()) {
+                    removePartialOutput(handle.token());
+                }
+            }
+        });
+        return handle;
+    }
+
+    private void onCancelled(BuildHandle handle) {
+        // Report right away; the worker finishes as soon as its tool processes are gone
+        handle.result().complete(PackagingResult.failure("Build cancelled", 0, handle.getConfiguration()));
+    }
+
+    /**
+     * Removes what the cancelled build had started writing; output of earlier builds and
+     * anything else in the output directory is left alone.
+     */
+    private void removePartialOutput(CancellationToken token) {
+        for (Path path : token.createdPaths()) {
+            if (Files.exists(path)) {
+                log.info("Removing partial build output: {}", path);
+                directoryCleanupService.discard(path, message -> { });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Closing the app must not leave jlink or jpackage running in the background
+        activeBuilds.forEach(BuildHandle::cancel);
+        workers.shutdownNow();
+    }
+}
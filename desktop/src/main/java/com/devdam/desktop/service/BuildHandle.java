@@ -0,0 +1,50 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PackagingResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A submitted build. {@link #result()} completes when the build finishes, fails or is cancelled.
+ */
+public class BuildHandle {
+
+    private final PackageConfiguration configuration;
+    private final CancellationToken token = new CancellationToken();
+    private final CompletableFuture<PackagingResult> result = new CompletableFuture<>();
+    private final Runnable onCancel;
+
+    BuildHandle(PackageConfiguration configuration, Runnable onCancel) {
+        this.configuration = configuration;
+        this.onCancel = onCancel;
+    }
+
+    public PackageConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public CompletableFuture<PackagingResult> result() {
+        return result;
+    }
+
+    public boolean isCancelled() {
+        return token.isCancelled();
+    }
+
+    /**
+     * Stops the build: queued builds never start, running ones have their tool processes
+     * terminated. Output the build had started writing is removed in the background.
+     */
+    public void cancel() {
+        if (result.isDone() || token.isCancelled()) {
+            return;
+        }
+        token.cancel();
+        onCancel.run();
+    }
+
+    CancellationToken token() {
+        return token;
+    }
+}
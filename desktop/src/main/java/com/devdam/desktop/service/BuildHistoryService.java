@@ -0,0 +1,824 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildRecord;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.BuildSummary;
+import com.devdam.desktop.model.BuildTrend;
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PackagingResult;
+import com.devdam.desktop.model.StageMetrics;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Append-only history of finished builds under {@code ~/.packaroo/history}.
+ * <p>
+ * Each generation directory holds three files: the records as JSON lines, a names dictionary
+ * and a fixed-width binary index with one entry per record. An entry carries the record's
+ * position, time, preset and app name ids and the numbers trend queries need, so queries only
+ * touch the index; records are read one by one when asked for. The index is kept in memory
+ * together with time-ordered id lists per preset and per app name, which makes a query a
+ * binary search plus a walk over the matching builds.
+ * <p>
+ * Compaction drops records past the retention period or over the record limit and rewrites
+ * everything into a new generation, which only becomes current once it is complete.
+ */
+@Slf4j
+@Service
+public class BuildHistoryService {
+
+    private static final String DATA_FILE = "builds.jsonl";
+    private static final String INDEX_FILE = "builds.idx";
+    private static final String NAMES_FILE = "names.txt";
+    private static final String COMPLETE_MARKER = ".complete";
+    private static final String GENERATION_PREFIX = "gen-";
+
+    private static final int INDEX_MAGIC = 0x504B4849; // "PKHI"
+    private static final int INDEX_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+
+    // Index entry layout
+    static final int ENTRY_SIZE = 112;
+    private static final int MAX_STAGES = 8;
+    private static final int DATA_OFFSET = 0;     // long
+    private static final int DATA_LENGTH = 8;     // int
+    private static final int TIMESTAMP = 12;      // long, epoch millis
+    private static final int PRESET_ID = 20;      // int, -1 without a preset
+    private static final int APP_ID = 24;         // int
+    private static final int FLAGS = 28;          // byte
+    private static final int EXECUTION_MS = 32;   // int
+    private static final int STAGE_MS = 36;       // MAX_STAGES ints, -1 when the stage did not run
+    private static final int OUTPUT_SIZE = 68;    // long
+    private static final int STARTUP_MS = 76;     // int
+    private static final int RUNTIME_SIZE = 80;   // long
+    private static final int JAR_SIZE = 88;       // long
+    private static final int MODULE_COUNT = 96;   // int
+    private static final int FORMAT = 100;        // byte, OutputFormat ordinal or -1
+
+    private static final byte FLAG_SUCCESS = 1;
+    private static final byte FLAG_CACHE_KNOWN = 2;
+    private static final byte FLAG_CACHE_HIT = 4;
+    private static final PackageConfiguration.OutputFormat[] OUTPUT_FORMATS = PackageConfiguration.OutputFormat.values();
+
+    private final Path historyDirectory;
+    private final ConfigurationService configurationService;
+    private final RuntimeImageService runtimeImageService;
+    private final ObjectMapper objectMapper;
+    private final int retentionDays;
+    private final int maxRecords;
+    private final boolean compactOnAppend;
+    private final ScheduledExecutorService writer;
+
+    @Value("${packaroo.history.compact-interval-hours:24}")
+    private long compactIntervalHours;
+
+    private Path generationDirectory;
+    private int generation;
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private ByteBuffer index = ByteBuffer.allocate(ENTRY_SIZE * 1024);
+    private int count;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final Map<Integer, Postings> byPreset = new HashMap<>();
+    private final Map<Integer, Postings> byApp = new HashMap<>();
+
+    @Autowired
+    public BuildHistoryService(ConfigurationService configurationService, RuntimeImageService runtimeImageService,
+                               @Value("${packaroo.history.retention-days:365}") int retentionDays,
+                               @Value("${packaroo.history.max-records:200000}") int maxRecords) {
+        this(Paths.get(System.getProperty("user.home"), ".packaroo", "history"),
+                configurationService, runtimeImageService, retentionDays, maxRecords);
+    }
+
+    BuildHistoryService(Path historyDirectory, ConfigurationService configurationService,
+                        RuntimeImageService runtimeImageService, int retentionDays, int maxRecords) {
+        this(historyDirectory, configurationService, runtimeImageService, retentionDays, maxRecords, true);
+    }
+
+    /**
+     * With {@code compactOnAppend} off, going over the record limit leaves compaction to explicit
+     * {@link #compact()} calls, so tests see no background compaction.
+     */
+    BuildHistoryService(Path historyDirectory, ConfigurationService configurationService,
+                        RuntimeImageService runtimeImageService, int retentionDays, int maxRecords,
+                        boolean compactOnAppend) {
+        this.historyDirectory = historyDirectory;
+        this.configurationService = configurationService;
+        this.runtimeImageService = runtimeImageService;
+        this.retentionDays = retentionDays;
+        this.maxRecords = Math.max(1, maxRecords);
+        this.compactOnAppend = compactOnAppend;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "build-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            open();
+        } catch (IOException e) {
+            log.warn("Could not open build history in {}", historyDirectory, e);
+            closeChannels();
+        }
+    }
+
+    @PostConstruct
+    void scheduleCompaction() {
+        long interval = Math.max(1, compactIntervalHours);
+        writer.scheduleWithFixedDelay(this::compactIfDue, 1, TimeUnit.HOURS.toMinutes(interval), TimeUnit.MINUTES);
+    }
+
+    /**
+     * Adds a finished build to the history. Sizes are measured and the record is written on the
+     * history writer thread, so the build itself is not held up.
+     */
+    public void record(PackagingResult result) {
+        if (result == null || result.getConfiguration() == null) {
+            return;
+        }
+        try {
+            writer.execute(() -> {
+                try {
+                    append(toRecord(result));
+                } catch (Exception e) {
+                    log.warn("Could not add build to history", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Build history is closed, not recording build of {}", result.getConfiguration().getAppName());
+        }
+    }
+
+    public synchronized void append(BuildRecord record) throws IOException {
+        if (dataChannel == null) {
+            throw new IOException("Build history is not available");
+        }
+
+        // Entries must stay in time order for the binary searches
+        long timestamp = toEpochMillis(record.getTimestamp() != null ? record.getTimestamp() : LocalDateTime.now());
+        if (count > 0) {
+            timestamp = Math.max(timestamp, timestampAt(count - 1));
+        }
+
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        long offset = dataChannel.size();
+        writeFully(dataChannel, ByteBuffer.wrap(line), offset);
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.putLong(DATA_OFFSET, offset);
+        entry.putInt(DATA_LENGTH, json.length);
+        entry.putLong(TIMESTAMP, timestamp);
+        entry.putInt(PRESET_ID, record.getPresetName() != null ? nameId(record.getPresetName()) : -1);
+        entry.putInt(APP_ID, nameId(record.getAppName() != null ? record.getAppName() : ""));
+        byte flags = record.isSuccess() ? FLAG_SUCCESS : 0;
+        if (record.getCacheHit() != null) {
+            flags |= FLAG_CACHE_KNOWN;
+            if (record.getCacheHit()) {
+                flags |= FLAG_CACHE_HIT;
+            }
+        }
+        entry.put(FLAGS, flags);
+        entry.putInt(EXECUTION_MS, clampToInt(record.getExecutionTimeMs()));
+        for (int i = 0; i < MAX_STAGES; i++) {
+            entry.putInt(STAGE_MS + i * Integer.BYTES, -1);
+        }
+        if (record.getStages() != null) {
+            for (StageMetrics stage : record.getStages()) {
+                if (stage.getStage() != null && stage.getStage().ordinal() < MAX_STAGES) {
+                    entry.putInt(STAGE_MS + stage.getStage().ordinal() * Integer.BYTES, clampToInt(stage.getWallTimeMs()));
+                }
+            }
+        }
+        entry.putLong(OUTPUT_SIZE, record.getOutputSizeBytes());
+        entry.putInt(STARTUP_MS, clampToInt(record.getStartupMs()));
+        entry.putLong(RUNTIME_SIZE, record.getRuntimeSizeBytes());
+        entry.putLong(JAR_SIZE, record.getJarSizeBytes());
+        entry.putInt(MODULE_COUNT, record.getModuleCount());
+        entry.put(FORMAT, record.getOutputFormat() != null ? (byte) record.getOutputFormat().ordinal() : -1);
+
+        writeFully(indexChannel, entry.rewind(), HEADER_SIZE + (long) count * ENTRY_SIZE);
+        addEntry(entry.array());
+
+        if (compactOnAppend && count > maxRecords + maxRecords / 10) {
+            writer.execute(this::compactQuietly);
+        }
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Builds of a preset, of an app name, or of both when both are given, between two points in
+     * time (either may be null), oldest first.
+     */
+    public synchronized List<BuildSummary> query(String presetName, String appName,
+                                                 LocalDateTime from, LocalDateTime to) {
+        Postings postings = null;
+        if (presetName != null) {
+            postings = postingsFor(byPreset, presetName);
+        } else if (appName != null) {
+            postings = postingsFor(byApp, appName);
+        }
+        if ((presetName != null || appName != null) && postings == null) {
+            return List.of();
+        }
+        Integer appFilter = presetName != null && appName != null ? nameIds.get(appName) : null;
+        if (presetName != null && appName != null && appFilter == null) {
+            return List.of();
+        }
+
+        int size = postings != null ? postings.size : count;
+        long fromMillis = from != null ? toEpochMillis(from) : Long.MIN_VALUE;
+        long toMillis = to != null ? toEpochMillis(to) : Long.MAX_VALUE;
+
+        List<BuildSummary> summaries = new ArrayList<>();
+        for (int i = lowerBound(postings, size, fromMillis); i < size; i++) {
+            int id = postings != null ? postings.ids[i] : i;
+            if (timestampAt(id) > toMillis) {
+                break;
+            }
+            if (appFilter == null || index.getInt(id * ENTRY_SIZE + APP_ID) == appFilter) {
+                summaries.add(summaryAt(id));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * The most recent builds of a preset or app name, or of everything when both are null, newest first.
+     */
+    public synchronized List<BuildSummary> recent(String presetName, String appName, int limit) {
+        Postings postings = null;
+        if (presetName != null || appName != null) {
+            postings = presetName != null ? postingsFor(byPreset, presetName) : postingsFor(byApp, appName);
+            if (postings == null) {
+                return List.of();
+            }
+        }
+        List<BuildSummary> summaries = new ArrayList<>();
+        for (int i = (postings != null ? postings.size : count) - 1; i >= 0 && summaries.size() < limit; i--) {
+            summaries.add(summaryAt(postings != null ? postings.ids[i] : i));
+        }
+        return summaries;
+    }
+
+    /**
+     * Time statistics of one stage (or whole builds when {@code stage} is null) over the successful
+     * builds of a preset or app name within the given window.
+     */
+    public BuildTrend trend(String presetName, String appName, BuildStage stage, Duration window) {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minus(window);
+        List<BuildSummary> builds = query(presetName, appName, from, to);
+
+        List<BuildSummary> points = builds.stream()
+                .filter(BuildSummary::isSuccess)
+                .filter(build -> build.timeMs(stage) >= 0)
+                .toList();
+
+        BuildTrend.BuildTrendBuilder trend = BuildTrend.builder()
+                .subject(presetName != null ? presetName : appName)
+                .stage(stage)
+                .from(from)
+                .to(to)
+                .builds(builds.size())
+                .successfulBuilds((int) builds.stream().filter(BuildSummary::isSuccess).count())
+                .points(points);
+        if (points.isEmpty()) {
+            return trend.minMs(-1).medianMs(-1).p90Ms(-1).maxMs(-1).build();
+        }
+
+        long[] times = points.stream().mapToLong(build -> build.timeMs(stage)).toArray();
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        int half = times.length / 2;
+        double change = 0;
+        if (half > 0) {
+            long older = median(Arrays.copyOfRange(times, 0, half));
+            long newer = median(Arrays.copyOfRange(times, times.length - half, times.length));
+            change = older > 0 ? (newer - older) * 100.0 / older : 0;
+        }
+        return trend.minMs(sorted[0])
+                .medianMs(sorted[sorted.length / 2])
+                .p90Ms(sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.9) - 1)])
+                .maxMs(sorted[sorted.length - 1])
+                .changePercent(change)
+                .build();
+    }
+
+    /**
+     * Reads the full record behind a summary.
+     */
+    public synchronized Optional<BuildRecord> load(int id) {
+        if (id < 0 || id >= count) {
+            return Optional.empty();
+        }
+        int base = id * ENTRY_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(index.getInt(base + DATA_LENGTH));
+        try {
+            readFully(dataChannel, buffer, index.getLong(base + DATA_OFFSET));
+            return Optional.of(objectMapper.readValue(buffer.array(), BuildRecord.class));
+        } catch (IOException e) {
+            log.warn("Could not read build history record {}", id, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Rewrites the history without records past the retention period or over the record limit.
+     *
+     * @return the number of records removed
+     */
+    public synchronized int compact() throws IOException {
+        if (dataChannel == null) {
+            return 0;
+        }
+        long cutoff = toEpochMillis(LocalDateTime.now().minusDays(retentionDays));
+        int first = Math.max(lowerBound(null, count, cutoff), count - maxRecords);
+
+        Path target = historyDirectory.resolve(GENERATION_PREFIX + (generation + 1));
+        deleteDirectory(target);
+        Files.createDirectories(target);
+
+        List<String> keptNames = new ArrayList<>();
+        Map<Integer, Integer> remapped = new HashMap<>();
+        try (FileChannel data = FileChannel.open(target.resolve(DATA_FILE), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             FileChannel entries = FileChannel.open(target.resolve(INDEX_FILE), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            writeFully(entries, header(), 0);
+            long offset = 0;
+            for (int id = first; id < count; id++) {
+                int base = id * ENTRY_SIZE;
+                int length = index.getInt(base + DATA_LENGTH);
+                ByteBuffer record = ByteBuffer.allocate(length + 1);
+                readFully(dataChannel, record, index.getLong(base + DATA_OFFSET));
+                writeFully(data, record.flip(), offset);
+
+                ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+                entry.put(0, index, base, ENTRY_SIZE);
+                entry.putLong(DATA_OFFSET, offset);
+                for (int field : new int[]{PRESET_ID, APP_ID}) {
+                    int nameId = entry.getInt(field);
+                    if (nameId >= 0) {
+                        entry.putInt(field, remapped.computeIfAbsent(nameId, old -> {
+                            keptNames.add(names.get(old));
+                            return keptNames.size() - 1;
+                        }));
+                    }
+                }
+                writeFully(entries, entry, HEADER_SIZE + (long) (id - first) * ENTRY_SIZE);
+                offset += length + 1;
+            }
+            data.force(true);
+            entries.force(true);
+        }
+        Files.write(target.resolve(NAMES_FILE), encodeNames(keptNames));
+        Files.createFile(target.resolve(COMPLETE_MARKER));
+
+        // The new generation is complete; opening it removes the old one
+        closeChannels();
+        open();
+
+        int removed = first;
+        if (removed > 0) {
+            log.info("Compacted build history: removed {} records, {} left", removed, count);
+        }
+        return removed;
+    }
+
+    private void compactIfDue() {
+        try {
+            Path marker;
+            synchronized (this) {
+                if (generationDirectory == null) {
+                    return;
+                }
+                marker = generationDirectory.resolve(COMPLETE_MARKER);
+            }
+            Instant lastCompaction = Files.getLastModifiedTime(marker).toInstant();
+            if (Duration.between(lastCompaction, Instant.now()).toHours() >= compactIntervalHours) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.warn("Could not compact build history", e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            if (size() > maxRecords) {
+                compact();
+            }
+        } catch (IOException e) {
+            log.warn("Could not compact build history", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            closeChannels();
+        }
+    }
+
+    // Opening and loading
+
+    private synchronized void open() throws IOException {
+        Files.createDirectories(historyDirectory);
+
+        // Use the newest complete generation; anything else is a leftover of an interrupted compaction
+        List<Path> generations;
+        try (Stream<Path> listing = Files.list(historyDirectory)) {
+            generations = listing
+                    .filter(path -> path.getFileName().toString().startsWith(GENERATION_PREFIX))
+                    .sorted(Comparator.comparingInt(BuildHistoryService::generationNumber).reversed())
+                    .toList();
+        }
+        Path current = generations.stream()
+                .filter(path -> Files.exists(path.resolve(COMPLETE_MARKER)))
+                .findFirst()
+                .orElse(null);
+        for (Path path : generations) {
+            if (!path.equals(current)) {
+                deleteDirectory(path);
+            }
+        }
+        if (current == null) {
+            current = historyDirectory.resolve(GENERATION_PREFIX + 1);
+            Files.createDirectories(current);
+            Files.write(current.resolve(INDEX_FILE), header().array());
+            Files.createFile(current.resolve(DATA_FILE));
+            Files.createFile(current.resolve(NAMES_FILE));
+            Files.createFile(current.resolve(COMPLETE_MARKER));
+        }
+
+        generationDirectory = current;
+        generation = generationNumber(current);
+        loadNames(current.resolve(NAMES_FILE));
+        dataChannel = FileChannel.open(current.resolve(DATA_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(current.resolve(INDEX_FILE), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadIndex();
+    }
+
+    private void loadNames(Path file) throws IOException {
+        names.clear();
+        nameIds.clear();
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        // A name without its line break was cut off by a crash and is not referenced by any entry
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            String name = content.substring(start, end);
+            nameIds.put(name, names.size());
+            names.add(name);
+            start = end + 1;
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        long fileSize = indexChannel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (fileSize < HEADER_SIZE) {
+            throw new IOException("Build history index is truncated");
+        }
+        readFully(indexChannel, header, 0);
+        if (header.getInt(0) != INDEX_MAGIC || header.getInt(4) != INDEX_VERSION) {
+            throw new IOException("Unsupported build history index format");
+        }
+
+        int entries = (int) ((fileSize - HEADER_SIZE) / ENTRY_SIZE);
+        ByteBuffer loaded = ByteBuffer.allocate(Math.max(entries, 1024) * ENTRY_SIZE);
+        readFully(indexChannel, loaded.limit(entries * ENTRY_SIZE), HEADER_SIZE);
+        loaded.clear();
+
+        // Drop entries a crash left pointing past the data that made it to disk
+        long dataSize = dataChannel.size();
+        while (entries > 0) {
+            int base = (entries - 1) * ENTRY_SIZE;
+            if (loaded.getLong(base + DATA_OFFSET) + loaded.getInt(base + DATA_LENGTH) < dataSize
+                    && loaded.getInt(base + APP_ID) < names.size()
+                    && loaded.getInt(base + PRESET_ID) < names.size()) {
+                break;
+            }
+            entries--;
+        }
+        if (HEADER_SIZE + (long) entries * ENTRY_SIZE != fileSize) {
+            log.warn("Build history index had an incomplete tail, truncating to {} entries", entries);
+            indexChannel.truncate(HEADER_SIZE + (long) entries * ENTRY_SIZE);
+        }
+
+        index = loaded;
+        count = 0;
+        byPreset.clear();
+        byApp.clear();
+        for (int id = 0; id < entries; id++) {
+            count++;
+            indexEntry(id);
+        }
+    }
+
+    private void addEntry(byte[] entry) {
+        if ((count + 1) * ENTRY_SIZE > index.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocate(index.capacity() * 2);
+            grown.put(0, index, 0, count * ENTRY_SIZE);
+            index = grown;
+        }
+        index.put(count * ENTRY_SIZE, entry);
+        count++;
+        indexEntry(count - 1);
+    }
+
+    private void indexEntry(int id) {
+        int presetId = index.getInt(id * ENTRY_SIZE + PRESET_ID);
+        if (presetId >= 0) {
+            byPreset.computeIfAbsent(presetId, key -> new Postings()).add(id);
+        }
+        byApp.computeIfAbsent(index.getInt(id * ENTRY_SIZE + APP_ID), key -> new Postings()).add(id);
+    }
+
+    private int nameId(String name) throws IOException {
+        String clean = name.replace('\n', ' ');
+        Integer id = nameIds.get(clean);
+        if (id != null) {
+            return id;
+        }
+        Files.write(generationDirectory.resolve(NAMES_FILE), encodeNames(List.of(clean)), StandardOpenOption.APPEND);
+        nameIds.put(clean, names.size());
+        names.add(clean);
+        return names.size() - 1;
+    }
+
+    // Reading the index
+
+    private Postings postingsFor(Map<Integer, Postings> postings, String name) {
+        Integer id = nameIds.get(name);
+        return id != null ? postings.get(id) : null;
+    }
+
+    /**
+     * First position in the postings (or in the whole index when null) at or after the given time.
+     */
+    private int lowerBound(Postings postings, int size, long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int id = postings != null ? postings.ids[mid] : mid;
+            if (timestampAt(id) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long timestampAt(int id) {
+        return index.getLong(id * ENTRY_SIZE + TIMESTAMP);
+    }
+
+    private BuildSummary summaryAt(int id) {
+        int base = id * ENTRY_SIZE;
+        byte flags = index.get(base + FLAGS);
+        int presetId = index.getInt(base + PRESET_ID);
+        byte format = index.get(base + FORMAT);
+
+        Map<BuildStage, Long> stageTimes = new EnumMap<>(BuildStage.class);
+        for (BuildStage stage : BuildStage.values()) {
+            if (stage.ordinal() < MAX_STAGES) {
+                int time = index.getInt(base + STAGE_MS + stage.ordinal() * Integer.BYTES);
+                if (time >= 0) {
+                    stageTimes.put(stage, (long) time);
+                }
+            }
+        }
+
+        return BuildSummary.builder()
+                .id(id)
+                .timestamp(LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampAt(id)), ZoneId.systemDefault()))
+                .presetName(presetId >= 0 ? names.get(presetId) : null)
+                .appName(names.get(index.getInt(base + APP_ID)))
+                .success((flags & FLAG_SUCCESS) != 0)
+                .executionTimeMs(index.getInt(base + EXECUTION_MS))
+                .stageTimesMs(stageTimes)
+                .outputSizeBytes(index.getLong(base + OUTPUT_SIZE))
+                .startupMs(index.getInt(base + STARTUP_MS))
+                .cacheHit((flags & FLAG_CACHE_KNOWN) != 0 ? (flags & FLAG_CACHE_HIT) != 0 : null)
+                .runtimeSizeBytes(index.getLong(base + RUNTIME_SIZE))
+                .jarSizeBytes(index.getLong(base + JAR_SIZE))
+                .moduleCount(index.getInt(base + MODULE_COUNT))
+                .outputFormat(format >= 0 && format < OUTPUT_FORMATS.length ? OUTPUT_FORMATS[format] : null)
+                .build();
+    }
+
+    // Building records
+
+    private BuildRecord toRecord(PackagingResult result) {
+        PackageConfiguration config = result.getConfiguration();
+        Boolean cacheHit = null;
+        if (result.getStages() != null) {
+            cacheHit = result.getStages().stream()
+                    .filter(stage -> stage.getStage() == BuildStage.JLINK)
+                    .map(StageMetrics::getCacheHit)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        long outputSize = -1;
+        long runtimeSize = -1;
+        long startup = -1;
+        if (result.getSmokeTest() != null) {
+            outputSize = result.getSmokeTest().getOutputSizeBytes();
+            startup = result.getSmokeTest().getStartupMs();
+        }
+        if (result.isSuccess() && config.getOutputDirectory() != null) {
+            if (outputSize < 0 && config.getAppName() != null) {
+                Path appImage = config.getOutputDirectory().resolve(config.getAppName());
+                Path macAppImage = config.getOutputDirectory().resolve(config.getAppName() + ".app");
+                if (Files.isDirectory(appImage) || Files.isDirectory(macAppImage)) {
+                    outputSize = runtimeImageService.sizeOf(Files.isDirectory(appImage) ? appImage : macAppImage);
+                }
+            }
+            Path runtime = config.getOutputDirectory().resolve("runtime");
+            if (config.isEnableJLink() && Files.isDirectory(runtime)) {
+                runtimeSize = runtimeImageService.sizeOf(runtime);
+            }
+        }
+
+        long jarSize = -1;
+        try {
+            if (config.getJarFile() != null && Files.isRegularFile(config.getJarFile())) {
+                jarSize = Files.size(config.getJarFile());
+            }
+        } catch (IOException e) {
+            log.debug("Could not read size of {}", config.getJarFile(), e);
+        }
+
+        return BuildRecord.builder()
+                .timestamp(result.getTimestamp() != null ? result.getTimestamp() : LocalDateTime.now())
+                .presetName(config.getPresetName())
+                .appName(config.getAppName())
+                .success(result.isSuccess())
+                .message(result.getMessage())
+                .executionTimeMs(result.getExecutionTimeMs())
+                .outputFormat(config.getOutputFormat())
+                .outputPath(result.getOutputPath())
+                .outputSizeBytes(outputSize)
+                .runtimeSizeBytes(runtimeSize)
+                .startupMs(startup)
+                .cacheHit(cacheHit)
+                .jarSizeBytes(jarSize)
+                .moduleCount(config.getRequiredModules() != null ? config.getRequiredModules().size() : 0)
+                .configFingerprint(configurationService.fingerprint(config))
+                .stages(result.getStages())
+                .build();
+    }
+
+    // Helpers
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, INDEX_MAGIC);
+        header.putInt(4, INDEX_VERSION);
+        header.putInt(8, ENTRY_SIZE);
+        return header;
+    }
+
+    private static byte[] encodeNames(List<String> names) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (String name : names) {
+            out.writeBytes((name + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+
+    private static int generationNumber(Path path) {
+        try {
+            return Integer.parseInt(path.getFileName().toString().substring(GENERATION_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static int clampToInt(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of build history file");
+            }
+            position += read;
+        }
+    }
+
+    private void closeChannels() {
+        for (FileChannel channel : new FileChannel[]{dataChannel, indexChannel}) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.debug("Could not close build history file", e);
+                }
+            }
+        }
+        dataChannel = null;
+        indexChannel = null;
+    }
+
+    private void deleteDirectory(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    log.warn("Could not delete: " + path, e);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not remove build history generation: {}", directory, e);
+        }
+    }
+
+    /**
+     * Growable list of index entry ids, ascending and therefore in time order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[8];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.jfr.BuildOutputEvent;
+import com.devdam.desktop.model.BuildLog;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the complete output of every build in its own file under {@code ~/.packaroo/build-logs}.
+ * <p>
+ * Lines are written to the file as they arrive, so a build holds no output in memory however
+ * much its tools print. Only the newest {@code packaroo.build-logs.keep} files are kept.
+ */
+@Slf4j
+@Service
+public class BuildLogService {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final DateTimeFormatter LINE_TIMESTAMP = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final String LOG_SUFFIX = ".log";
+
+    private final Path logDirectory;
+    private final int keepLogs;
+
+    @Autowired
+    public BuildLogService(@Value("${packaroo.build-logs.keep:200}") int keepLogs) {
+        this(Paths.get(System.getProperty("user.home"), ".packaroo", "build-logs"), keepLogs);
+    }
+
+    BuildLogService(Path logDirectory, int keepLogs) {
+        this.logDirectory = logDirectory;
+        this.keepLogs = Math.max(1, keepLogs);
+    }
+
+    /**
+     * Starts the log of a new build. If the file cannot be created, the lines are still counted.
+     */
+    public BuildLogWriter open(String appName) {
+        String name = appName != null && !appName.isBlank() ? appName.replaceAll("[^A-Za-z0-9._-]", "_") : "build";
+        String prefix = LocalDateTime.now().format(FILE_TIMESTAMP) + "-" + name;
+        try {
+            Files.createDirectories(logDirectory);
+            prune();
+            for (int attempt = 1; ; attempt++) {
+                Path file = logDirectory.resolve(prefix + (attempt > 1 ? "-" + attempt : "") + LOG_SUFFIX);
+                try {
+                    BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    return new BuildLogWriter(appName, file, writer);
+                } catch (FileAlreadyExistsException e) {
+                    // Another build of the same app started in the same millisecond
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not create a build log in {}", logDirectory, e);
+            return new BuildLogWriter(appName, null, null);
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> logs;
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            // Names start with the time the build started, so name order is age order
+            logs = files.filter(file -> file.getFileName().toString().endsWith(LOG_SUFFIX)).sorted().toList();
+        }
+        // Leaves room for the log about to be created
+        for (int i = 0; i <= logs.size() - keepLogs; i++) {
+            try {
+                Files.deleteIfExists(logs.get(i));
+            } catch (IOException e) {
+                log.debug("Could not delete old build log {}", logs.get(i), e);
+            }
+        }
+    }
+
+    /**
+     * Writes one build's output to its log file and counts it.
+     */
+    public static final class BuildLogWriter implements BuildOutputSink {
+
+        private final String appName;
+        private final Path file;
+        private final BuildOutputEvent event = new BuildOutputEvent();
+        private BufferedWriter writer;
+        private long lines;
+        private long detailLines;
+        private long errorLines;
+        private long characters;
+
+        private BuildLogWriter(String appName, Path file, BufferedWriter writer) {
+            this.appName = appName;
+            this.file = file;
+            this.writer = writer;
+            event.begin();
+        }
+
+        @Override
+        public synchronized void line(String line) {
+            write(line);
+        }
+
+        @Override
+        public synchronized void detail(String line) {
+            detailLines++;
+            write(line);
+        }
+
+        private void write(String line) {
+            lines++;
+            characters += line.length();
+            if (isError(line)) {
+                errorLines++;
+            }
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(LocalTime.now().format(LINE_TIMESTAMP));
+                writer.write(' ');
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException e) {
+                log.warn("Could not write build log {}", file, e);
+                closeWriter();
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            closeWriter();
+            event.end();
+            if (event.shouldCommit()) {
+                event.appName = appName;
+                event.lines = lines;
+                event.errorLines = errorLines;
+                event.characters = characters;
+                event.logFile = file != null ? file.toString() : null;
+                event.commit();
+            }
+        }
+
+        private void closeWriter() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Could not close build log {}", file, e);
+            }
+            writer = null;
+        }
+
+        public synchronized BuildLog toBuildLog() {
+            return BuildLog.builder()
+                    .path(file != null ? file.toString() : null)
+                    .lines(lines)
+                    .detailLines(detailLines)
+                    .errorLines(errorLines)
+                    .build();
+        }
+
+        private static boolean isError(String line) {
+            // Tool errors come through as "jpackage ERROR: ...", jlink's as "Error: ..."
+            return line.contains("ERROR") || line.startsWith("Error");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.devdam.desktop.service;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Receives the output of a build line by line, as it happens.
+ * <p>
+ * Lines are either shown to the user or are details, such as the modules included or the full
+ * jlink options, that are only worth keeping with the build. A build hands its output to one
+ * sink; {@link #fanOut} sends it to several, for example the console, the build's log file and
+ * its metrics. Sinks may be called from more than one thread.
+ */
+@FunctionalInterface
+public interface BuildOutputSink {
+
+    /**
+     * A line shown to the user while the build runs.
+     */
+    void line(String line);
+
+    /**
+     * A line kept with the build output but not shown while it runs.
+     */
+    default void detail(String line) {
+    }
+
+    /**
+     * A file or directory the build produced. Sinks that do not track artifacts keep it as a detail.
+     */
+    default void artifact(String description, Path path) {
+        detail(description + ": " + path);
+    }
+
+    /**
+     * Called once the build is over; no lines follow.
+     */
+    default void close() {
+    }
+
+    /**
+     * Shows lines through a consumer, such as the console, and drops details.
+     */
+    static BuildOutputSink of(Consumer<String> consumer) {
+        return consumer::accept;
+    }
+
+    static BuildOutputSink fanOut(BuildOutputSink... sinks) {
+        List<BuildOutputSink> targets = List.of(sinks);
+        return new BuildOutputSink() {
+            @Override
+            public void line(String line) {
+                targets.forEach(sink -> sink.line(line));
+            }
+
+            @Override
+            public void detail(String line) {
+                targets.forEach(sink -> sink.detail(line));
+            }
+
+            @Override
+            public void artifact(String description, Path path) {
+                targets.forEach(sink -> sink.artifact(description, path));
+            }
+
+            @Override
+            public void close() {
+                targets.forEach(BuildOutputSink::close);
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildEstimate;
+import com.devdam.desktop.model.BuildProgress;
+import com.devdam.desktop.model.BuildStage;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Turns stage boundaries and bytes written by the tools into overall progress and a remaining
+ * time, weighting each stage by its expected duration.
+ * <p>
+ * Each stage progresses with elapsed time against its expected duration; inside jlink and jpackage
+ * the bytes written, compared with the expected image size, can move it further. Stages that ran
+ * faster or slower than expected scale the estimate for the rest of the build. Updates are only
+ * passed on when they are visibly different, to keep the UI thread idle in between.
+ */
+class BuildProgressTracker implements StageRecorder.Listener {
+
+    private static final long MIN_UPDATE_INTERVAL_MS = 500;
+    private static final double MIN_FRACTION_CHANGE = 0.005;
+    private static final double MAX_STAGE_FRACTION = 0.95; // A stage is never done until it ends
+
+    private final BuildEstimate estimate;
+    private final List<BuildStage> planned;
+    private final long totalMs;
+    private final Consumer<BuildProgress> consumer;
+
+    private BuildStage currentStage;
+    private long lastStageElapsedMs;
+    private long completedExpectedMs;
+    private long completedActualMs;
+    private long lastUpdateNanos;
+    private double lastFraction = -1;
+    private long lastRemainingSeconds = -1;
+
+    BuildProgressTracker(BuildEstimate estimate, Consumer<BuildProgress> consumer) {
+        this.estimate = estimate;
+        this.planned = estimate.getPlannedStages();
+        this.totalMs = Math.max(1, estimate.totalMs());
+        this.consumer = consumer;
+    }
+
+    @Override
+    public synchronized void progress(BuildStage stage, long elapsedMs, long bytesWritten) {
+        boolean stageChanged = stage != currentStage;
+        if (stageChanged && currentStage != null) {
+            completedExpectedMs += estimate.stageTimeMs(currentStage);
+            completedActualMs += lastStageElapsedMs;
+        }
+        currentStage = stage;
+        lastStageElapsedMs = elapsedMs;
+
+        // Stages so far took this many times as long as expected
+        double speed = completedExpectedMs >= 1000
+                ? Math.max(0.5, Math.min(3.0, (double) completedActualMs / completedExpectedMs))
+                : 1.0;
+
+        long expectedMs = expectedMs(stage);
+        long expectedBytes = expectedBytes(stage);
+        // Both are lower bounds: jlink writes the image only at the very end, jpackage copies steadily
+        double stageFraction = elapsedMs / Math.max(1.0, expectedMs * speed);
+        if (expectedBytes > 0) {
+            stageFraction = Math.max(stageFraction, (double) bytesWritten / expectedBytes);
+        }
+        // Past its expected end a stage has no meaningful remaining time of its own
+        double currentRemaining = Math.max(0, 1 - stageFraction);
+        stageFraction = Math.min(MAX_STAGE_FRACTION, stageFraction);
+
+        long doneMs = 0;
+        long laterMs = 0;
+        int position = planned.indexOf(stage);
+        for (int i = 0; i < planned.size(); i++) {
+            if (position >= 0 && i < position) {
+                doneMs += estimate.stageTimeMs(planned.get(i));
+            } else if (i > position) {
+                laterMs += estimate.stageTimeMs(planned.get(i));
+            }
+        }
+        // Never move backwards, e.g. when byte counts arrive after the time estimate ran ahead
+        double fraction = Math.max(lastFraction, Math.min(1.0, (doneMs + stageFraction * expectedMs) / totalMs));
+        long remainingMs = estimate.isFromHistory()
+                ? Math.round((expectedMs * currentRemaining + laterMs) * speed)
+                : -1;
+
+        long now = System.nanoTime();
+        long remainingSeconds = remainingMs >= 0 ? remainingMs / 1000 : -1;
+        boolean visible = Math.abs(fraction - lastFraction) >= MIN_FRACTION_CHANGE || remainingSeconds != lastRemainingSeconds;
+        if (!stageChanged && (!visible || now - lastUpdateNanos < MIN_UPDATE_INTERVAL_MS * 1_000_000)) {
+            return;
+        }
+        lastUpdateNanos = now;
+        lastFraction = fraction;
+        lastRemainingSeconds = remainingSeconds;
+
+        consumer.accept(BuildProgress.builder()
+                .stage(stage)
+                .fraction(fraction)
+                .remainingMs(remainingMs)
+                .bytesWritten(bytesWritten)
+                .build());
+    }
+
+    private long expectedMs(BuildStage stage) {
+        // A stage that was not planned for (e.g. analysis of a modular fallback) gets a token share
+        return planned.contains(stage) ? Math.max(1, estimate.stageTimeMs(stage)) : 1000;
+    }
+
+    private long expectedBytes(BuildStage stage) {
+        return switch (stage) {
+            case JLINK -> estimate.getRuntimeSizeBytes();
+            case JPACKAGE -> estimate.getOutputSizeBytes();
+            default -> -1;
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.devdam.desktop.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancellation state of one build, together with every external process the build started
+ * and every output path it began writing, so a cancelled build can clean up after itself.
+ * <p>
+ * The token is bound to the worker thread running the build, so services that start tools
+ * only need to hand the process to {@link ToolProcesses}; outside a build that does nothing.
+ * Cancelling terminates the whole process tree of each tracked process, children first.
+ */
+@Slf4j
+public class CancellationToken {
+
+    private static final long TERMINATE_GRACE_MS = 3000;
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private final List<Process> processes = new CopyOnWriteArrayList<>();
+    private final List<Path> createdPaths = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    public static CancellationToken current() {
+        return CURRENT.get();
+    }
+
+    static void bind(CancellationToken token) {
+        CURRENT.set(token);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Registers a process with the build running on this thread, if any. A process started
+     * after the build was cancelled is terminated straight away.
+     */
+    static void register(Process process) {
+        CancellationToken token = CURRENT.get();
+        if (token != null) {
+            token.processes.add(process);
+            if (token.cancelled) {
+                terminate(process);
+            }
+        }
+    }
+
+    /**
+     * Records an output path the build running on this thread is about to create, if any. Only
+     * paths recorded this way are removed when the build is cancelled.
+     */
+    static void created(Path path) {
+        CancellationToken token = CURRENT.get();
+        if (token != null) {
+            token.createdPaths.add(path);
+        }
+    }
+
+    List<Path> createdPaths() {
+        return List.copyOf(createdPaths);
+    }
+
+    /**
+     * Throws {@link CancellationException} if the build running on this thread was cancelled.
+     */
+    public static void checkCurrent() {
+        CancellationToken token = CURRENT.get();
+        if (token != null && token.cancelled) {
+            throw new CancellationException("Build cancelled");
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Process process : processes) {
+            terminate(process);
+        }
+    }
+
+    private static void terminate(Process process) {
+        // Snapshot the tree first: children of a dead parent get reparented and can no longer be found
+        List<ProcessHandle> descendants = process.descendants().toList();
+        descendants.forEach(ProcessHandle::destroy);
+        process.destroy();
+
+        Thread reaper = new Thread(() -> {
+            try {
+                if (!process.waitFor(TERMINATE_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Process {} ignored termination, killing it", process.pid());
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+            }
+            descendants.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+        }, "build-process-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+}
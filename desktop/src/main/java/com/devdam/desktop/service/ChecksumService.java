@@ -0,0 +1,227 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildManifest;
+import com.devdam.desktop.model.ManifestEntry;
+import com.devdam.desktop.model.PackageConfiguration;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Hashes the files a build produced and keeps the result as a manifest next to them in the
+ * output directory.
+ * <p>
+ * Files are hashed in parallel, largest first so that a big installer does not end up alone at
+ * the tail, and read in fixed-size chunks through a {@link FileChannel} into a per-thread direct
+ * buffer. A file whose size and modification time match the previous manifest keeps its hash.
+ */
+@Slf4j
+@Service
+public class ChecksumService {
+
+    static final String MANIFEST_SUFFIX = "-manifest.json";
+    private static final String ALGORITHM = "SHA-256";
+    private static final int CHUNK_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFERS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(CHUNK_SIZE));
+
+    private final ExecutorService hashers;
+    private final ObjectMapper objectMapper;
+
+    public ChecksumService() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "checksum-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this.objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public Path manifestPath(PackageConfiguration config) {
+        return config.getOutputDirectory().resolve(config.getAppName() + MANIFEST_SUFFIX);
+    }
+
+    /**
+     * Hashes what a build produced, the app image directory or the installer files, and replaces
+     * the app's manifest. Paths in the manifest are relative to the output directory.
+     */
+    public BuildManifest writeManifest(PackageConfiguration config, List<Path> produced, Consumer<String> logConsumer)
+            throws IOException {
+        long start = System.nanoTime();
+        Path manifestFile = manifestPath(config);
+        Map<String, ManifestEntry> previous = readManifest(manifestFile)
+                .map(manifest -> manifest.getFiles().stream()
+                        .collect(Collectors.toMap(ManifestEntry::getPath, Function.identity(), (a, b) -> a)))
+                .orElse(Map.of());
+
+        AtomicLong hashedBytes = new AtomicLong();
+        List<ManifestEntry> entries = hash(config.getOutputDirectory(), produced, manifestFile, previous, hashedBytes);
+        BuildManifest manifest = BuildManifest.builder()
+                .appName(config.getAppName())
+                .version(config.getVersion())
+                .createdAt(LocalDateTime.now())
+                .algorithm(ALGORITHM)
+                .totalSizeBytes(entries.stream().mapToLong(ManifestEntry::getSize).sum())
+                .files(entries)
+                .build();
+
+        Path temporary = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+        objectMapper.writeValue(temporary.toFile(), manifest);
+        Files.move(temporary, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logConsumer.accept(String.format("Checksum manifest: %d files, %.1f MB hashed in %d ms (%d unchanged) -> %s",
+                entries.size(), hashedBytes.get() / (1024.0 * 1024.0), elapsedMs,
+                entries.stream().filter(entry -> isUnchanged(previous.get(entry.getPath()), entry)).count(),
+                manifestFile));
+        return manifest;
+    }
+
+    public Optional<BuildManifest> readManifest(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            BuildManifest manifest = objectMapper.readValue(file.toFile(), BuildManifest.class);
+            return ALGORITHM.equals(manifest.getAlgorithm()) && manifest.getFiles() != null
+                    ? Optional.of(manifest)
+                    : Optional.empty();
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable manifest {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    List<ManifestEntry> hash(Path root, List<Path> produced, Path manifestFile, Map<String, ManifestEntry> previous,
+                             AtomicLong hashedBytes) throws IOException {
+        List<ManifestEntry> found = new ArrayList<>();
+        for (Path path : produced) {
+            collect(root, path, manifestFile, found);
+        }
+        CancellationToken token = CancellationToken.current();
+
+        List<CompletableFuture<ManifestEntry>> hashing = new ArrayList<>();
+        found.sort(Comparator.comparingLong(ManifestEntry::getSize).reversed());
+        for (ManifestEntry entry : found) {
+            ManifestEntry known = previous.get(entry.getPath());
+            if (isUnchanged(known, entry)) {
+                entry.setSha256(known.getSha256());
+                hashing.add(CompletableFuture.completedFuture(entry));
+            } else {
+                hashing.add(CompletableFuture.supplyAsync(() -> {
+                    entry.setSha256(sha256(root.resolve(entry.getPath()), token));
+                    hashedBytes.addAndGet(entry.getSize());
+                    return entry;
+                }, hashers));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(hashing.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            hashing.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (e.getCause() instanceof CancellationException cancelled) {
+                throw cancelled;
+            }
+            throw e;
+        }
+
+        found.sort(Comparator.comparing(ManifestEntry::getPath));
+        return found;
+    }
+
+    private void collect(Path root, Path produced, Path manifestFile, List<ManifestEntry> found) throws IOException {
+        Files.walkFileTree(produced, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !file.equals(manifestFile)) {
+                    found.add(ManifestEntry.builder()
+                            .path(root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                            .size(attrs.size())
+                            .lastModified(attrs.lastModifiedTime().toMillis())
+                            .build());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static String sha256(Path file, CancellationToken token) {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = BUFFERS.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer.clear();
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                if (token != null && token.isCancelled()) {
+                    throw new CancellationException("Build cancelled");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isUnchanged(ManifestEntry known, ManifestEntry entry) {
+        return known != null && known.getSize() == entry.getSize() && known.getLastModified() == entry.getLastModified();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdownNow();
+    }
+}
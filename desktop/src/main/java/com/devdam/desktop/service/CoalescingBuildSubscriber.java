@@ -0,0 +1,125 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Hands build events to a slow consumer, such as the UI, in batches.
+ * <p>
+ * Events are requested a batch at a time and only collected on the delivery thread, so the
+ * publisher never waits for the consumer. At most one batch is handed to the consumer's executor
+ * at a time; whatever arrives meanwhile is merged into the next one. Progress samples are merged
+ * into the latest, and when more than {@value #MAX_PENDING_LINES} lines are waiting the oldest are
+ * replaced by a count of the lines skipped. The build log still has every line.
+ */
+@Slf4j
+public class CoalescingBuildSubscriber implements Flow.Subscriber<BuildEvent> {
+
+    private static final int REQUEST_BATCH = 256;
+    private static final int MAX_PENDING_LINES = 5000;
+
+    private final Executor executor;
+    private final Consumer<List<BuildEvent>> consumer;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Deque<BuildEvent> pending = new ArrayDeque<>();
+    private Flow.Subscription subscription;
+    private BuildEvent latestSample;
+    private int pendingLines;
+    private long skippedLines;
+    private long outstanding;                // Requested but not yet received, only touched on delivery
+
+    /**
+     * @param executor runs the consumer, for example {@code Platform::runLater}
+     */
+    public CoalescingBuildSubscriber(Executor executor, Consumer<List<BuildEvent>> consumer) {
+        this.executor = executor;
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        outstanding = REQUEST_BATCH;
+        subscription.request(REQUEST_BATCH);
+    }
+
+    @Override
+    public void onNext(BuildEvent event) {
+        synchronized (pending) {
+            if (event.getType() == BuildEvent.Type.SAMPLE) {
+                latestSample = event;
+            } else {
+                pending.add(event);
+                if (event.getType() == BuildEvent.Type.LINE && ++pendingLines > MAX_PENDING_LINES) {
+                    dropOldestLine();
+                }
+            }
+        }
+        if (--outstanding <= REQUEST_BATCH / 2) {
+            subscription.request(REQUEST_BATCH - outstanding);
+            outstanding = REQUEST_BATCH;
+        }
+        scheduleDrain();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.warn("Build event stream failed", throwable);
+        scheduleDrain();
+    }
+
+    @Override
+    public void onComplete() {
+        scheduleDrain();
+    }
+
+    private void dropOldestLine() {
+        for (Iterator<BuildEvent> events = pending.iterator(); events.hasNext(); ) {
+            if (events.next().getType() == BuildEvent.Type.LINE) {
+                events.remove();
+                pendingLines--;
+                skippedLines++;
+                return;
+            }
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Reset first, so events arriving while the consumer runs schedule another batch
+        drainScheduled.set(false);
+        List<BuildEvent> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending.size() + 2);
+            if (skippedLines > 0) {
+                batch.add(BuildEvent.line("... " + skippedLines + " lines not shown, see the build log"));
+                skippedLines = 0;
+            }
+            batch.addAll(pending);
+            if (latestSample != null) {
+                batch.add(latestSample);
+                latestSample = null;
+            }
+            pending.clear();
+            pendingLines = 0;
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+    }
+}
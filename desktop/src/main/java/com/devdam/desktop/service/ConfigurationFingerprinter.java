@@ -0,0 +1,163 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical form and fingerprint of what a configuration builds.
+ * <p>
+ * The canonical form is JSON with properties and map keys in alphabetical order, empty values
+ * left out, sets sorted and paths made absolute and normalized with {@code /} separators, so two
+ * configurations describing the same build serialize the same way however they were put
+ * together. The preset name and the stored tuning report are not part of it. Referenced files
+ * (the JAR and the icon) are included by the SHA-256 of their content, which is cached by path,
+ * size and modification time, so fingerprinting the same configuration again costs one small
+ * hash.
+ */
+@Slf4j
+class ConfigurationFingerprinter {
+
+    static final String MISSING_FILE = "missing";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper canonicalMapper = canonicalMapper();
+    private final Map<Path, FileHash> fileHashes = new ConcurrentHashMap<>();
+
+    String canonicalForm(PackageConfiguration config) throws IOException {
+        Map<String, String> files = new TreeMap<>();
+        if (config.getJarFile() != null) {
+            files.put("jarFile", contentHash(config.getJarFile()));
+        }
+        if (config.getIconFile() != null) {
+            files.put("iconFile", contentHash(config.getIconFile()));
+        }
+        Map<String, Object> canonical = new TreeMap<>();
+        canonical.put("configuration", config);
+        canonical.put("files", files);
+        return canonicalMapper.writeValueAsString(canonical);
+    }
+
+    /**
+     * First 8 bytes of the SHA-256 of the canonical form, in hex.
+     */
+    String fingerprint(PackageConfiguration config) throws IOException {
+        byte[] digest = sha256().digest(canonicalForm(config).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest, 0, 8);
+    }
+
+    private String contentHash(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return MISSING_FILE;
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        FileHash known = fileHashes.get(key);
+        if (known != null && known.size() == attributes.size() && known.modified() == modified) {
+            return known.sha256();
+        }
+
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(key, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            log.debug("Could not hash {}", key, e);
+            return MISSING_FILE;
+        }
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        fileHashes.put(key, new FileHash(attributes.size(), modified, sha256));
+        return sha256;
+    }
+
+    static String canonicalPath(Path path) {
+        return path.toAbsolutePath().normalize().toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static ObjectMapper canonicalMapper() {
+        SimpleModule canonical = new SimpleModule("canonical-configuration");
+        canonical.addSerializer(Path.class, new StdSerializer<>(Path.class) {
+            @Override
+            public void serialize(Path path, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeString(canonicalPath(path));
+            }
+        });
+        canonical.addSerializer(Set.class, new StdSerializer<>(Set.class) {
+            @Override
+            public void serialize(Set set, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeStartArray();
+                for (String element : ((Set<?>) set).stream().map(String::valueOf).sorted().toList()) {
+                    generator.writeString(element);
+                }
+                generator.writeEndArray();
+            }
+
+            @Override
+            public boolean isEmpty(SerializerProvider provider, Set set) {
+                return set == null || set.isEmpty();
+            }
+        });
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .addModule(canonical)
+                .addMixIn(PackageConfiguration.class, CanonicalConfiguration.class)
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_EMPTY)
+                .build();
+    }
+
+    /**
+     * Leaves out what does not change the build.
+     */
+    @JsonIgnoreProperties({"presetName", "jlinkTuning"})
+    private abstract static class CanonicalConfiguration {
+    }
+
+    private record FileHash(long size, long modified, String sha256) {
+    }
+}
@@ -1,17 +1,27 @@
 package com.devdam.desktop.service;
 
 import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PresetSummary;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -19,61 +29,241 @@ public class ConfigurationService {
     
     private final ObjectMapper objectMapper;
     private final Path configDirectory;
+    private final PresetCatalog presetCatalog;
+    private final ConfigurationFingerprinter fingerprinter = new ConfigurationFingerprinter();
+    private final PresetSearchIndex presetSearchIndex = new PresetSearchIndex();
+    private volatile boolean presetSearchIndexed;
     
+    @Value("${packaroo.presets.database:false}")
+    private boolean presetDatabase;
+    
+    // Set when presets live in the single-file store instead of one file each
+    private PresetStore presetStore;
+    
+    @Autowired
     public ConfigurationService() {
+        this(Paths.get(System.getProperty("user.home"), ".packaroo", "presets"));
+    }
+    
+    ConfigurationService(Path configDirectory) {
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
-        this.configDirectory = Paths.get(System.getProperty("user.home"), ".packaroo", "presets");
+        this.configDirectory = configDirectory;
         
         try {
             Files.createDirectories(configDirectory);
         } catch (IOException e) {
             log.warn("Could not create configuration directory", e);
         }
+        this.presetCatalog = new PresetCatalog(configDirectory, objectMapper);
+        // Registered first, so the index is current when other listeners run
+        this.presetCatalog.addListener(this::updatePresetSearchIndex);
+    }
+    
+    @PostConstruct
+    void openPresets() {
+        if (presetDatabase) {
+            Path storeFile = configDirectory.resolveSibling(PresetStore.STORE_FILE);
+            PresetStore store = new PresetStore(storeFile, objectMapper);
+            try {
+                if (!Files.exists(storeFile)) {
+                    createPresetStore(storeFile);
+                }
+                store.open();
+                presetStore = store;
+                return;
+            } catch (IOException e) {
+                log.warn("Could not open preset store, using preset files", e);
+                store.close();
+                presetStore = null;
+            }
+        }
+        presetCatalog.start();
+    }
+    
+    /**
+     * Fills a new store from the preset files under a temporary name and moves it into place
+     * only once every preset is in, so an import that fails is tried again on the next start.
+     */
+    private void createPresetStore(Path storeFile) throws IOException {
+        Path staging = storeFile.resolveSibling(storeFile.getFileName() + ".import");
+        Files.deleteIfExists(staging);
+        try (PresetStore staged = new PresetStore(staging, objectMapper)) {
+            staged.open();
+            // The preset files stay where they are, as a copy of the presets at this point
+            Map<String, PackageConfiguration> presets = readPresetFiles(configDirectory);
+            staged.putAll(presets);
+            log.info("Imported {} preset files into {}", presets.size(), storeFile);
+        }
+        Files.move(staging, storeFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    @PreDestroy
+    void close() {
+        presetCatalog.close();
+        if (presetStore != null) {
+            presetStore.close();
+        }
     }
     
     public void savePreset(String name, PackageConfiguration config) throws IOException {
-        Path presetFile = configDirectory.resolve(name + ".json");
-        objectMapper.writeValue(presetFile.toFile(), config);
+        config.setPresetName(name);
+        if (presetStore != null) {
+            presetStore.put(name, config);
+        } else {
+            Path presetFile = configDirectory.resolve(name + PresetCatalog.PRESET_SUFFIX);
+            writeAtomically(presetFile, config);
+            presetCatalog.saved(name, config, presetFile);
+        }
+        updatePresetSearchIndex();
         log.info("Saved preset: {}", name);
     }
     
     public PackageConfiguration loadPreset(String name) throws IOException {
-        Path presetFile = configDirectory.resolve(name + ".json");
-        if (!Files.exists(presetFile)) {
-            throw new IOException("Preset not found: " + name);
+        PackageConfiguration config;
+        if (presetStore != null) {
+            config = presetStore.get(name).orElseThrow(() -> new IOException("Preset not found: " + name));
+        } else {
+            Path presetFile = configDirectory.resolve(name + PresetCatalog.PRESET_SUFFIX);
+            if (!Files.exists(presetFile)) {
+                throw new IOException("Preset not found: " + name);
+            }
+            config = objectMapper.readValue(presetFile.toFile(), PackageConfiguration.class);
         }
-        
-        PackageConfiguration config = objectMapper.readValue(presetFile.toFile(), PackageConfiguration.class);
+        config.setPresetName(name);
+        presetSearchIndex.used(name, System.currentTimeMillis());
         log.info("Loaded preset: {}", name);
         return config;
     }
     
+    /**
+     * Preset names in alphabetical order, from memory.
+     */
     public List<String> getAvailablePresets() {
-        List<String> presets = new ArrayList<>();
-        
-        try {
-            if (Files.exists(configDirectory)) {
-                Files.list(configDirectory)
-                        .filter(path -> path.toString().endsWith(".json"))
-                        .forEach(path -> {
-                            String filename = path.getFileName().toString();
-                            String presetName = filename.substring(0, filename.lastIndexOf('.'));
-                            presets.add(presetName);
-                        });
+        return getPresetSummaries().stream().map(PresetSummary::getName).toList();
+    }
+    
+    /**
+     * Presets with their app name, output format and modification time, in alphabetical order.
+     */
+    public List<PresetSummary> getPresetSummaries() {
+        return presetStore != null ? presetStore.list() : presetCatalog.list();
+    }
+    
+    public List<PresetSummary> getPresetSummaries(Comparator<PresetSummary> order) {
+        List<PresetSummary> presets = getPresetSummaries();
+        presets.sort(order);
+        return presets;
+    }
+    
+    public Optional<PresetSummary> findPreset(String name) {
+        return presetStore != null ? presetStore.find(name) : presetCatalog.find(name);
+    }
+    
+    /**
+     * Presets whose name, app name, main class or vendor match a query, even with a typo, best
+     * and most recently used matches first.
+     */
+    public List<PresetSummary> searchPresets(String query, int limit) {
+        if (!presetSearchIndexed) {
+            updatePresetSearchIndex();
+        }
+        return presetSearchIndex.search(query, limit);
+    }
+    
+    private void updatePresetSearchIndex() {
+        // Listed under the lock, so an older listing never replaces a newer one
+        synchronized (presetSearchIndex) {
+            presetSearchIndex.update(getPresetSummaries());
+            presetSearchIndexed = true;
+        }
+    }
+    
+    /**
+     * Adds every {@code <name>.json} preset file in a directory, replacing presets of the same
+     * name. Files that cannot be read are skipped.
+     *
+     * @return the number of presets imported
+     */
+    public int importPresets(Path directory) throws IOException {
+        Map<String, PackageConfiguration> presets = readPresetFiles(directory);
+        if (presetStore != null) {
+            presetStore.putAll(presets);
+        } else if (!Files.isSameFile(directory, configDirectory)) {
+            for (Map.Entry<String, PackageConfiguration> preset : presets.entrySet()) {
+                Path presetFile = configDirectory.resolve(preset.getKey() + PresetCatalog.PRESET_SUFFIX);
+                writeAtomically(presetFile, preset.getValue());
+                presetCatalog.saved(preset.getKey(), preset.getValue(), presetFile);
+            }
+        }
+        updatePresetSearchIndex();
+        log.info("Imported {} presets from {}", presets.size(), directory);
+        return presets.size();
+    }
+    
+    private Map<String, PackageConfiguration> readPresetFiles(Path directory) throws IOException {
+        Map<String, PackageConfiguration> presets = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files.filter(PresetCatalog::isPreset)::iterator) {
+                try {
+                    PackageConfiguration config = objectMapper.readValue(file.toFile(), PackageConfiguration.class);
+                    config.setPresetName(PresetCatalog.presetName(file));
+                    presets.put(config.getPresetName(), config);
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable preset file {}", file, e);
+                }
             }
-        } catch (IOException e) {
-            log.warn("Could not list presets", e);
         }
-        
         return presets;
     }
     
+    /**
+     * Writes every preset to {@code <name>.json} in a directory.
+     *
+     * @return the number of presets exported
+     */
+    public int exportPresets(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        int exported = 0;
+        for (PresetSummary preset : getPresetSummaries()) {
+            writeAtomically(directory.resolve(preset.getName() + PresetCatalog.PRESET_SUFFIX), loadPreset(preset.getName()));
+            exported++;
+        }
+        log.info("Exported {} presets to {}", exported, directory);
+        return exported;
+    }
+    
+    /**
+     * Called from a background thread when presets are added, changed or removed outside Packaroo.
+     */
+    public void addPresetListener(Runnable listener) {
+        presetCatalog.addListener(listener);
+    }
+    
     public void deletePreset(String name) throws IOException {
-        Path presetFile = configDirectory.resolve(name + ".json");
-        if (Files.exists(presetFile)) {
-            Files.delete(presetFile);
+        if (presetStore != null) {
+            presetStore.delete(name);
             log.info("Deleted preset: {}", name);
+        } else {
+            Path presetFile = configDirectory.resolve(name + PresetCatalog.PRESET_SUFFIX);
+            if (Files.exists(presetFile)) {
+                Files.delete(presetFile);
+                log.info("Deleted preset: {}", name);
+            }
+            presetCatalog.deleted(name);
+        }
+        updatePresetSearchIndex();
+    }
+    
+    private void writeAtomically(Path target, PackageConfiguration config) throws IOException {
+        // A crash leaves either the old file or the new one, never half of one
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            objectMapper.writeValue(temporary.toFile(), config);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
         }
     }
     
@@ -85,6 +275,28 @@ public class ConfigurationService {
                 .build();
     }
 
+    /**
+     * Canonical JSON of what a configuration builds: sorted properties and sets, normalized paths
+     * and the content hashes of the JAR and icon. Equal for configurations that build the same
+     * thing; the preset name and the stored tuning report do not count.
+     */
+    public String canonicalForm(PackageConfiguration config) throws IOException {
+        return fingerprinter.canonicalForm(config);
+    }
+
+    /**
+     * Short hash of the {@linkplain #canonicalForm canonical form}, for builds, caches and history
+     * to key on. Cheap to call repeatedly: file contents are only hashed again when they change.
+     */
+    public String fingerprint(PackageConfiguration config) {
+        try {
+            return fingerprinter.fingerprint(config);
+        } catch (IOException e) {
+            log.warn("Could not fingerprint configuration", e);
+            return null;
+        }
+    }
+
     public void saveConfigurationToFile(PackageConfiguration config, String filePath) throws IOException {
         objectMapper.writeValue(new java.io.File(filePath), config);
         log.info("Saved configuration to file: {}", filePath);
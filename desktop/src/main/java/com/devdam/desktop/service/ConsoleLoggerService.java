@@ -1,25 +1,109 @@
 package com.devdam.desktop.service;
 
+import com.devdam.desktop.jfr.ConsoleFlushEvent;
+import com.devdam.desktop.model.LogFilter;
 import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
-import javafx.scene.control.TextArea;
+import javafx.collections.ObservableList;
+import jakarta.annotation.PreDestroy;
+import javafx.scene.control.ListView;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Shows log records in the console view and keeps them for export.
+ * <p>
+ * Records from any thread go into a lock-free queue that an {@link AnimationTimer} drains once per
+ * frame, adding the whole batch to the view at once and scrolling once. The timer only runs while
+ * there is something to show, and a frame never takes more than {@value #MAX_LINES_PER_FRAME}
+ * records so that a flood of tool output cannot stall the UI thread. The view keeps only the most
+ * recent records; it is virtualized, so only the visible rows are rendered.
+ * <p>
+ * The history for export is a {@link LogStore}: recent records stay in memory and older ones are
+ * moved to segment files under {@code ~/.packaroo/logs}, so memory stays flat in long sessions.
+ * A {@link LogIndex} over the same records backs the console filter. While a filter is applied,
+ * the view is rebuilt from the index once and then extended with matching new records each frame.
+ * Section banners and separators are stored as plain records without a level, so they come back
+ * when the filter is cleared but never match one.
+ */
 @Service
 public class ConsoleLoggerService {
     
-    private TextArea consoleArea;
-    private final List<String> logHistory = new ArrayList<>();
-    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
-    private static final DateTimeFormatter FULL_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int MAX_LINES_PER_FRAME = 2000;
+    private static final int MAX_FILTERED_PER_FRAME = 20_000; // Records checked against a filter per frame
+    private static final LogRecord CLEAR = LogRecord.plain(""); // Queued by identity to clear in order with appends
     
-    public void setConsoleArea(TextArea consoleArea) {
-        this.consoleArea = consoleArea;
+    private ListView<LogRecord> consoleView;
+    private final LogStore logStore;
+    private final LogIndex logIndex;
+    private final Queue<LogRecord> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private AnimationTimer flusher;
+    private LogFilter filter;          // Only touched on the JavaFX application thread
+    private long nextFiltered;         // First sequence not yet checked against the filter
+    private long viewStart;            // First sequence shown since the view was last cleared, guarded by logIndex
+    private final boolean[] enabledLevels = new boolean[LogLevel.values().length];
+    
+    @Value("${packaroo.console.max-rows:20000}")
+    private int maxRows = 20_000;
+    
+    public ConsoleLoggerService(@Value("${packaroo.logs.memory-records:10000}") int memoryRecords,
+                                @Value("${packaroo.logs.segment-size-mb:16}") int segmentSizeMb,
+                                @Value("${packaroo.logs.keep-sessions:5}") int keepSessions,
+                                @Value("${packaroo.logs.max-session-mb:512}") int maxSessionMb,
+                                @Value("${packaroo.logs.searchable-records:1000000}") int searchableRecords,
+                                @Value("${packaroo.console.disabled-levels:}") String disabledLevels) {
+        this.logStore = new LogStore(Paths.get(System.getProperty("user.home"), ".packaroo", "logs"),
+                memoryRecords, segmentSizeMb * 1024 * 1024, keepSessions, maxSessionMb * 1024L * 1024);
+        this.logIndex = new LogIndex(searchableRecords);
+        Arrays.fill(enabledLevels, true);
+        for (String name : disabledLevels.split(",")) {
+            if (!name.isBlank()) {
+                enabledLevels[LogLevel.valueOf(name.trim().toUpperCase()).ordinal()] = false;
+            }
+        }
+    }
+    
+    /**
+     * Whether records of this level are kept; callers can check it before building an expensive message.
+     */
+    public boolean isEnabled(LogLevel level) {
+        return enabledLevels[level.ordinal()];
+    }
+    
+    public void setEnabled(LogLevel level, boolean enabled) {
+        enabledLevels[level.ordinal()] = enabled;
+    }
+    
+    /**
+     * Must be called on the JavaFX application thread.
+     */
+    public void setConsoleView(ListView<LogRecord> consoleView) {
+        this.consoleView = consoleView;
+        this.flusher = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flush();
+                if (pending.isEmpty() && (filter == null || nextFiltered >= logStore.nextSequence())) {
+                    stop();
+                    flushScheduled.set(false);
+                    // A record queued between the drain and the reset would otherwise wait for the next one
+                    if (!pending.isEmpty() && flushScheduled.compareAndSet(false, true)) {
+                        start();
+                    }
+                }
+            }
+        };
     }
     
     public void log(LogLevel level, String message) {
@@ -27,38 +111,19 @@ public class ConsoleLoggerService {
     }
     
     public void log(LogLevel level, String category, String message) {
-        if (consoleArea == null) return;
-        
-        LocalDateTime now = LocalDateTime.now();
-        String timestamp = now.format(TIME_FORMATTER);
-        String fullTimestamp = now.format(FULL_FORMATTER);
+        // Checked before anything is allocated, so disabled levels cost next to nothing
+        if (consoleView == null || !enabledLevels[level.ordinal()]) return;
         
-        // Build formatted message
-        StringBuilder formattedMessage = new StringBuilder();
-        formattedMessage.append("[").append(timestamp).append("] ");
-        formattedMessage.append(level.getIcon()).append(" ");
-        formattedMessage.append(String.format("%-8s", level.getName()));
-        
-        if (category != null && !category.trim().isEmpty()) {
-            formattedMessage.append(" [").append(category.toUpperCase()).append("] ");
-        } else {
-            formattedMessage.append(" ");
-        }
-        
-        formattedMessage.append(message);
-        
-        String logEntry = formattedMessage.toString();
-        String historyEntry = "[" + fullTimestamp + "] " + level.getName() + 
-                             (category != null ? " [" + category + "]" : "") + " " + message;
-        
-        Platform.runLater(() -> {
-            consoleArea.appendText(logEntry + "\n");
-            consoleArea.setScrollTop(Double.MAX_VALUE);
-        });
-        
-        // Store in history for export
-        synchronized (logHistory) {
-            logHistory.add(historyEntry);
+        append(LogRecord.now(level, category, message));
+    }
+    
+    private void append(LogRecord record) {
+        // Stored, indexed and queued together, so a filter change sees each record exactly once
+        synchronized (logIndex) {
+            logIndex.add(logStore.append(record), record);
+            // Records the store has rolled off cannot be shown anyway
+            logIndex.retainFrom(logStore.firstSequence());
+            enqueue(record);
         }
     }
     
@@ -125,39 +190,150 @@ public class ConsoleLoggerService {
     }
     
     public void clear() {
-        if (consoleArea != null) {
-            Platform.runLater(() -> consoleArea.clear());
+        clearView();
+        synchronized (logIndex) {
+            logStore.clear();
+            logIndex.clear(logStore.nextSequence());
         }
-        synchronized (logHistory) {
-            logHistory.clear();
+    }
+    
+    /**
+     * Empties the console view but keeps the history for export.
+     */
+    public void clearView() {
+        if (consoleView != null) {
+            synchronized (logIndex) {
+                viewStart = logStore.nextSequence();
+                enqueue(CLEAR);
+            }
         }
     }
     
-    public List<String> getLogHistory() {
-        synchronized (logHistory) {
-            return new ArrayList<>(logHistory);
+    /**
+     * Shows only the records matching the filter, or the latest records again for an empty one.
+     * Must be called on the JavaFX application thread.
+     *
+     * @return how many records in the history match
+     */
+    public int applyFilter(LogFilter newFilter) {
+        LogFilter active = newFilter == null || newFilter.isEmpty() ? null : newFilter;
+        LogIndex.Result result = null;
+        long start;
+        long end;
+        synchronized (logIndex) {
+            // Everything queued so far is in the history, which the view is rebuilt from
+            pending.clear();
+            start = viewStart;
+            end = logStore.nextSequence();
+            if (active != null) {
+                result = logIndex.search(active, maxRows);
+            }
         }
+        filter = active;
+        nextFiltered = end;
+
+        List<LogRecord> rows = new ArrayList<>();
+        if (result != null) {
+            for (long sequence : result.sequences()) {
+                LogRecord record = logStore.get(sequence);
+                if (record != null) {
+                    rows.add(record);
+                }
+            }
+        } else {
+            LogStore.Cursor cursor = logStore.cursor(Math.max(start, end - maxRows));
+            while (cursor.hasNext() && cursor.position() < end) {
+                rows.add(cursor.next());
+            }
+        }
+        consoleView.getItems().setAll(rows);
+        consoleView.scrollTo(rows.size() - 1);
+        return result != null ? result.total() : (int) Math.min(Integer.MAX_VALUE, logStore.size());
+    }
+    
+    public List<String> categories() {
+        return logIndex.categories();
+    }
+    
+    /**
+     * Iterates the history logged so far, oldest first, without copying it.
+     */
+    public LogStore.Cursor history() {
+        return logStore.cursor();
     }
     
     // Separator for visual organization
     public void separator() {
-        if (consoleArea != null) {
-            Platform.runLater(() -> {
-                consoleArea.appendText("─".repeat(80) + "\n");
-                consoleArea.setScrollTop(Double.MAX_VALUE);
-            });
+        if (consoleView != null) {
+            append(LogRecord.plain("─".repeat(80)));
         }
     }
     
     public void section(String title) {
-        if (consoleArea != null) {
-            Platform.runLater(() -> {
-                String separator = "─".repeat(80);
-                consoleArea.appendText("\n" + separator + "\n");
-                consoleArea.appendText("  " + title.toUpperCase() + "\n");
-                consoleArea.appendText(separator + "\n");
-                consoleArea.setScrollTop(Double.MAX_VALUE);
-            });
+        if (consoleView != null) {
+            String separator = "─".repeat(80);
+            append(LogRecord.plain(""));
+            append(LogRecord.plain(separator));
+            append(LogRecord.plain("  " + title.toUpperCase()));
+            append(LogRecord.plain(separator));
         }
     }
+    
+    private void enqueue(LogRecord record) {
+        pending.add(record);
+        if (flushScheduled.compareAndSet(false, true)) {
+            Platform.runLater(flusher::start);
+        }
+    }
+    
+    private void flush() {
+        ConsoleFlushEvent event = new ConsoleFlushEvent();
+        event.begin();
+        ObservableList<LogRecord> rows = consoleView.getItems();
+        List<LogRecord> batch = new ArrayList<>();
+        LogRecord record;
+        int lines = 0;
+        while (lines < MAX_LINES_PER_FRAME && (record = pending.poll()) != null) {
+            if (record == CLEAR) {
+                rows.clear();
+                batch.clear();
+                continue;
+            }
+            if (filter == null) {
+                batch.add(record);
+                lines++;
+            }
+        }
+        if (filter != null) {
+            // The queue only says that something arrived; matches are taken from the history in order
+            LogStore.Cursor cursor = logStore.cursor(nextFiltered);
+            for (int checked = 0; checked < MAX_FILTERED_PER_FRAME && cursor.hasNext(); checked++) {
+                LogRecord next = cursor.next();
+                if (LogIndex.matches(filter, next)) {
+                    batch.add(next);
+                    lines++;
+                }
+            }
+            nextFiltered = cursor.position();
+        }
+        if (!batch.isEmpty()) {
+            // One change notification for the batch and one for the trim, however many records arrived
+            rows.addAll(batch);
+            if (rows.size() > maxRows) {
+                rows.remove(0, rows.size() - maxRows);
+            }
+            consoleView.scrollTo(rows.size() - 1);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.lines = lines;
+            event.characters = batch.stream().mapToLong(line -> line.getMessage().length()).sum();
+            event.commit();
+        }
+    }
+    
+    @PreDestroy
+    public void close() {
+        logStore.close();
+    }
 }
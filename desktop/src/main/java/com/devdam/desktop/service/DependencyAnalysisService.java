@@ -1,5 +1,6 @@
 package com.devdam.desktop.service;
 
+import com.devdam.desktop.jfr.JarAnalysisEvent;
 import com.devdam.desktop.model.DependencyAnalysis;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,21 @@ import java.util.jar.Attributes;
 public class DependencyAnalysisService {
     
     public DependencyAnalysis analyzeJar(Path jarPath) {
+        JarAnalysisEvent event = new JarAnalysisEvent();
+        event.begin();
+        DependencyAnalysis analysis = analyze(jarPath);
+        event.end();
+        if (event.shouldCommit()) {
+            event.jarPath = jarPath.toString();
+            event.jarSize = jarPath.toFile().length();
+            event.moduleCount = analysis.getRequiredModules() != null ? analysis.getRequiredModules().size() : 0;
+            event.usedDefaults = analysis.getErrorMessage() != null;
+            event.commit();
+        }
+        return analysis;
+    }
+    
+    private DependencyAnalysis analyze(Path jarPath) {
         log.info("Analyzing dependencies for JAR: {}", jarPath);
         
         try {
@@ -78,18 +94,13 @@ public class DependencyAnalysisService {
     }
     
     private Set<String> getAvailableModules() {
-        try {
-            return getAvailableModulesInternal();
-        } catch (Exception e) {
-            log.warn("Could not get available modules", e);
-            return new HashSet<>();
-        }
+        return new HashSet<>(Toolchain.availableModules());
     }
     
     private boolean isJdepsAvailable() {
         try {
             ProcessBuilder pb = new ProcessBuilder("jdeps", "--version");
-            Process process = pb.start();
+            Process process = ToolProcesses.started(pb.start());
             int exitCode = process.waitFor();
             return exitCode == 0;
         } catch (Exception e) {
@@ -103,7 +114,7 @@ public class DependencyAnalysisService {
         
         // First try with --ignore-missing-deps for Spring Boot fat JARs
         ProcessBuilder pb = new ProcessBuilder("jdeps", "--print-module-deps", "--ignore-missing-deps", jarPath.toString());
-        Process process = pb.start();
+        Process process = ToolProcesses.started(pb.start());
         
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
              BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
@@ -211,7 +222,7 @@ public class DependencyAnalysisService {
     private boolean isJavaFXApplication(Path jarPath) {
         try {
             ProcessBuilder pb = new ProcessBuilder("jar", "-tf", jarPath.toString());
-            Process process = pb.start();
+            Process process = ToolProcesses.started(pb.start());
             
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
                 String line;
@@ -231,7 +242,7 @@ public class DependencyAnalysisService {
     private boolean isSpringBootWithJavaFXApplication(Path jarPath) {
         try {
             ProcessBuilder pb = new ProcessBuilder("jar", "-tf", jarPath.toString());
-            Process process = pb.start();
+            Process process = ToolProcesses.started(pb.start());
             
             boolean hasSpringBoot = false;
             boolean hasJavaFX = false;
@@ -280,28 +291,6 @@ public class DependencyAnalysisService {
         }
     }
     
-    private Set<String> getAvailableModulesInternal() throws IOException, InterruptedException {
-        Set<String> modules = new HashSet<>();
-        
-        ProcessBuilder pb = new ProcessBuilder("java", "--list-modules");
-        Process process = pb.start();
-        
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (!line.isEmpty() && line.contains("@")) {
-                    // Extract module name (before @)
-                    String moduleName = line.split("@")[0];
-                    modules.add(moduleName);
-                }
-            }
-        }
-        
-        process.waitFor();
-        return modules;
-    }
-    
     private Set<String> findMissingModules(Set<String> required, Set<String> available) {
         Set<String> missing = new HashSet<>(required);
         missing.removeAll(available);
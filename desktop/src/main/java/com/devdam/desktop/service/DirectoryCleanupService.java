@@ -0,0 +1,205 @@
+package com.devdam.desktop.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Gets directories out of the way without waiting for them to be deleted.
+ * <p>
+ * A discarded directory is renamed into a {@value #TRASH_DIRECTORY} directory next to it, which
+ * is a single atomic rename on the same file system, and then deleted in the background with one
+ * task per top-level entry. Leftovers of earlier runs found in the same trash directory are
+ * deleted along with it. When the rename is not possible, the directory is deleted in place.
+ */
+@Slf4j
+@Service
+public class DirectoryCleanupService {
+
+    static final String TRASH_DIRECTORY = ".packaroo-trash";
+
+    private final ExecutorService deleters;
+    private final Set<Path> inProgress = ConcurrentHashMap.newKeySet();
+
+    public DirectoryCleanupService() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.deleters = Executors.newFixedThreadPool(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "directory-cleanup-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Removes the directory from its place right away and deletes its contents in the background.
+     * Files that cannot be deleted are reported to {@code reporter}, possibly after the caller
+     * has moved on; they never cause an exception.
+     *
+     * @return completes with the number of files and directories that could not be deleted
+     */
+    public CompletableFuture<Integer> discard(Path directory, Consumer<String> reporter) {
+        if (directory == null || !Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        Path absolute = directory.toAbsolutePath().normalize();
+        Path trash = absolute.getParent().resolve(TRASH_DIRECTORY);
+        Path target = trash.resolve(absolute.getFileName() + "-" + System.nanoTime());
+        // Claimed before the move so that a concurrent sweep of the trash leaves it alone
+        inProgress.add(target);
+        try {
+            Files.createDirectories(trash);
+            Files.move(absolute, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            inProgress.remove(target);
+            // e.g. a file held open on Windows; the caller needs the path free, so delete in place
+            log.debug("Could not move {} to trash, deleting in place", absolute, e);
+            int failures = report(absolute, deleteTree(absolute), reporter);
+            return CompletableFuture.completedFuture(failures);
+        }
+
+        sweepLeftovers(trash);
+        return deleteInBackground(target, absolute, reporter)
+                .whenComplete((failures, error) -> removeIfEmpty(trash));
+    }
+
+    /**
+     * Deletes a directory already claimed in {@code inProgress}, releasing it when done.
+     */
+    private CompletableFuture<Integer> deleteInBackground(Path target, Path original, Consumer<String> reporter) {
+        List<Path> children;
+        try (Stream<Path> listing = Files.list(target)) {
+            children = listing.toList();
+        } catch (IOException e) {
+            children = List.of();
+        }
+
+        try {
+            List<CompletableFuture<DeleteResult>> parts = new ArrayList<>();
+            for (Path child : children) {
+                parts.add(CompletableFuture.supplyAsync(() -> deleteTree(child), deleters));
+            }
+            return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+                    .thenApplyAsync(ignored -> {
+                        DeleteResult result = deleteTree(target);
+                        for (CompletableFuture<DeleteResult> part : parts) {
+                            result = result.plus(part.join());
+                        }
+                        return report(original, result, reporter);
+                    }, deleters)
+                    .whenComplete((failures, error) -> inProgress.remove(target));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next discard in this location sweeps it up
+            inProgress.remove(target);
+            return CompletableFuture.completedFuture(0);
+        }
+    }
+
+    private void sweepLeftovers(Path trash) {
+        try (Stream<Path> listing = Files.list(trash)) {
+            for (Path leftover : listing.toList()) {
+                if (inProgress.add(leftover)) {
+                    deleteInBackground(leftover, leftover, message -> { });
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Could not list trash directory {}", trash, e);
+        }
+    }
+
+    private void removeIfEmpty(Path trash) {
+        try {
+            Files.deleteIfExists(trash);
+        } catch (IOException e) {
+            // Not empty yet: another discard is still deleting into it
+        }
+    }
+
+    private int report(Path original, DeleteResult result, Consumer<String> reporter) {
+        if (result.failures() > 0) {
+            String message = "Could not delete " + result.failures() + " entries of old " + original
+                    + " (" + result.firstError() + ")";
+            log.warn(message);
+            reporter.accept(message);
+        }
+        return result.failures();
+    }
+
+    /**
+     * Deletes a file tree children first, carrying on past entries that cannot be deleted.
+     */
+    private DeleteResult deleteTree(Path root) {
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        Consumer<IOException> failed = e -> {
+            failures.incrementAndGet();
+            firstError.compareAndSet(null, e.toString());
+        };
+
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        failed.accept(e);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    failed.accept(exc);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                    try {
+                        Files.delete(dir);
+                    } catch (IOException e) {
+                        failed.accept(exc != null ? exc : e);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            failed.accept(e);
+        }
+        return new DeleteResult(failures.get(), firstError.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deleters.shutdown();
+    }
+
+    private record DeleteResult(int failures, String firstError) {
+        DeleteResult plus(DeleteResult other) {
+            return new DeleteResult(failures + other.failures, firstError != null ? firstError : other.firstError);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.JLinkOptions;
+import com.devdam.desktop.model.JLinkTuningReport;
+import com.devdam.desktop.model.JLinkVariantResult;
+import com.devdam.desktop.model.LaunchMeasurement;
+import com.devdam.desktop.model.PackageConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Builds a matrix of runtime images with different jlink options, measures each one and
+ * recommends the combination that best fits a size or startup objective.
+ * <p>
+ * Images are linked in parallel straight into the runtime cache, so the winning variant is
+ * picked up by the next build without linking again. Startup is measured one variant at a
+ * time afterwards; measuring while other images are linking would only measure contention.
+ */
+@Slf4j
+@Service
+public class JLinkTuningService {
+
+    private static final int[] COMPRESS_LEVELS = {0, 1, 2};
+
+    private final RuntimeImageService runtimeImageService;
+    private final LaunchProbeService launchProbeService;
+
+    @Value("${packaroo.jlink-tuning.startup-runs:3}")
+    private int startupRuns;
+
+    @Value("${packaroo.jlink-tuning.startup-timeout-seconds:30}")
+    private long startupTimeoutSeconds;
+
+    public JLinkTuningService(RuntimeImageService runtimeImageService, LaunchProbeService launchProbeService) {
+        this.runtimeImageService = runtimeImageService;
+        this.launchProbeService = launchProbeService;
+    }
+
+    public JLinkTuningReport tune(PackageConfiguration config, JLinkTuningReport.Objective objective,
+                                  Consumer<String> logConsumer) throws InterruptedException {
+
+        Set<String> modules = runtimeImageService.filterLinkable(
+                config.getRequiredModules() != null ? config.getRequiredModules() : Set.of());
+        List<JLinkOptions> variants = buildMatrix();
+        int parallelism = Math.max(1, Math.min(variants.size(), Runtime.getRuntime().availableProcessors() / 2));
+        logConsumer.accept("Linking " + variants.size() + " runtime variants for " + modules.size()
+                + " modules (" + parallelism + " in parallel)...");
+
+        // Step 1: link every variant in parallel
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "jlink-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Path>> images = new ArrayList<>();
+        List<Long> linkTimes = Collections.synchronizedList(new ArrayList<>(Collections.nCopies(variants.size(), -1L)));
+        // The variants outnumber what the cache may keep; none may be evicted before it is measured
+        try (RuntimeImageService.Pin pin = runtimeImageService.pin()) {
+            for (int i = 0; i < variants.size(); i++) {
+                final int index = i;
+                JLinkOptions options = variants.get(i);
+                images.add(executor.submit(() -> {
+                    long start = System.currentTimeMillis();
+                    Path image = runtimeImageService.linkIntoCache(modules, options.toArguments(), line -> log.debug(line), pin);
+                    linkTimes.set(index, System.currentTimeMillis() - start);
+                    return image;
+                }));
+            }
+
+            // Step 2: wait for every link so startup is not measured under jlink load
+            List<Path> linked = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            for (Future<Path> image : images) {
+                try {
+                    linked.add(image.get());
+                    errors.add(null);
+                } catch (ExecutionException e) {
+                    linked.add(null);
+                    errors.add(e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                }
+            }
+
+            // Step 3: measure size and cold start, one variant at a time
+            List<JLinkVariantResult> results = new ArrayList<>();
+            for (int i = 0; i < variants.size(); i++) {
+                JLinkOptions options = variants.get(i);
+                if (linked.get(i) != null && !Files.isDirectory(linked.get(i))) {
+                    linked.set(i, null);
+                    errors.set(i, "runtime image was removed before it could be measured");
+                }
+                if (linked.get(i) == null) {
+                    logConsumer.accept(options + " failed: " + errors.get(i));
+                    results.add(JLinkVariantResult.builder()
+                            .options(options)
+                            .success(false)
+                            .errorMessage(errors.get(i))
+                            .imageSizeBytes(-1)
+                            .startupMs(-1)
+                            .linkTimeMs(-1)
+                            .build());
+                    continue;
+                }
+
+                long size = runtimeImageService.sizeOf(linked.get(i));
+                long startup = measureStartup(linked.get(i), config);
+                logConsumer.accept(String.format("%-70s %8.1f MB  %s", options,
+                        size / (1024.0 * 1024.0), startup >= 0 ? startup + " ms" : "n/a"));
+                results.add(JLinkVariantResult.builder()
+                        .options(options)
+                        .success(true)
+                        .imageSizeBytes(size)
+                        .startupMs(startup)
+                        .linkTimeMs(linkTimes.get(i))
+                        .build());
+            }
+
+            JLinkOptions recommended = pickBest(results, objective);
+            return JLinkTuningReport.builder()
+                    .objective(objective)
+                    .timestamp(LocalDateTime.now())
+                    .jdkVersion(runtimeImageService.featureVersion(null))
+                    .modules(new ArrayList<>(modules))
+                    .variants(results)
+                    .recommended(recommended)
+                    .build();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<JLinkOptions> buildMatrix() {
+        boolean cdsSupported = runtimeImageService.supportsPlugin("--generate-cds-archive");
+        List<JLinkOptions> variants = new ArrayList<>();
+        for (int compress : COMPRESS_LEVELS) {
+            for (boolean stripDebug : new boolean[]{false, true}) {
+                for (boolean cds : cdsSupported ? new boolean[]{false, true} : new boolean[]{false}) {
+                    variants.add(JLinkOptions.builder()
+                            .compressLevel(compress)
+                            .stripDebug(stripDebug)
+                            .generateCdsArchive(cds)
+                            .build());
+                }
+            }
+        }
+        return variants;
+    }
+
+    private JLinkOptions pickBest(List<JLinkVariantResult> results, JLinkTuningReport.Objective objective) {
+        Comparator<JLinkVariantResult> bySize = Comparator.comparingLong(JLinkVariantResult::getImageSizeBytes);
+        Comparator<JLinkVariantResult> byStartup = Comparator.comparingLong(JLinkVariantResult::getStartupMs);
+
+        boolean startupMeasured = results.stream().anyMatch(result -> result.isSuccess() && result.getStartupMs() >= 0);
+        Comparator<JLinkVariantResult> order = objective == JLinkTuningReport.Objective.STARTUP && startupMeasured
+                ? byStartup.thenComparing(bySize)
+                : bySize.thenComparing(byStartup);
+
+        return results.stream()
+                .filter(JLinkVariantResult::isSuccess)
+                .filter(result -> objective != JLinkTuningReport.Objective.STARTUP || !startupMeasured
+                        || result.getStartupMs() >= 0)
+                .min(order)
+                .map(JLinkVariantResult::getOptions)
+                .orElse(null);
+    }
+
+    private long measureStartup(Path image, PackageConfiguration config) {
+        if (config.getJarFile() == null || !Files.exists(config.getJarFile())
+                || config.getMainClass() == null || config.getMainClass().trim().isEmpty()) {
+            return -1;
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(runtimeImageService.javaLauncher(image).toString());
+        if (config.getJvmArgs() != null) {
+            command.addAll(config.getJvmArgs());
+        }
+        command.add("-cp");
+        command.add(config.getJarFile().toString());
+        command.add(config.getMainClass());
+        if (config.getAppArgs() != null) {
+            command.addAll(config.getAppArgs());
+        }
+
+        List<Long> samples = new ArrayList<>();
+        for (int run = 0; run < startupRuns; run++) {
+            LaunchMeasurement measurement = launchProbeService.launch(command,
+                    Duration.ofSeconds(startupTimeoutSeconds), true, null);
+            if (measurement.isReady()) {
+                samples.add(measurement.getReadyTimeMs());
+            }
+        }
+        if (samples.isEmpty()) {
+            return -1;
+        }
+        Collections.sort(samples);
+        return samples.get(samples.size() / 2);
+    }
+}
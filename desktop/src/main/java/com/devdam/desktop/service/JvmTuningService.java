@@ -0,0 +1,134 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.JvmProfile;
+import com.devdam.desktop.model.JvmProfileBenchmark;
+import com.devdam.desktop.model.LaunchMeasurement;
+import com.devdam.desktop.model.PackageConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class JvmTuningService {
+
+    // Flags that pick a collector; the JVM refuses to start when two of them are given
+    private static final Pattern GC_SELECTION = Pattern.compile("-XX:[+-](Use\\w+GC|ZGenerational)");
+
+    private final RuntimeImageService runtimeImageService;
+    private final LaunchProbeService launchProbeService;
+
+    @Value("${packaroo.tuning.benchmark-seconds:10}")
+    private long benchmarkSeconds;
+
+    @Value("${packaroo.tuning.benchmark-runs:3}")
+    private int benchmarkRuns;
+
+    public JvmTuningService(RuntimeImageService runtimeImageService, LaunchProbeService launchProbeService) {
+        this.runtimeImageService = runtimeImageService;
+        this.launchProbeService = launchProbeService;
+    }
+
+    /**
+     * Launcher options for the packaged app: the profile's flags for the runtime that will be
+     * bundled, followed by the user's own arguments so those always win.
+     */
+    public List<String> resolveJavaOptions(PackageConfiguration config, Path runtimePath) {
+        List<String> userArgs = config.getJvmArgs() != null ? config.getJvmArgs() : Collections.emptyList();
+        return resolveJavaOptions(config.getJvmProfile(), userArgs, runtimePath);
+    }
+
+    private List<String> resolveJavaOptions(JvmProfile profile, List<String> userArgs, Path runtimePath) {
+        List<String> options = new ArrayList<>();
+        if (profile != null && profile != JvmProfile.NONE) {
+            int feature = runtimeImageService.featureVersion(runtimePath);
+            Set<String> linkedModules = runtimePath != null ? runtimeImageService.linkedModules(runtimePath) : null;
+            options.addAll(profile.flags(feature, linkedModules));
+
+            if (userArgs.stream().anyMatch(arg -> GC_SELECTION.matcher(arg).matches())) {
+                options.removeIf(flag -> GC_SELECTION.matcher(flag).matches());
+            }
+        }
+        options.addAll(userArgs);
+        return options;
+    }
+
+    public List<JvmProfileBenchmark> benchmarkProfiles(PackageConfiguration config, Consumer<String> logConsumer) {
+        List<JvmProfileBenchmark> results = new ArrayList<>();
+
+        // Benchmark against the runtime the app will ship with when one has already been linked
+        Path runtimePath = config.getOutputDirectory() != null ? config.getOutputDirectory().resolve("runtime") : null;
+        if (!config.isEnableJLink() || runtimePath == null || !Files.exists(runtimeImageService.javaLauncher(runtimePath))) {
+            runtimePath = null;
+        }
+        String javaExecutable = runtimePath != null ? runtimeImageService.javaLauncher(runtimePath).toString() : "java";
+        logConsumer.accept("Benchmarking with " + (runtimePath != null ? "linked runtime " + runtimePath : "full JDK")
+                + " (JDK " + runtimeImageService.featureVersion(runtimePath) + "), "
+                + benchmarkRuns + " runs x " + benchmarkSeconds + "s per profile");
+
+        List<String> userArgs = config.getJvmArgs() != null ? config.getJvmArgs() : Collections.emptyList();
+        for (JvmProfile profile : JvmProfile.values()) {
+            List<String> javaOptions = resolveJavaOptions(profile, userArgs, runtimePath);
+            logConsumer.accept("Profile " + profile.getDisplayName() + ": " + String.join(" ", javaOptions));
+
+            List<String> command = new ArrayList<>();
+            command.add(javaExecutable);
+            command.addAll(javaOptions);
+            command.add("-cp");
+            command.add(config.getJarFile().toString());
+            command.add(config.getMainClass());
+            if (config.getAppArgs() != null) {
+                command.addAll(config.getAppArgs());
+            }
+
+            List<Long> startupTimes = new ArrayList<>();
+            long peakRss = 0;
+            int failed = 0;
+            String error = null;
+
+            for (int run = 0; run < benchmarkRuns; run++) {
+                LaunchMeasurement measurement = launchProbeService.launch(command,
+                        Duration.ofSeconds(benchmarkSeconds), false, null);
+                boolean crashed = measurement.isExited() && measurement.getExitCode() != null
+                        && measurement.getExitCode() != 0;
+
+                if (!measurement.isStarted() || crashed) {
+                    failed++;
+                    if (error == null) {
+                        error = measurement.isStarted()
+                                ? "Exited with code " + measurement.getExitCode()
+                                : measurement.getErrorMessage();
+                    }
+                    continue;
+                }
+                if (measurement.isReady()) {
+                    startupTimes.add(measurement.getReadyTimeMs());
+                }
+                peakRss = Math.max(peakRss, measurement.getPeakRssBytes());
+            }
+
+            Collections.sort(startupTimes);
+            results.add(JvmProfileBenchmark.builder()
+                    .profile(profile)
+                    .javaOptions(javaOptions)
+                    .runs(benchmarkRuns)
+                    .failedRuns(failed)
+                    .startupMs(startupTimes.isEmpty() ? -1 : startupTimes.get(startupTimes.size() / 2))
+                    .peakRssBytes(peakRss)
+                    .errorMessage(error)
+                    .build());
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,176 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LaunchMeasurement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Launches a process, watches it until it is ready, exits or times out, and
+ * reports how long it took to produce output and how much memory it used.
+ */
+@Slf4j
+@Service
+public class LaunchProbeService {
+
+    private static final long SAMPLE_INTERVAL_MS = 50;
+    private static final long PS_SAMPLE_INTERVAL_MS = 1000;
+    private static final long TERMINATE_GRACE_MS = 3000;
+    // The JVM announces JAVA_TOOL_OPTIONS on stderr before the application runs
+    private static final String TOOL_OPTIONS_NOTICE = "Picked up JAVA_TOOL_OPTIONS:";
+
+    /**
+     * Runs the command and measures it.
+     *
+     * @param command        command line to start
+     * @param timeout        maximum time the process is allowed to run
+     * @param stopWhenReady  stop the process as soon as it writes its first line of output
+     * @param outputConsumer receives every line of combined stdout/stderr, may be {@code null}
+     */
+    public LaunchMeasurement launch(List<String> command, Duration timeout, boolean stopWhenReady,
+                                    Consumer<String> outputConsumer) {
+        return launch(command, timeout, stopWhenReady, outputConsumer, null);
+    }
+
+    /**
+     * Runs the command without a display and measures it.
+     * <p>
+     * The display variables are removed from the environment, so nothing can open a window on
+     * the machine running the build, and {@code headlessOptions} are passed to the JVM of the
+     * launched application through {@code JAVA_TOOL_OPTIONS}, which app image launchers honour.
+     *
+     * @param headlessOptions JVM options that make the application run headless, {@code null}
+     *                        to launch it normally
+     */
+    public LaunchMeasurement launch(List<String> command, Duration timeout, boolean stopWhenReady,
+                                    Consumer<String> outputConsumer, List<String> headlessOptions) {
+        long startNanos = System.nanoTime();
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        if (headlessOptions != null) {
+            Map<String, String> environment = builder.environment();
+            environment.remove("DISPLAY");
+            environment.remove("WAYLAND_DISPLAY");
+            if (!headlessOptions.isEmpty()) {
+                environment.merge("JAVA_TOOL_OPTIONS", String.join(" ", headlessOptions),
+                        (existing, added) -> existing + " " + added);
+            }
+        }
+        Process process;
+        try {
+            process = ToolProcesses.started(builder.start());
+        } catch (IOException e) {
+            log.warn("Could not launch: {}", command, e);
+            return LaunchMeasurement.failed("Could not launch: " + e.getMessage());
+        }
+
+        AtomicLong firstOutputNanos = new AtomicLong(-1);
+        Thread reader = new Thread(() -> {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.startsWith(TOOL_OPTIONS_NOTICE)) {
+                        firstOutputNanos.compareAndSet(-1, System.nanoTime());
+                    }
+                    if (outputConsumer != null) {
+                        outputConsumer.accept(line);
+                    }
+                }
+            } catch (IOException e) {
+                log.debug("Output stream closed for {}", command.get(0));
+            }
+        }, "launch-probe-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        long deadline = startNanos + timeout.toNanos();
+        long peakRss = 0;
+        boolean timedOut = false;
+        // Without /proc each sample starts ps for every process in the tree, which would slow down
+        // the very startup being timed; there memory is only sampled, and less often, once it is ready
+        boolean sampleDuringStartup = ProcessStats.procAvailable();
+        long nextSample = startNanos;
+
+        try {
+            while (process.isAlive()) {
+                boolean ready = firstOutputNanos.get() >= 0;
+                if (sampleDuringStartup || ready && System.nanoTime() >= nextSample) {
+                    peakRss = Math.max(peakRss, residentSetBytes(process.toHandle()));
+                    nextSample = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(PS_SAMPLE_INTERVAL_MS);
+                }
+                if (stopWhenReady && ready) {
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    timedOut = true;
+                    break;
+                }
+                process.waitFor(SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!sampleDuringStartup && timedOut && process.isAlive()) {
+            // A silent app never became ready; take its memory once before it is stopped
+            peakRss = Math.max(peakRss, residentSetBytes(process.toHandle()));
+        }
+
+        boolean exited = !process.isAlive();
+        Integer exitCode = exited ? process.exitValue() : null;
+        if (!exited) {
+            destroyTree(process);
+        }
+
+        try {
+            reader.join(TERMINATE_GRACE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long firstOutput = firstOutputNanos.get();
+        return LaunchMeasurement.builder()
+                .started(true)
+                .readyTimeMs(firstOutput >= 0 ? TimeUnit.NANOSECONDS.toMillis(firstOutput - startNanos) : -1)
+                .wallTimeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+                .peakRssBytes(peakRss)
+                .exited(exited)
+                .exitCode(exitCode)
+                .timedOut(timedOut)
+                .build();
+    }
+
+    /**
+     * Resident memory of the process and all of its descendants, in bytes.
+     * Returns 0 where the platform does not expose it.
+     */
+    public long residentSetBytes(ProcessHandle handle) {
+        long total = ProcessStats.residentSetBytes(handle.pid());
+        for (ProcessHandle child : (Iterable<ProcessHandle>) handle.descendants()::iterator) {
+            total += ProcessStats.residentSetBytes(child.pid());
+        }
+        return total;
+    }
+
+    private void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroy);
+        process.destroy();
+        try {
+            if (!process.waitFor(TERMINATE_GRACE_MS, TimeUnit.MILLISECONDS)) {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
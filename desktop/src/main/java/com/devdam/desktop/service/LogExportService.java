@@ -0,0 +1,122 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LogRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.function.DoubleConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the console history to a file, as plain text or as JSON Lines, optionally gzipped.
+ * <p>
+ * Records are streamed from a {@link LogStore.Cursor} through a buffered writer one at a time,
+ * so memory use does not depend on how long the history is. The file is written next to the
+ * target under a temporary name and moved into place at the end, so a failed or cancelled export
+ * never leaves half a file behind.
+ */
+@Slf4j
+@Service
+public class LogExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int PROGRESS_INTERVAL = 4096; // Records between progress reports
+
+    public enum Format {
+        TEXT, JSON_LINES;
+
+        /**
+         * Picks the format from a file name such as {@code logs.jsonl.gz}.
+         */
+        public static Format forFile(Path file) {
+            String name = stripGzip(file.getFileName().toString().toLowerCase(Locale.ROOT));
+            return name.endsWith(".jsonl") || name.endsWith(".json") ? JSON_LINES : TEXT;
+        }
+    }
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    /**
+     * Exports every record the cursor returns. Runs on the calling thread and stops with a
+     * {@link CancellationException} when that thread is interrupted.
+     *
+     * @param progress receives the fraction written so far, from 0 to 1
+     * @return the number of records written
+     */
+    public long export(LogStore.Cursor records, Path target, Format format, boolean gzip,
+                       DoubleConsumer progress) throws IOException {
+        long start = records.position();
+        double total = Math.max(1, records.end() - start);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        long written = 0;
+        try {
+            try (OutputStream file = Files.newOutputStream(temporary);
+                 OutputStream out = gzip ? new GZIPOutputStream(file, BUFFER_SIZE) : file;
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                 JsonGenerator json = format == Format.JSON_LINES ? jsonFactory.createGenerator(writer) : null) {
+                if (json != null) {
+                    json.setRootValueSeparator(null); // Each object ends with its own newline
+                }
+                progress.accept(0);
+                while (records.hasNext()) {
+                    LogRecord record = records.next();
+                    if (json != null) {
+                        writeJson(json, record);
+                    } else {
+                        writer.write(record.historyText());
+                        writer.write(System.lineSeparator());
+                    }
+                    if (++written % PROGRESS_INTERVAL == 0) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new CancellationException("Log export cancelled");
+                        }
+                        progress.accept(Math.min(1, (records.position() - start) / total));
+                    }
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        progress.accept(1);
+        log.info("Exported {} log records to {}", written, target);
+        return written;
+    }
+
+    private static void writeJson(JsonGenerator json, LogRecord record) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("time", Instant.ofEpochSecond(0, record.getEpochNanos()).toString());
+        if (record.getLevel() != null) {
+            json.writeStringField("level", record.getLevel().name());
+        }
+        if (record.getCategory() != null) {
+            json.writeStringField("category", record.getCategory());
+        }
+        json.writeStringField("message", record.getMessage());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static String stripGzip(String name) {
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+}
@@ -0,0 +1,283 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LogFilter;
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Finds log records by level, category and words without going through the records themselves.
+ * <p>
+ * Records are indexed in blocks of consecutive sequence numbers. Within a block every record
+ * has a position, its sequence number minus the block's first. Levels and categories each have
+ * a bitmap of positions, and every word of a message (lower case letters and digits, at most
+ * {@value #MAX_TOKENS_PER_RECORD} per record) has a sorted list of positions. A search word
+ * matches every indexed word it is a prefix of, so "jlin" finds "jlink". All of it is updated as
+ * records are added, so searching never rescans the history. Plain lines, such as section
+ * banners, have no level and never match a filter.
+ * <p>
+ * Only the newest records are searchable: once the index holds its maximum, the oldest block
+ * is dropped with its bitmaps and words, as is any block the log store no longer holds.
+ */
+public class LogIndex {
+
+    private static final int MAX_TOKEN_LENGTH = 32;
+    private static final int MAX_TOKENS_PER_RECORD = 32;
+    private static final int DEFAULT_MAX_RECORDS = 1 << 20;
+    private static final int BLOCK_RECORDS = 1 << 16;
+
+    private final int blockRecords;
+    private final int maxBlocks;
+    private final Deque<Block> blocks = new ArrayDeque<>();
+    private long nextSequence;
+
+    /**
+     * Newest matches, oldest first, and how many records matched in total.
+     */
+    public record Result(long[] sequences, int total) {
+    }
+
+    public LogIndex() {
+        this(DEFAULT_MAX_RECORDS);
+    }
+
+    /**
+     * @param maxRecords how many of the newest records stay searchable, rounded up to whole blocks
+     */
+    public LogIndex(int maxRecords) {
+        this(maxRecords, Math.min(BLOCK_RECORDS, Math.max(1, maxRecords)));
+    }
+
+    LogIndex(int maxRecords, int blockRecords) {
+        this.blockRecords = Math.max(1, blockRecords);
+        this.maxBlocks = Math.max(1, (Math.max(1, maxRecords) + this.blockRecords - 1) / this.blockRecords);
+        clear(0);
+    }
+
+    /**
+     * Indexes a record. Records have to be added in sequence order.
+     */
+    public synchronized void add(long sequence, LogRecord record) {
+        if (sequence < nextSequence) {
+            return;
+        }
+        nextSequence = sequence + 1;
+        Block block = blocks.peekLast();
+        if (block == null || sequence - block.first >= blockRecords) {
+            if (blocks.size() == maxBlocks) {
+                blocks.removeFirst();
+            }
+            block = new Block(sequence);
+            blocks.addLast(block);
+        }
+        block.add((int) (sequence - block.first), record);
+    }
+
+    /**
+     * Drops the blocks holding only records before {@code firstSequence}, which are gone from the store.
+     */
+    public synchronized void retainFrom(long firstSequence) {
+        while (!blocks.isEmpty() && blocks.peekFirst().first + blocks.peekFirst().size <= firstSequence) {
+            blocks.removeFirst();
+        }
+    }
+
+    /**
+     * Finds the newest {@code limit} records matching the filter. An empty filter matches every
+     * record with a level.
+     */
+    public synchronized Result search(LogFilter filter, int limit) {
+        List<String> words = tokens(filter.getText());
+        int total = 0;
+        List<long[]> found = new ArrayList<>();   // Per block, newest block first
+        int wanted = Math.max(0, limit);
+        for (Iterator<Block> newestFirst = blocks.descendingIterator(); newestFirst.hasNext(); ) {
+            Block block = newestFirst.next();
+            BitSet matches = block.search(filter, words);
+            total += matches.cardinality();
+            long[] sequences = new long[Math.min(matches.cardinality(), wanted)];
+            int index = sequences.length;
+            for (int position = matches.previousSetBit(block.size - 1); position >= 0 && index > 0;
+                    position = matches.previousSetBit(position - 1)) {
+                sequences[--index] = block.first + position;
+            }
+            wanted -= sequences.length;
+            found.add(sequences);
+        }
+
+        long[] sequences = new long[Math.min(total, Math.max(0, limit))];
+        int at = 0;
+        for (int i = found.size() - 1; i >= 0; i--) {
+            System.arraycopy(found.get(i), 0, sequences, at, found.get(i).length);
+            at += found.get(i).length;
+        }
+        return new Result(sequences, total);
+    }
+
+    public synchronized List<String> categories() {
+        Set<String> names = new HashSet<>();
+        for (Block block : blocks) {
+            names.addAll(block.categories.keySet());
+        }
+        List<String> sorted = new ArrayList<>(names);
+        sorted.sort(String.CASE_INSENSITIVE_ORDER);
+        return sorted;
+    }
+
+    /**
+     * Number of sequence numbers the index covers, including any skipped ones.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Block block : blocks) {
+            size += block.size;
+        }
+        return size;
+    }
+
+    /**
+     * Forgets every record; the next one added is expected at {@code nextSequence}.
+     */
+    public synchronized void clear(long nextSequence) {
+        this.nextSequence = nextSequence;
+        blocks.clear();
+    }
+
+    /**
+     * Whether a single record matches, with the same rules the index applies.
+     */
+    public static boolean matches(LogFilter filter, LogRecord record) {
+        if (record.getLevel() == null) {
+            return false;
+        }
+        if (filter.getLevel() != null && filter.getLevel() != record.getLevel()) {
+            return false;
+        }
+        if (filter.getCategory() != null && !filter.getCategory().equals(record.getCategory())) {
+            return false;
+        }
+        List<String> words = tokens(filter.getText());
+        if (words.isEmpty()) {
+            return true;
+        }
+        List<String> messageWords = tokens(record.getMessage());
+        for (String word : words) {
+            if (messageWords.stream().noneMatch(messageWord -> messageWord.startsWith(word))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> found = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length() && found.size() < MAX_TOKENS_PER_RECORD; i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                found.add(text.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH)).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Index of consecutive records starting at {@code first}.
+     */
+    private static final class Block {
+
+        private final long first;
+        private final BitSet[] levels = new BitSet[LogLevel.values().length];
+        private final Map<String, BitSet> categories = new HashMap<>();
+        private final BitSet plain = new BitSet();
+        private final NavigableMap<String, Postings> tokens = new TreeMap<>();
+        private int size;
+
+        Block(long first) {
+            this.first = first;
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = new BitSet();
+            }
+        }
+
+        void add(int at, LogRecord record) {
+            size = at + 1;
+            if (record.getLevel() == null) {
+                plain.set(at);
+                return;
+            }
+            levels[record.getLevel().ordinal()].set(at);
+            if (record.getCategory() != null) {
+                categories.computeIfAbsent(record.getCategory(), category -> new BitSet()).set(at);
+            }
+            for (String token : tokens(record.getMessage())) {
+                tokens.computeIfAbsent(token, word -> new Postings()).add(at);
+            }
+        }
+
+        BitSet search(LogFilter filter, List<String> words) {
+            BitSet matches = new BitSet(size);
+            matches.set(0, size);
+            matches.andNot(plain);
+            if (filter.getLevel() != null) {
+                matches.and(levels[filter.getLevel().ordinal()]);
+            }
+            if (filter.getCategory() != null) {
+                matches.and(categories.getOrDefault(filter.getCategory(), new BitSet()));
+            }
+            for (String word : words) {
+                BitSet withWord = new BitSet(size);
+                for (Postings postings : tokens.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+                    postings.addTo(withWord);
+                }
+                matches.and(withWord);
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Positions of one word, ascending.
+     */
+    private static final class Postings {
+
+        private int[] positions = new int[4];
+        private int count;
+
+        void add(int position) {
+            if (count > 0 && positions[count - 1] == position) {
+                return; // Same word twice in one message
+            }
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+
+        void addTo(BitSet bits) {
+            for (int i = 0; i < count; i++) {
+                bits.set(positions[i]);
+            }
+        }
+    }
+}
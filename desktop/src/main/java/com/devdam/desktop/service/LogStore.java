@@ -0,0 +1,373 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Log records of one session, addressed by sequence number.
+ * <p>
+ * The most recent records are kept in a fixed-size ring. Records pushed out of the ring are
+ * written to memory-mapped segment files in a session directory under the log directory, and a
+ * new segment is started whenever one is full. Each segment keeps the offset of every
+ * {@value #CHECKPOINT_INTERVAL}th record, so reading an old record scans at most that many
+ * records. Segments hold no file handle once mapped, and when the session's segments would
+ * exceed the size limit the oldest one is deleted, its records leaving the store as if cleared.
+ * Directories of older sessions beyond the configured number are deleted on start.
+ */
+@Slf4j
+public class LogStore implements Closeable {
+
+    private static final int CHECKPOINT_INTERVAL = 128;
+    private static final int READ_BATCH = 256;
+    private static final int RECORD_HEADER = 4 + 8 + 1 + 2; // length, epoch nanos, level, category length
+    private static final DateTimeFormatter SESSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path logDirectory;
+    private final int segmentSize;
+    private final int keepSessions;
+    private final long maxSessionBytes;
+    private final LogRecord[] ring;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private Path sessionDirectory;
+    private int segmentsCreated;
+    private long firstSequence;
+    private long nextSequence;
+    private long dropped;
+
+    public LogStore(Path logDirectory, int ringCapacity, int segmentSize, int keepSessions) {
+        this(logDirectory, ringCapacity, segmentSize, keepSessions, Long.MAX_VALUE);
+    }
+
+    public LogStore(Path logDirectory, int ringCapacity, int segmentSize, int keepSessions, long maxSessionBytes) {
+        this.logDirectory = logDirectory;
+        this.ring = new LogRecord[Math.max(1, ringCapacity)];
+        this.segmentSize = Math.max(64 * 1024, segmentSize);
+        this.keepSessions = Math.max(1, keepSessions);
+        // Always room for at least the segment being written
+        this.maxSessionBytes = Math.max(this.segmentSize, maxSessionBytes);
+    }
+
+    /**
+     * Adds a record and returns its sequence number.
+     */
+    public synchronized long append(LogRecord record) {
+        long sequence = nextSequence++;
+        int slot = (int) (sequence % ring.length);
+        LogRecord evicted = ring[slot];
+        if (evicted != null && sequence - ring.length >= firstSequence) {
+            spill(sequence - ring.length, evicted);
+        }
+        ring[slot] = record;
+        return sequence;
+    }
+
+    public synchronized long firstSequence() {
+        return firstSequence;
+    }
+
+    public synchronized long nextSequence() {
+        return nextSequence;
+    }
+
+    public synchronized long size() {
+        return nextSequence - firstSequence;
+    }
+
+    /**
+     * Records that had to be dropped because they could not be written to a segment.
+     */
+    public synchronized long dropped() {
+        return dropped;
+    }
+
+    /**
+     * The record with the given sequence number, or null if it was cleared or dropped.
+     */
+    public synchronized LogRecord get(long sequence) {
+        if (sequence < firstSequence || sequence >= nextSequence) {
+            return null;
+        }
+        if (sequence >= nextSequence - ring.length) {
+            return ring[(int) (sequence % ring.length)];
+        }
+        Segment segment = segmentOf(sequence);
+        return segment != null ? segment.read(sequence) : null;
+    }
+
+    /**
+     * Iterates the records present when the cursor is created, starting at {@code fromSequence}.
+     * Records appended later are not included, and records cleared meanwhile are skipped.
+     */
+    public synchronized Cursor cursor(long fromSequence) {
+        return new Cursor(Math.max(fromSequence, firstSequence), nextSequence);
+    }
+
+    public Cursor cursor() {
+        return cursor(0);
+    }
+
+    /**
+     * Forgets every record. Sequence numbers keep counting up, so cursors created before simply end.
+     */
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        firstSequence = nextSequence;
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        segments.clear();
+    }
+
+    /**
+     * Lets go of the segments; their mappings are released once no longer referenced.
+     */
+    @Override
+    public synchronized void close() {
+        segments.clear();
+    }
+
+    private void spill(long sequence, LogRecord record) {
+        byte[] category = record.getCategory() != null ? record.getCategory().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] message = record.getMessage() != null ? record.getMessage().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        int categoryLength = category != null ? Math.min(category.length, Short.MAX_VALUE) : 0;
+        // A message that does not fit into an empty segment is cut off
+        int messageLength = Math.min(message.length, segmentSize - RECORD_HEADER - categoryLength);
+        int length = RECORD_HEADER + categoryLength + messageLength;
+
+        try {
+            Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            // After a dropped record the sequence has a gap, which only a new segment can start from
+            if (segment == null || segment.remaining() < length || segment.firstSequence + segment.count != sequence) {
+                segment = openSegment(sequence);
+            }
+            segment.write(record, category, categoryLength, message, messageLength, length);
+        } catch (IOException | RuntimeException e) {
+            if (dropped++ == 0) {
+                log.warn("Could not write log records to {}; older records are dropped", logDirectory, e);
+            }
+        }
+    }
+
+    private Segment openSegment(long firstSequenceInSegment) throws IOException {
+        if (sessionDirectory == null) {
+            Files.createDirectories(logDirectory);
+            deleteOldSessions();
+            sessionDirectory = logDirectory.resolve("session-" + LocalDateTime.now().format(SESSION_FORMAT));
+            Files.createDirectories(sessionDirectory);
+        }
+        while (!segments.isEmpty() && (long) (segments.size() + 1) * segmentSize > maxSessionBytes) {
+            Segment oldest = segments.remove(0);
+            firstSequence = Math.max(firstSequence, oldest.firstSequence + oldest.count);
+            oldest.delete();
+        }
+        Path file = sessionDirectory.resolve(String.format("segment-%05d.log", segmentsCreated++));
+        Segment segment = new Segment(file, firstSequenceInSegment, segmentSize);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void deleteOldSessions() {
+        try (Stream<Path> sessions = Files.list(logDirectory)) {
+            List<Path> old = sessions
+                    .filter(path -> path.getFileName().toString().startsWith("session-"))
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .skip(keepSessions - 1)
+                    .toList();
+            for (Path session : old) {
+                try (Stream<Path> files = Files.list(session)) {
+                    for (Path file : files.toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                Files.deleteIfExists(session);
+            }
+        } catch (IOException e) {
+            log.debug("Could not delete old log sessions in {}", logDirectory, e);
+        }
+    }
+
+    private Segment segmentOf(long sequence) {
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            Segment segment = segments.get(middle);
+            if (sequence < segment.firstSequence) {
+                high = middle - 1;
+            } else if (sequence >= segment.firstSequence + segment.count) {
+                low = middle + 1;
+            } else {
+                return segment;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads records in batches, taking the store's lock once per batch.
+     */
+    public final class Cursor implements Iterator<LogRecord> {
+
+        private final LogRecord[] batch = new LogRecord[READ_BATCH];
+        private final long end;
+        private long position;
+        private int batchSize;
+        private int batchIndex;
+        private LogRecord next;
+
+        private Cursor(long position, long end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        /**
+         * Sequence number of the record the next call to {@link #next()} returns.
+         */
+        public long position() {
+            return position;
+        }
+
+        /**
+         * Sequence number the cursor stops before.
+         */
+        public long end() {
+            return end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (batchIndex == batchSize && !fill()) {
+                    return false;
+                }
+                next = batch[batchIndex];
+                batch[batchIndex++] = null;
+                if (next == null) {
+                    position++; // Dropped record
+                }
+            }
+            return true;
+        }
+
+        private boolean fill() {
+            synchronized (LogStore.this) {
+                position = Math.max(position, firstSequence);
+                batchSize = 0;
+                batchIndex = 0;
+                for (long sequence = position; sequence < end && batchSize < batch.length; sequence++) {
+                    batch[batchSize++] = get(sequence);
+                }
+                return batchSize > 0;
+            }
+        }
+
+        @Override
+        public LogRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LogRecord record = next;
+            next = null;
+            position++;
+            return record;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long firstSequence;
+        private final MappedByteBuffer buffer;
+        private int[] checkpoints = new int[16];
+        private int count;
+
+        Segment(Path file, long firstSequence, int size) throws IOException {
+            this.file = file;
+            this.firstSequence = firstSequence;
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+
+        int remaining() {
+            return buffer.remaining();
+        }
+
+        void write(LogRecord record, byte[] category, int categoryLength, byte[] message, int messageLength, int length) {
+            if (count % CHECKPOINT_INTERVAL == 0) {
+                int checkpoint = count / CHECKPOINT_INTERVAL;
+                if (checkpoint == checkpoints.length) {
+                    checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+                }
+                checkpoints[checkpoint] = buffer.position();
+            }
+            buffer.putInt(length);
+            buffer.putLong(record.getEpochNanos());
+            buffer.put((byte) (record.getLevel() != null ? record.getLevel().ordinal() : -1));
+            buffer.putShort((short) (category != null ? categoryLength : -1));
+            if (category != null) {
+                buffer.put(category, 0, categoryLength);
+            }
+            buffer.put(message, 0, messageLength);
+            count++;
+        }
+
+        LogRecord read(long sequence) {
+            int index = (int) (sequence - firstSequence);
+            int offset = checkpoints[index / CHECKPOINT_INTERVAL];
+            for (int skip = index % CHECKPOINT_INTERVAL; skip > 0; skip--) {
+                offset += buffer.getInt(offset);
+            }
+
+            int length = buffer.getInt(offset);
+            long epochNanos = buffer.getLong(offset + 4);
+            byte level = buffer.get(offset + 12);
+            short categoryLength = buffer.getShort(offset + 13);
+            int position = offset + RECORD_HEADER;
+            String category = null;
+            if (categoryLength >= 0) {
+                category = string(position, categoryLength);
+                position += categoryLength;
+            }
+            String message = string(position, offset + length - position);
+            return new LogRecord(epochNanos, level >= 0 ? LogLevel.values()[level] : null, category, message);
+        }
+
+        private String string(int position, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Still mapped on some platforms; removed with the session later
+                log.debug("Could not delete log segment {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.ModularizationResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.module.FindException;
+import java.lang.module.ModuleDescriptor;
+import java.lang.module.ModuleFinder;
+import java.lang.module.ModuleReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Turns the application JAR and the JARs next to it into explicit modules so they can be
+ * linked into the runtime image together with the JDK modules.
+ * <p>
+ * JARs that already carry a module descriptor are used as-is. Everything else gets an
+ * {@code open module} descriptor generated by {@code jdeps}, compiled against the other JARs
+ * and added to a copy of the JAR. Open modules are used so reflection based frameworks
+ * (FXML controllers, JSON binding, DI containers) keep working without hand-written opens.
+ */
+@Slf4j
+@Service
+public class ModularizationService {
+
+    public ModularizationResult modularize(Path mainJar, Path workDir, Consumer<String> outputConsumer) {
+        try {
+            if (isSpringBootExecutableJar(mainJar)) {
+                return ModularizationResult.failure(
+                        "Spring Boot executable JARs nest their dependencies and cannot be linked as modules");
+            }
+
+            Path modulesDir = Files.createDirectories(workDir.resolve("mods"));
+            Map<String, Path> automaticModules = new LinkedHashMap<>();
+            List<String> linkedModules = new ArrayList<>();
+            String applicationModule = null;
+
+            // Step 1: classify every JAR that jpackage would otherwise put on the class path
+            for (Path jar : collectApplicationJars(mainJar)) {
+                ModuleDescriptor descriptor = describe(jar);
+                if (descriptor == null) {
+                    return ModularizationResult.failure("Could not derive a module name for " + jar.getFileName());
+                }
+                if (linkedModules.contains(descriptor.name())) {
+                    return ModularizationResult.failure("Module " + descriptor.name()
+                            + " is provided by more than one JAR (" + jar.getFileName() + ")");
+                }
+                if (jar.equals(mainJar)) {
+                    applicationModule = descriptor.name();
+                }
+
+                if (descriptor.isAutomatic()) {
+                    automaticModules.put(descriptor.name(), jar);
+                } else {
+                    Files.copy(jar, modulesDir.resolve(jar.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    outputConsumer.accept("Using existing module descriptor: " + descriptor.name());
+                }
+                linkedModules.add(descriptor.name());
+            }
+
+            // Step 2: synthesize descriptors for automatic modules
+            if (!automaticModules.isEmpty()) {
+                Path generatedDir = workDir.resolve("generated");
+                if (!runTool(generateCommand(automaticModules.values(), modulesDir, generatedDir), "jdeps", outputConsumer)) {
+                    return ModularizationResult.failure("jdeps could not generate module descriptors");
+                }
+
+                Map<String, Path> sources = findGeneratedSources(generatedDir);
+                Path classesDir = workDir.resolve("classes");
+
+                // Compile all descriptors against the original JARs before any JAR is rewritten
+                for (Map.Entry<String, Path> entry : automaticModules.entrySet()) {
+                    String moduleName = entry.getKey();
+                    Path source = sources.get(moduleName);
+                    if (source == null) {
+                        return ModularizationResult.failure("jdeps produced no descriptor for " + moduleName);
+                    }
+
+                    List<String> modulePath = new ArrayList<>();
+                    modulePath.add(modulesDir.toString());
+                    automaticModules.forEach((other, jar) -> {
+                        if (!other.equals(moduleName)) {
+                            modulePath.add(jar.toString());
+                        }
+                    });
+
+                    List<String> compile = List.of(
+                            "javac",
+                            "--module-path", String.join(File.pathSeparator, modulePath),
+                            "--patch-module", moduleName + "=" + entry.getValue(),
+                            "-d", classesDir.resolve(moduleName).toString(),
+                            source.toString());
+                    if (!runTool(compile, "javac", outputConsumer)) {
+                        return ModularizationResult.failure("Could not compile generated descriptor for " + moduleName);
+                    }
+                }
+
+                for (Map.Entry<String, Path> entry : automaticModules.entrySet()) {
+                    Path target = modulesDir.resolve(entry.getValue().getFileName());
+                    Files.copy(entry.getValue(), target, StandardCopyOption.REPLACE_EXISTING);
+
+                    List<String> update = List.of(
+                            "jar", "--update",
+                            "--file", target.toString(),
+                            "-C", classesDir.resolve(entry.getKey()).toString(),
+                            "module-info.class");
+                    if (!runTool(update, "jar", outputConsumer)) {
+                        return ModularizationResult.failure("Could not add module descriptor to " + target.getFileName());
+                    }
+                    outputConsumer.accept("Synthesized module descriptor: " + entry.getKey());
+                }
+            }
+
+            return ModularizationResult.builder()
+                    .success(true)
+                    .modulePath(modulesDir)
+                    .applicationModule(applicationModule)
+                    .linkedModules(linkedModules)
+                    .synthesizedModules(new ArrayList<>(automaticModules.keySet()))
+                    .build();
+
+        } catch (Exception e) {
+            log.warn("Could not modularize application JARs", e);
+            return ModularizationResult.failure(e.getMessage());
+        }
+    }
+
+    private List<Path> collectApplicationJars(Path mainJar) throws IOException {
+        // jpackage ships everything in the main JAR's directory, so that is the dependency set
+        try (Stream<Path> files = Files.list(mainJar.getParent())) {
+            List<Path> jars = files
+                    .filter(path -> path.getFileName().toString().toLowerCase().endsWith(".jar"))
+                    .filter(path -> !path.equals(mainJar))
+                    .sorted()
+                    .collect(Collectors.toList());
+            jars.add(0, mainJar);
+            return jars;
+        }
+    }
+
+    private ModuleDescriptor describe(Path jar) {
+        try {
+            Set<ModuleReference> references = ModuleFinder.of(jar).findAll();
+            return references.isEmpty() ? null : references.iterator().next().descriptor();
+        } catch (FindException e) {
+            log.debug("Could not describe module for {}", jar, e);
+            return null;
+        }
+    }
+
+    private boolean isSpringBootExecutableJar(Path jar) {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            return jarFile.getEntry("BOOT-INF/") != null || jarFile.getEntry("BOOT-INF/classes/") != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private List<String> generateCommand(Iterable<Path> jars, Path modulesDir, Path generatedDir) {
+        List<String> command = new ArrayList<>();
+        command.add("jdeps");
+        command.add("--ignore-missing-deps");
+        command.add("--multi-release");
+        command.add(String.valueOf(Runtime.version().feature()));
+        command.add("--module-path");
+        command.add(modulesDir.toString());
+        command.add("--generate-open-module");
+        command.add(generatedDir.toString());
+        for (Path jar : jars) {
+            command.add(jar.toString());
+        }
+        return command;
+    }
+
+    private Map<String, Path> findGeneratedSources(Path generatedDir) throws IOException {
+        // Layout is <dir>/<module>/module-info.java, or <dir>/<module>/versions/<n>/module-info.java
+        Map<String, Path> sources = new LinkedHashMap<>();
+        try (Stream<Path> paths = Files.walk(generatedDir)) {
+            paths.filter(path -> path.getFileName().toString().equals("module-info.java"))
+                    .forEach(path -> sources.put(generatedDir.relativize(path).getName(0).toString(), path));
+        }
+        return sources;
+    }
+
+    private boolean runTool(List<String> command, String toolName, Consumer<String> outputConsumer)
+            throws IOException, InterruptedException {
+        Process process = ToolProcesses.started(new ProcessBuilder(command).redirectErrorStream(true).start());
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                outputConsumer.accept(toolName + ": " + line);
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            outputConsumer.accept(toolName + " failed with exit code: " + exitCode);
+            return false;
+        }
+        return true;
+    }
+}
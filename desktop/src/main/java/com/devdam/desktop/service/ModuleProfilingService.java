@@ -0,0 +1,180 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LaunchMeasurement;
+import com.devdam.desktop.model.ModuleProfile;
+import com.devdam.desktop.model.PackageConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the application against the full JDK with class-load logging enabled and
+ * derives the smallest module set that covers everything it actually touched.
+ */
+@Slf4j
+@Service
+public class ModuleProfilingService {
+
+    // e.g. "[0.012s][info][class,load] java.lang.Object source: jrt:/java.base"
+    private static final Pattern JRT_SOURCE = Pattern.compile("\\[class,load\\].*source: jrt:/([\\w.]+)");
+
+    private final RuntimeImageService runtimeImageService;
+    private final LaunchProbeService launchProbeService;
+    private final DirectoryCleanupService directoryCleanupService;
+
+    @Value("${packaroo.profiling.session-seconds:20}")
+    private long sessionSeconds;
+
+    @Value("${packaroo.profiling.startup-timeout-seconds:30}")
+    private long startupTimeoutSeconds;
+
+    public ModuleProfilingService(RuntimeImageService runtimeImageService, LaunchProbeService launchProbeService,
+                                  DirectoryCleanupService directoryCleanupService) {
+        this.runtimeImageService = runtimeImageService;
+        this.launchProbeService = launchProbeService;
+        this.directoryCleanupService = directoryCleanupService;
+    }
+
+    public ModuleProfile profileModules(PackageConfiguration config, Consumer<String> logConsumer) {
+        Set<String> baselineModules = config.getRequiredModules() != null
+                ? new TreeSet<>(config.getRequiredModules())
+                : new TreeSet<>();
+
+        if (config.getJarFile() == null || !Files.exists(config.getJarFile())) {
+            return ModuleProfile.failure("JAR file does not exist: " + config.getJarFile(), baselineModules);
+        }
+        if (config.getMainClass() == null || config.getMainClass().trim().isEmpty()) {
+            return ModuleProfile.failure("Main class is required", baselineModules);
+        }
+
+        Path workDir = null;
+        try {
+            // Step 1: run a traced session against the full runtime
+            logConsumer.accept("Running traced session for " + sessionSeconds + "s against the full runtime...");
+            Set<String> observedModules = new TreeSet<>();
+            AtomicInteger classesLoaded = new AtomicInteger();
+
+            List<String> traceCommand = new ArrayList<>();
+            traceCommand.add("java");
+            traceCommand.add("-Xshare:off"); // CDS hides the defining module of archived classes
+            traceCommand.add("-Xlog:class+load=info:stdout");
+            traceCommand.addAll(buildApplicationArguments(config));
+
+            LaunchMeasurement session = launchProbeService.launch(traceCommand, Duration.ofSeconds(sessionSeconds),
+                    false, line -> {
+                        Matcher matcher = JRT_SOURCE.matcher(line);
+                        if (matcher.find()) {
+                            classesLoaded.incrementAndGet();
+                            synchronized (observedModules) {
+                                observedModules.add(matcher.group(1));
+                            }
+                        }
+                    });
+
+            if (!session.isStarted()) {
+                return ModuleProfile.failure(session.getErrorMessage(), baselineModules);
+            }
+            if (session.isExited() && session.getExitCode() != null && session.getExitCode() != 0) {
+                logConsumer.accept("Application exited early with code " + session.getExitCode()
+                        + " - profile may be incomplete");
+            }
+            if (observedModules.isEmpty()) {
+                return ModuleProfile.failure("No module class loading was recorded", baselineModules);
+            }
+
+            // Step 2: propose the minimal set; jlink resolves transitive requires on its own
+            Set<String> proposedModules = new TreeSet<>(observedModules);
+            proposedModules.add("java.base");
+            proposedModules.removeIf(module -> !runtimeImageService.isModuleSafe(module));
+
+            Set<String> removedModules = new TreeSet<>(baselineModules);
+            removedModules.removeAll(proposedModules);
+
+            logConsumer.accept("Observed " + classesLoaded.get() + " JDK classes from "
+                    + observedModules.size() + " modules");
+
+            ModuleProfile.ModuleProfileBuilder builder = ModuleProfile.builder()
+                    .success(true)
+                    .baselineModules(baselineModules)
+                    .observedModules(observedModules)
+                    .proposedModules(proposedModules)
+                    .removedModules(removedModules)
+                    .sessionSeconds(sessionSeconds)
+                    .classesLoaded(classesLoaded.get())
+                    .baselineRuntimeSizeBytes(-1)
+                    .profiledRuntimeSizeBytes(-1)
+                    .baselineStartupMs(-1)
+                    .profiledStartupMs(-1);
+
+            // Step 3: link both module sets and compare size and startup time
+            if (baselineModules.isEmpty()) {
+                logConsumer.accept("No baseline modules selected - skipping before/after comparison");
+                return builder.build();
+            }
+
+            workDir = Files.createTempDirectory("packaroo-profile");
+            Set<String> linkableBaseline = runtimeImageService.filterLinkable(baselineModules);
+
+            logConsumer.accept("Linking baseline runtime (" + linkableBaseline.size() + " modules)...");
+            Path baselineRuntime = workDir.resolve("baseline");
+            runtimeImageService.link(linkableBaseline, baselineRuntime, RuntimeImageService.DEFAULT_JLINK_OPTIONS,
+                    line -> log.debug(line));
+            builder.baselineRuntimeSizeBytes(runtimeImageService.sizeOf(baselineRuntime));
+            builder.baselineStartupMs(measureStartup(baselineRuntime, config));
+
+            logConsumer.accept("Linking profiled runtime (" + proposedModules.size() + " modules)...");
+            Path profiledRuntime = workDir.resolve("profiled");
+            runtimeImageService.link(proposedModules, profiledRuntime, RuntimeImageService.DEFAULT_JLINK_OPTIONS,
+                    line -> log.debug(line));
+            builder.profiledRuntimeSizeBytes(runtimeImageService.sizeOf(profiledRuntime));
+            builder.profiledStartupMs(measureStartup(profiledRuntime, config));
+
+            return builder.build();
+
+        } catch (Exception e) {
+            log.error("Module profiling failed", e);
+            return ModuleProfile.failure("Module profiling failed: " + e.getMessage(), baselineModules);
+        } finally {
+            if (workDir != null) {
+                directoryCleanupService.discard(workDir, message -> { });
+            }
+        }
+    }
+
+    private long measureStartup(Path runtimePath, PackageConfiguration config) {
+        List<String> command = new ArrayList<>();
+        command.add(runtimeImageService.javaLauncher(runtimePath).toString());
+        command.addAll(buildApplicationArguments(config));
+
+        LaunchMeasurement measurement = launchProbeService.launch(command,
+                Duration.ofSeconds(startupTimeoutSeconds), true, null);
+        return measurement.isReady() ? measurement.getReadyTimeMs() : -1;
+    }
+
+    private List<String> buildApplicationArguments(PackageConfiguration config) {
+        List<String> arguments = new ArrayList<>();
+        if (config.getJvmArgs() != null) {
+            arguments.addAll(config.getJvmArgs());
+        }
+        arguments.add("-cp");
+        arguments.add(config.getJarFile().toString());
+        arguments.add(config.getMainClass());
+        if (config.getAppArgs() != null) {
+            arguments.addAll(config.getAppArgs());
+        }
+        return arguments;
+    }
+
+}
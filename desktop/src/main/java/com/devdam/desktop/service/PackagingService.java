@@ -1,7 +1,15 @@
 package com.devdam.desktop.service;
 
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.JvmProfile;
+import com.devdam.desktop.model.JLinkOptions;
+import com.devdam.desktop.model.ModularizationResult;
 import com.devdam.desktop.model.PackageConfiguration;
 import com.devdam.desktop.model.PackagingResult;
+import com.devdam.desktop.model.SmokeTestResult;
+import com.devdam.desktop.model.StageMetrics;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -10,75 +18,253 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.function.Consumer;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class PackagingService {
     
-    public PackagingResult packageApplication(PackageConfiguration config, Consumer<String> logConsumer) {
+    private final RuntimeImageService runtimeImageService;
+    private final ModularizationService modularizationService;
+    private final JvmTuningService jvmTuningService;
+    private final SmokeTestService smokeTestService;
+    private final DirectoryCleanupService directoryCleanupService;
+    private final ChecksumService checksumService;
+    private final BuildLogService buildLogService;
+    
+    public PackagingService(RuntimeImageService runtimeImageService, ModularizationService modularizationService,
+                            JvmTuningService jvmTuningService, SmokeTestService smokeTestService,
+                            DirectoryCleanupService directoryCleanupService, ChecksumService checksumService,
+                            BuildLogService buildLogService) {
+        this.runtimeImageService = runtimeImageService;
+        this.modularizationService = modularizationService;
+        this.jvmTuningService = jvmTuningService;
+        this.smokeTestService = smokeTestService;
+        this.directoryCleanupService = directoryCleanupService;
+        this.checksumService = checksumService;
+        this.buildLogService = buildLogService;
+    }
+    
+    /**
+     * Builds the application, streaming its output to the given sink and to the build's log file.
+     * The sink is closed when the build is over. The result refers to the log file instead of
+     * holding the output.
+     */
+    public PackagingResult packageApplication(PackageConfiguration config, BuildOutputSink sink,
+                                              StageRecorder.Listener progressListener) {
+        BuildLogService.BuildLogWriter buildLog = buildLogService.open(config.getAppName());
+        BuildOutputSink output = BuildOutputSink.fanOut(sink, buildLog);
+        Recording recording = config.isRecordBuild() ? startRecording(config) : null;
+        StageRecorder stages = StageRecorder.bind(progressListener);
+        try {
+            PackagingResult result = runStages(config, output, stages);
+            result.setStages(stages.finish());
+            
+            // Kept in the build log so it carries the breakdown too
+            output.detail("Build stages:");
+            for (StageMetrics stage : result.getStages()) {
+                output.detail("  " + stage.summary());
+            }
+            
+            if (recording != null) {
+                result.setFlightRecording(saveRecording(recording, config, output));
+            }
+            result.setBuildLog(buildLog.toBuildLog());
+            return result;
+        } finally {
+            StageRecorder.unbind();
+            if (recording != null) {
+                recording.close();
+            }
+            output.close();
+        }
+    }
+    
+    private Recording startRecording(PackageConfiguration config) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("Packaroo build: " + config.getAppName());
+            recording.start();
+            return recording;
+        } catch (IOException | ParseException | IllegalStateException e) {
+            log.warn("Could not start flight recording", e);
+            return null;
+        }
+    }
+    
+    private String saveRecording(Recording recording, PackageConfiguration config, BuildOutputSink output) {
+        recording.stop();
+        if (config.getOutputDirectory() == null || !Files.isDirectory(config.getOutputDirectory())) {
+            return null;
+        }
+        
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = config.getOutputDirectory().resolve(config.getAppName() + "-build-" + timestamp + ".jfr");
+        try {
+            recording.dump(file);
+            output.artifact("Flight recording", file);
+            return file.toString();
+        } catch (IOException e) {
+            log.warn("Could not save flight recording to {}", file, e);
+            output.detail("Could not save flight recording: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private PackagingResult runStages(PackageConfiguration config, BuildOutputSink output, StageRecorder stages) {
         long startTime = System.currentTimeMillis();
-        List<String> logs = new ArrayList<>();
         
         try {
             log.info("Starting packaging process for: {}", config.getAppName());
             
             // Validate configuration
+            stages.begin(BuildStage.VALIDATE);
             validateConfiguration(config);
             
             // Create output directory if it doesn't exist
             if (!Files.exists(config.getOutputDirectory())) {
                 Files.createDirectories(config.getOutputDirectory());
-                logs.add("Created output directory: " + config.getOutputDirectory());
+                output.detail("Created output directory: " + config.getOutputDirectory());
             }
             
             // Step 1: Create custom runtime with jlink (if enabled)
             Path runtimePath = null;
+            String mainModule = null;
             if (config.isEnableJLink()) {
-                runtimePath = createCustomRuntime(config, logs, logConsumer);
+                if (config.isLinkApplicationModules()) {
+                    mainModule = createModularRuntime(config, output, stages);
+                }
+                runtimePath = mainModule != null
+                        ? config.getOutputDirectory().resolve("runtime")
+                        : createCustomRuntime(config, output, stages);
             }
             
             // Step 2: Package application with jpackage
-            boolean success = packageWithJPackage(config, runtimePath, logs, logConsumer);
+            CancellationToken.checkCurrent();
+            stages.begin(BuildStage.JPACKAGE);
+            List<Path> packaged = packageWithJPackage(config, runtimePath, mainModule, output);
+            boolean success = packaged != null;
+            CancellationToken.checkCurrent();
+            
+            // Step 3: Launch the app image and compare with the previous build (if enabled)
+            SmokeTestResult smokeTest = null;
+            if (success && config.isSmokeTest()) {
+                stages.begin(BuildStage.POST_PROCESS);
+                smokeTest = runSmokeTest(config, output);
+                CancellationToken.checkCurrent();
+            }
+            
+            boolean smokeTestFailed = smokeTest != null && (!smokeTest.isPassed() || smokeTest.hasRegressions());
+            
+            // Step 4: Hash the output for release tooling (if enabled)
+            String manifestPath = null;
+            if (success && !smokeTestFailed && config.isWriteManifest()) {
+                stages.begin(BuildStage.POST_PROCESS);
+                manifestPath = writeManifest(config, packaged, output);
+                CancellationToken.checkCurrent();
+            }
             
             long executionTime = System.currentTimeMillis() - startTime;
             
+            if (smokeTestFailed) {
+                String reason = !smokeTest.isPassed()
+                        ? smokeTest.getErrorMessage()
+                        : String.join("; ", smokeTest.getRegressions());
+                PackagingResult result = PackagingResult.failure(
+                    "Smoke test failed: " + reason,
+                    executionTime,
+                    config
+                );
+                result.setOutputPath(config.getOutputDirectory().toString());
+                result.setSmokeTest(smokeTest);
+                return result;
+            }
+            
             if (success) {
                 String outputPath = config.getOutputDirectory().toString();
-                return PackagingResult.success(
+                PackagingResult result = PackagingResult.success(
                     "Application packaged successfully!",
                     outputPath,
-                    logs,
                     executionTime,
                     config
                 );
+                result.setSmokeTest(smokeTest);
+                result.setManifestPath(manifestPath);
+                return result;
             } else {
                 return PackagingResult.failure(
                     "Packaging failed. Check logs for details.",
-                    logs,
                     executionTime,
                     config
                 );
             }
             
         } catch (Exception e) {
+            CancellationToken token = CancellationToken.current();
+            if (e instanceof CancellationException || (token != null && token.isCancelled())) {
+                log.info("Packaging cancelled for: {}", config.getAppName());
+                output.line("Build cancelled");
+                return PackagingResult.failure(
+                    "Build cancelled",
+                    System.currentTimeMillis() - startTime,
+                    config
+                );
+            }
+            
             log.error("Error during packaging", e);
-            logs.add("ERROR: " + e.getMessage());
+            output.detail("ERROR: " + e.getMessage());
             long executionTime = System.currentTimeMillis() - startTime;
             
             return PackagingResult.failure(
                 "Packaging failed: " + e.getMessage(),
-                logs,
                 executionTime,
                 config
             );
         }
     }
     
+    private SmokeTestResult runSmokeTest(PackageConfiguration config, BuildOutputSink output) {
+        if (config.getOutputFormat() != null && config.getOutputFormat() != PackageConfiguration.OutputFormat.APP_IMAGE) {
+            // Installers would have to be installed first
+            output.line("Smoke test skipped: only app images can be launched directly");
+            return null;
+        }
+        
+        SmokeTestResult result = smokeTestService.run(config, output::line);
+        String summary = "Smoke test " + (result.isPassed() ? "passed" : "failed")
+                + ": startup " + (result.getStartupMs() >= 0 ? result.getStartupMs() + " ms" : "n/a (no output)")
+                + ", peak RSS " + result.getPeakRssBytes() / 1024 + " KB"
+                + ", size " + result.getOutputSizeBytes() / 1024 + " KB"
+                + (result.getBaselineStartupMs() >= 0 || result.getBaselineOutputSizeBytes() >= 0
+                        ? " (previous build: " + result.getBaselineStartupMs() + " ms, "
+                                + result.getBaselineOutputSizeBytes() / 1024 + " KB)"
+                        : "");
+        output.line(summary);
+        return result;
+    }
+    
+    private String writeManifest(PackageConfiguration config, List<Path> packaged, BuildOutputSink output) {
+        try {
+            checksumService.writeManifest(config, packaged, output::line);
+            Path manifest = checksumService.manifestPath(config);
+            output.artifact("Checksum manifest", manifest);
+            return manifest.toString();
+        } catch (IOException e) {
+            // The packages themselves are fine; only the release metadata is missing
+            log.warn("Could not write checksum manifest for {}", config.getAppName(), e);
+            output.line("Could not write checksum manifest: " + e.getMessage());
+            return null;
+        }
+    }
+    
     private void validateConfiguration(PackageConfiguration config) {
         if (config.getJarFile() == null || !Files.exists(config.getJarFile())) {
             throw new IllegalArgumentException("JAR file does not exist: " + config.getJarFile());
@@ -97,14 +283,15 @@ public class PackagingService {
         }
     }
     
-    private Path createCustomRuntime(PackageConfiguration config, List<String> logs, Consumer<String> logConsumer) 
+    private Path createCustomRuntime(PackageConfiguration config, BuildOutputSink output, StageRecorder stages)
             throws IOException, InterruptedException {
         
-        logs.add("Creating custom runtime with jlink...");
-        logConsumer.accept("Creating custom runtime with jlink...");
+        CancellationToken.checkCurrent();
+        stages.begin(BuildStage.ANALYSIS);
+        output.line("Creating custom runtime with jlink...");
         
         // Validate and filter modules before using jlink
-        Set<String> validatedModules = validateAndFilterModules(config.getRequiredModules(), logs, logConsumer);
+        Set<String> validatedModules = validateAndFilterModules(config.getRequiredModules(), output);
         
         if (validatedModules.isEmpty()) {
             throw new RuntimeException("No valid modules found for jlink");
@@ -112,66 +299,115 @@ public class PackagingService {
         
         Path runtimePath = config.getOutputDirectory().resolve("runtime");
         
-        // Delete existing runtime directory
-        if (Files.exists(runtimePath)) {
-            deleteDirectory(runtimePath);
+        // Move the previous runtime out of the way; it is deleted while jlink runs
+        directoryCleanupService.discard(runtimePath, output::line);
+        
+        stages.begin(BuildStage.JLINK);
+        CancellationToken.created(runtimePath);
+        List<String> options = resolveJLinkOptions(config);
+        output.detail("jlink options: " + String.join(" ", options));
+        boolean cacheHit = runtimeImageService.linkCached(validatedModules, runtimePath, options, output::line);
+        stages.recordCacheHit(cacheHit);
+        
+        output.artifact("Runtime image", runtimePath);
+        output.line("Custom runtime created successfully" + (cacheHit ? " (reused cached image)" : ""));
+        
+        return runtimePath;
+    }
+    
+    /**
+     * Whether the runtime for this configuration would come from the runtime cache, or null when
+     * the build does not use the cache.
+     */
+    public Boolean predictRuntimeCacheHit(PackageConfiguration config) {
+        if (!config.isEnableJLink() || config.isLinkApplicationModules() || config.getRequiredModules() == null) {
+            return null;
+        }
+        Set<String> modules = validateAndFilterModules(config.getRequiredModules(), line -> { });
+        return runtimeImageService.isCached(modules, resolveJLinkOptions(config));
+    }
+    
+    private List<String> resolveJLinkOptions(PackageConfiguration config) {
+        JLinkOptions options = config.getJlinkOptions() != null ? config.getJlinkOptions() : JLinkOptions.defaults();
+        if (options.isGenerateCdsArchive() && !runtimeImageService.supportsPlugin("--generate-cds-archive")) {
+            // Presets tuned on a newer JDK may ask for a plugin this jlink does not have
+            options = options.toBuilder().generateCdsArchive(false).build();
         }
+        return new ArrayList<>(options.toArguments());
+    }
+    
+    private String createModularRuntime(PackageConfiguration config, BuildOutputSink output, StageRecorder stages)
+            throws IOException {
         
-        List<String> command = new ArrayList<>();
-        command.add("jlink");
-        command.add("--add-modules");
-        command.add(String.join(",", validatedModules));
-        command.add("--output");
-        command.add(runtimePath.toString());
-        command.add("--compress=2");
-        command.add("--no-header-files");
-        command.add("--no-man-pages");
+        stages.begin(BuildStage.ANALYSIS);
+        output.line("Linking application modules into the runtime...");
         
-        ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
+        Set<String> validatedModules = validateAndFilterModules(config.getRequiredModules(), output);
+        Path runtimePath = config.getOutputDirectory().resolve("runtime");
+        Path workDir = Files.createTempDirectory("packaroo-modules");
         
-        // Read output
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-             BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-            
-            String line;
-            while ((line = reader.readLine()) != null) {
-                logs.add("jlink: " + line);
-                logConsumer.accept("jlink: " + line);
+        try {
+            ModularizationResult modules = modularizationService.modularize(config.getJarFile(), workDir, output::line);
+            if (!modules.isSuccess()) {
+                String message = "Application modules could not be linked (" + modules.getErrorMessage()
+                        + "), falling back to class path launch";
+                output.line(message);
+                return null;
             }
             
-            while ((line = errorReader.readLine()) != null) {
-                logs.add("jlink ERROR: " + line);
-                logConsumer.accept("jlink ERROR: " + line);
+            Set<String> rootModules = new HashSet<>(validatedModules);
+            rootModules.addAll(modules.getLinkedModules());
+            
+            List<String> options = resolveJLinkOptions(config);
+            if (!options.contains("--generate-cds-archive") && runtimeImageService.supportsPlugin("--generate-cds-archive")) {
+                // Archives the resolved module graph so startup skips resolution entirely
+                options.add("--generate-cds-archive");
             }
+            
+            stages.begin(BuildStage.JLINK);
+            directoryCleanupService.discard(runtimePath, output::line);
+            CancellationToken.created(runtimePath);
+            runtimeImageService.link(rootModules, modules.getModulePath(), runtimePath, options, output::line);
+            
+            output.detail(modules.getSynthesizedModules().size() + " synthesized module descriptors");
+            output.artifact("Runtime image", runtimePath);
+            output.line("Modular runtime created successfully, launching from module: "
+                    + modules.getApplicationModule());
+            return modules.getApplicationModule();
+            
+        } catch (Exception e) {
+            log.warn("Modular jlink failed", e);
+            String message = "Modular jlink failed (" + e.getMessage() + "), falling back to class path launch";
+            output.line(message);
+            return null;
+        } finally {
+            directoryCleanupService.discard(workDir, output::line);
         }
-        
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            throw new RuntimeException("jlink failed with exit code: " + exitCode);
-        }
-        
-        logs.add("Custom runtime created successfully at: " + runtimePath);
-        logConsumer.accept("Custom runtime created successfully");
-        
-        return runtimePath;
     }
     
-    private boolean packageWithJPackage(PackageConfiguration config, Path runtimePath, 
-                                      List<String> logs, Consumer<String> logConsumer) 
-            throws IOException, InterruptedException {
+    /**
+     * Runs jpackage and returns what it produced: the app image directory, or the installer
+     * files it wrote. Returns null when jpackage failed.
+     */
+    private List<Path> packageWithJPackage(PackageConfiguration config, Path runtimePath, String mainModule,
+                                           BuildOutputSink output) throws IOException, InterruptedException {
         
-        logs.add("Packaging application with jpackage...");
-        logConsumer.accept("Packaging application with jpackage...");
+        output.line("Packaging application with jpackage...");
         
         List<String> command = new ArrayList<>();
         command.add("jpackage");
-        command.add("--input");
-        command.add(config.getJarFile().getParent().toString());
-        command.add("--main-jar");
-        command.add(config.getJarFile().getFileName().toString());
-        command.add("--main-class");
-        command.add(config.getMainClass());
+        if (mainModule != null) {
+            // Application modules are already linked into the runtime image
+            command.add("--module");
+            command.add(mainModule + "/" + config.getMainClass());
+        } else {
+            command.add("--input");
+            command.add(config.getJarFile().getParent().toString());
+            command.add("--main-jar");
+            command.add(config.getJarFile().getFileName().toString());
+            command.add("--main-class");
+            command.add(config.getMainClass());
+        }
         command.add("--name");
         command.add(config.getAppName());
         command.add("--dest");
@@ -207,10 +443,21 @@ public class PackagingService {
             command.add(config.getCopyright());
         }
         
-        // Add output format
-        if (config.getOutputFormat() != null && config.getOutputFormat() != PackageConfiguration.OutputFormat.APP_IMAGE) {
-            command.add("--type");
-            command.add(config.getOutputFormat().getJPackageType());
+        // Add output format (jpackage builds the platform's default installer when --type is omitted)
+        PackageConfiguration.OutputFormat outputFormat = config.getOutputFormat() != null
+                ? config.getOutputFormat()
+                : PackageConfiguration.OutputFormat.APP_IMAGE;
+        command.add("--type");
+        command.add(outputFormat.getJPackageType());
+        Path imageDir = null;
+        if (outputFormat == PackageConfiguration.OutputFormat.APP_IMAGE) {
+            // jpackage refuses to overwrite an existing app image
+            String imageName = System.getProperty("os.name", "").toLowerCase().contains("mac")
+                    ? config.getAppName() + ".app"
+                    : config.getAppName();
+            imageDir = config.getOutputDirectory().resolve(imageName);
+            directoryCleanupService.discard(imageDir, output::line);
+            CancellationToken.created(imageDir);
         }
         
         // Add custom runtime if created
@@ -219,10 +466,15 @@ public class PackagingService {
             command.add(runtimePath.toString());
         }
         
-        // Add JVM arguments if specified
-        if (config.getJvmArgs() != null && !config.getJvmArgs().isEmpty()) {
+        // Add JVM arguments (tuning profile flags followed by custom arguments)
+        List<String> javaOptions = jvmTuningService.resolveJavaOptions(config, runtimePath);
+        if (!javaOptions.isEmpty()) {
+            if (config.getJvmProfile() != null && config.getJvmProfile() != JvmProfile.NONE) {
+                output.line("Applying JVM profile: " + config.getJvmProfile().getDisplayName());
+                output.detail("JVM options: " + String.join(" ", javaOptions));
+            }
             command.add("--java-options");
-            command.add(String.join(" ", config.getJvmArgs()));
+            command.add(String.join(" ", javaOptions));
         }
         
         // Add application arguments if specified
@@ -231,8 +483,10 @@ public class PackagingService {
             command.add(String.join(" ", config.getAppArgs()));
         }
         
+        // File times can be this coarse; installers written before it are from earlier builds
+        long packagingStarted = System.currentTimeMillis() - 2000;
         ProcessBuilder pb = new ProcessBuilder(command);
-        Process process = pb.start();
+        Process process = ToolProcesses.started(pb.start());
         
         // Read output
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
@@ -240,77 +494,67 @@ public class PackagingService {
             
             String line;
             while ((line = reader.readLine()) != null) {
-                logs.add("jpackage: " + line);
-                logConsumer.accept("jpackage: " + line);
+                output.line("jpackage: " + line);
             }
             
             while ((line = errorReader.readLine()) != null) {
-                logs.add("jpackage ERROR: " + line);
-                logConsumer.accept("jpackage ERROR: " + line);
+                output.line("jpackage ERROR: " + line);
             }
         }
         
         int exitCode = process.waitFor();
         if (exitCode == 0) {
-            logs.add("Application packaged successfully!");
-            logConsumer.accept("Application packaged successfully!");
-            return true;
+            output.line("Application packaged successfully!");
+            List<Path> packaged = imageDir != null
+                    ? List.of(imageDir)
+                    : installersWrittenSince(config.getOutputDirectory(), outputFormat, packagingStarted);
+            for (Path path : packaged) {
+                output.artifact("Packaged output (" + outputFormat.getDisplayName() + ")", path);
+            }
+            return packaged;
         } else {
-            logs.add("jpackage failed with exit code: " + exitCode);
-            logConsumer.accept("jpackage failed with exit code: " + exitCode);
-            return false;
+            output.line("jpackage failed with exit code: " + exitCode);
+            return null;
         }
     }
     
-    private void deleteDirectory(Path directory) throws IOException {
-        if (Files.exists(directory)) {
-            Files.walk(directory)
-                    .sorted((a, b) -> b.compareTo(a)) // Reverse order to delete files before directories
-                    .forEach(path -> {
+    private List<Path> installersWrittenSince(Path outputDirectory, PackageConfiguration.OutputFormat format,
+                                              long since) throws IOException {
+        String extension = "." + format.getJPackageType();
+        try (Stream<Path> files = Files.list(outputDirectory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().toLowerCase().endsWith(extension))
+                    .filter(file -> {
                         try {
-                            Files.delete(path);
+                            return Files.isRegularFile(file) && Files.getLastModifiedTime(file).toMillis() >= since;
                         } catch (IOException e) {
-                            log.warn("Could not delete: " + path, e);
+                            return false;
                         }
-                    });
+                    })
+                    .sorted()
+                    .toList();
         }
     }
     
+    
     public boolean isJPackageAvailable() {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("jpackage", "--version");
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            return exitCode == 0;
-        } catch (Exception e) {
-            log.warn("jpackage not available", e);
-            return false;
-        }
+        return Toolchain.jpackageVersion() != null;
     }
     
     public boolean isJLinkAvailable() {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("jlink", "--version");
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            return exitCode == 0;
-        } catch (Exception e) {
-            log.warn("jlink not available", e);
-            return false;
-        }
+        return Toolchain.jlinkVersion() != null;
     }
     
-    private Set<String> validateAndFilterModules(Set<String> requiredModules, List<String> logs, Consumer<String> logConsumer) {
+    private Set<String> validateAndFilterModules(Set<String> requiredModules, BuildOutputSink output) {
         Set<String> validatedModules = new HashSet<>();
-        Set<String> availableModules = getAvailableModules();
+        Set<String> availableModules = runtimeImageService.getAvailableModules();
         
         for (String module : requiredModules) {
-            if (isModuleSafe(module) && availableModules.contains(module)) {
+            if (runtimeImageService.isModuleSafe(module) && availableModules.contains(module)) {
                 validatedModules.add(module);
-                logs.add("Including module: " + module);
+                output.detail("Including module: " + module);
             } else {
-                logs.add("Skipping unavailable or unsafe module: " + module);
-                logConsumer.accept("Skipping unavailable or unsafe module: " + module);
+                output.line("Skipping unavailable or unsafe module: " + module);
             }
         }
         
@@ -319,36 +563,4 @@ public class PackagingService {
         
         return validatedModules;
     }
-    
-    private Set<String> getAvailableModules() {
-        Set<String> modules = new HashSet<>();
-        try {
-            ProcessBuilder pb = new ProcessBuilder("java", "--list-modules");
-            Process process = pb.start();
-            
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    line = line.trim();
-                    if (!line.isEmpty() && line.contains("@")) {
-                        String moduleName = line.split("@")[0];
-                        modules.add(moduleName);
-                    }
-                }
-            }
-            process.waitFor();
-        } catch (Exception e) {
-            log.warn("Could not get available modules", e);
-        }
-        return modules;
-    }
-    
-    private boolean isModuleSafe(String moduleName) {
-        // Filter out known problematic modules
-        return !moduleName.equals("jdk.management.jfr") &&
-               !moduleName.equals("jdk.jfr") &&
-               !moduleName.equals("jdk.management.agent") &&
-               !moduleName.startsWith("jdk.internal.") &&
-               !moduleName.contains("incubator");
-    }
 }
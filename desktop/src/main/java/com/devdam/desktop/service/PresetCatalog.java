@@ -0,0 +1,239 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PresetSummary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Summaries of the presets in the preset directory, kept in memory.
+ * <p>
+ * The directory is read once; after that a {@link WatchService} reports files added, changed or
+ * removed by anything else, and saves and deletes through {@link ConfigurationService} update the
+ * catalog directly. Listing and lookups never touch the disk. Listeners are called from the
+ * watcher thread whenever the catalog changes.
+ */
+@Slf4j
+class PresetCatalog implements AutoCloseable {
+
+    static final String PRESET_SUFFIX = ".json";
+    static final Comparator<String> NAME_ORDER =
+            String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder());
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, PresetSummary> presets = new ConcurrentSkipListMap<>(NAME_ORDER);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean loaded;
+    private WatchService watchService;
+    private Thread watcher;
+
+    PresetCatalog(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Loads the catalog and starts watching the directory. Without it, the catalog is loaded on
+     * first use and only sees changes made through it.
+     */
+    synchronized void start() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            // Registered before loading, so nothing written in between is missed
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            log.warn("Could not watch preset directory {}", directory, e);
+            watchService = null;
+        }
+        reload();
+        if (watchService != null) {
+            watcher = new Thread(this::watch, "preset-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    List<PresetSummary> list() {
+        ensureLoaded();
+        return new ArrayList<>(presets.values());
+    }
+
+    List<PresetSummary> list(Comparator<PresetSummary> order) {
+        List<PresetSummary> sorted = list();
+        sorted.sort(order);
+        return sorted;
+    }
+
+    Optional<PresetSummary> find(String name) {
+        ensureLoaded();
+        return Optional.ofNullable(presets.get(name));
+    }
+
+    void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records a preset that was just written.
+     */
+    void saved(String name, PackageConfiguration config, Path file) {
+        ensureLoaded();
+        presets.put(name, PresetSummary.builder()
+                .name(name)
+                .appName(config.getAppName())
+                .outputFormat(config.getOutputFormat())
+                .mainClass(config.getMainClass())
+                .vendor(config.getVendor())
+                .lastModified(lastModified(file))
+                .build());
+    }
+
+    void deleted(String name) {
+        ensureLoaded();
+        presets.remove(name);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    private synchronized void reload() {
+        Map<String, PresetSummary> found = new ConcurrentSkipListMap<>(NAME_ORDER);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(PresetCatalog::isPreset).forEach(file -> {
+                PresetSummary summary = read(file);
+                found.put(summary.getName(), summary);
+            });
+        } catch (NoSuchFileException e) {
+            // No presets yet
+        } catch (IOException e) {
+            log.warn("Could not list presets in {}", directory, e);
+        }
+        presets.keySet().retainAll(found.keySet());
+        presets.putAll(found);
+        loaded = true;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        reload();
+                        changed = true;
+                        continue;
+                    }
+                    Path file = directory.resolve((Path) event.context());
+                    if (!isPreset(file)) {
+                        continue;
+                    }
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE || !Files.exists(file)) {
+                        changed |= presets.remove(presetName(file)) != null;
+                    } else {
+                        presets.put(presetName(file), read(file));
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    listeners.forEach(Runnable::run);
+                }
+                if (!key.reset()) {
+                    log.warn("Preset directory {} is no longer watched", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private PresetSummary read(Path file) {
+        try {
+            return summarize(presetName(file), objectMapper.readTree(file.toFile()), lastModified(file));
+        } catch (IOException e) {
+            // Listed anyway; a preset being written is read again when the write finishes
+            log.debug("Could not read preset {}", file, e);
+            return summarize(presetName(file), null, lastModified(file));
+        }
+    }
+
+    static PresetSummary summarize(String name, JsonNode tree, long lastModified) {
+        PresetSummary.PresetSummaryBuilder summary = PresetSummary.builder()
+                .name(name)
+                .lastModified(lastModified);
+        if (tree != null) {
+            summary.appName(tree.path("appName").asText(null));
+            summary.mainClass(tree.path("mainClass").asText(null));
+            summary.vendor(tree.path("vendor").asText(null));
+            String format = tree.path("outputFormat").asText(null);
+            if (format != null) {
+                try {
+                    summary.outputFormat(PackageConfiguration.OutputFormat.valueOf(format));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Unknown output format {} in preset {}", format, name);
+                }
+            }
+        }
+        return summary.build();
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    static boolean isPreset(Path file) {
+        return file.getFileName().toString().endsWith(PRESET_SUFFIX);
+    }
+
+    static String presetName(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.substring(0, fileName.length() - PRESET_SUFFIX.length());
+    }
+
+    @Override
+    public synchronized void close() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.debug("Could not close preset watcher", e);
+            }
+        }
+    }
+}
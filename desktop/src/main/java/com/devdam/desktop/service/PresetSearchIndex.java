@@ -0,0 +1,259 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PresetSummary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index over preset names, app names, main classes and vendors, for type-ahead search.
+ * <p>
+ * Fields are split into lower-case words, camel case parts included, and each word is padded
+ * with two spaces in front and one behind before being cut into trigrams, so one or two letters
+ * already match the start of words. Queries are cut the same way, except that the last word may
+ * still be being typed and gets no trailing space. Presets sharing enough of the query's
+ * trigrams are ranked by the share they match, with a bonus when the preset name itself starts
+ * with or contains the query, and then by how recently they were saved or loaded.
+ */
+class PresetSearchIndex {
+
+    private static final double MIN_MATCH = 0.6;            // Share of query trigrams a result needs
+    private static final int EXACT_TRIGRAMS = 3;            // Queries this short must match every trigram
+    private static final double NAME_PREFIX_BONUS = 1.0;
+    private static final double NAME_SUBSTRING_BONUS = 0.5;
+    private static final double MAX_RECENCY_BONUS = 0.3;
+    private static final long RECENCY_HALF_LIFE_MS = TimeUnit.DAYS.toMillis(7);
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern CAMEL_CASE = Pattern.compile("(?<=\\p{Ll})(?=\\p{Lu})");
+    private static final Comparator<Match> RANKING = Comparator.comparingDouble(Match::score).reversed()
+            .thenComparing(match -> match.summary().getName(), PresetCatalog.NAME_ORDER);
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();   // By id, null once removed
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<String, Long> lastUsed = new HashMap<>();
+    private int removed;
+
+    /**
+     * Brings the index in line with the given presets, reindexing only those that changed.
+     */
+    synchronized void update(Collection<PresetSummary> presets) {
+        Set<String> present = new HashSet<>();
+        for (PresetSummary preset : presets) {
+            present.add(preset.getName());
+            Integer id = ids.get(preset.getName());
+            if (id != null && documents.get(id).summary().equals(preset)) {
+                continue;
+            }
+            if (id != null) {
+                remove(id);
+            }
+            add(preset);
+        }
+        for (String name : new ArrayList<>(ids.keySet())) {
+            if (!present.contains(name)) {
+                remove(ids.get(name));
+            }
+        }
+        lastUsed.keySet().retainAll(present);
+        if (removed > 1024 && removed > ids.size()) {
+            rebuild();
+        }
+    }
+
+    synchronized void used(String name, long timestamp) {
+        lastUsed.merge(name, timestamp, Math::max);
+    }
+
+    /**
+     * Presets matching a query, best first.
+     */
+    synchronized List<PresetSummary> search(String query, int limit) {
+        long[] trigrams = trigrams(query, false);
+        if (trigrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int needed = trigrams.length <= EXACT_TRIGRAMS
+                ? trigrams.length
+                : (int) Math.ceil(trigrams.length * MIN_MATCH);
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.getOrDefault(trigrams[i], Postings.EMPTY);
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        // A result has to be in at least one of the shortest lists, so only those are scanned
+        // for candidates; the longer ones are only checked for candidates already found
+        int[] hits = new int[documents.size()];
+        Postings candidates = new Postings();
+        int candidateLists = lists.length - needed + 1;
+        for (int i = 0; i < candidateLists; i++) {
+            for (int j = 0; j < lists[i].size; j++) {
+                if (hits[lists[i].ids[j]]++ == 0) {
+                    candidates.add(lists[i].ids[j]);
+                }
+            }
+        }
+        for (int i = candidateLists; i < lists.length; i++) {
+            Postings list = lists[i];
+            if ((long) candidates.size * (32 - Integer.numberOfLeadingZeros(list.size)) < list.size) {
+                for (int j = 0; j < candidates.size; j++) {
+                    if (list.contains(candidates.ids[j])) {
+                        hits[candidates.ids[j]]++;
+                    }
+                }
+            } else {
+                for (int j = 0; j < list.size; j++) {
+                    if (hits[list.ids[j]] > 0) {
+                        hits[list.ids[j]]++;
+                    }
+                }
+            }
+        }
+
+        String text = query.trim().toLowerCase(Locale.ROOT);
+        long now = System.currentTimeMillis();
+        // Only the best results are kept, worst on top so it is the one pushed out
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (int c = 0; c < candidates.size; c++) {
+            int id = candidates.ids[c];
+            if (hits[id] < needed) {
+                continue;
+            }
+            double score = (double) hits[id] / trigrams.length;
+            // Most candidates cannot make it into a full result list even with every bonus
+            if (best.size() == limit && score + NAME_PREFIX_BONUS + MAX_RECENCY_BONUS < best.peek().score()) {
+                continue;
+            }
+            Document document = documents.get(id);
+            if (document.name().startsWith(text)) {
+                score += NAME_PREFIX_BONUS;
+            } else if (document.name().contains(text)) {
+                score += NAME_SUBSTRING_BONUS;
+            }
+            long lastUse = Math.max(document.summary().getLastModified(),
+                    lastUsed.getOrDefault(document.summary().getName(), 0L));
+            score += MAX_RECENCY_BONUS * Math.pow(0.5, Math.max(0, now - lastUse) / (double) RECENCY_HALF_LIFE_MS);
+            best.add(new Match(document.summary(), score));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(RANKING);
+        return matches.stream().map(Match::summary).toList();
+    }
+
+    private void add(PresetSummary preset) {
+        int id = documents.size();
+        long[] trigrams = trigrams(String.join(" ", nonNull(preset.getName()), nonNull(preset.getAppName()),
+                nonNull(preset.getMainClass()), nonNull(preset.getVendor())), true);
+        documents.add(new Document(preset, preset.getName().toLowerCase(Locale.ROOT), trigrams));
+        ids.put(preset.getName(), id);
+        // Ids only grow, so appending keeps every posting list sorted
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+        }
+    }
+
+    private void remove(int id) {
+        Document document = documents.set(id, null);
+        ids.remove(document.summary().getName());
+        for (long trigram : document.trigrams()) {
+            Postings matches = postings.get(trigram);
+            if (matches != null && matches.remove(id) && matches.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+        removed++;
+    }
+
+    private void rebuild() {
+        List<PresetSummary> live = documents.stream().filter(document -> document != null)
+                .map(Document::summary).toList();
+        ids.clear();
+        documents.clear();
+        postings.clear();
+        removed = 0;
+        live.forEach(this::add);
+    }
+
+    static long[] trigrams(String text, boolean complete) {
+        List<String> words = new ArrayList<>();
+        for (String token : WORD_SEPARATOR.split(text.trim())) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            words.add(token.toLowerCase(Locale.ROOT));
+            // Only indexed text is split, a query word being typed may not have its last part yet
+            String[] parts = complete ? CAMEL_CASE.split(token) : new String[0];
+            if (parts.length > 1) {
+                for (String part : parts) {
+                    words.add(part.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        Set<Long> trigrams = new HashSet<>();
+        for (int i = 0; i < words.size(); i++) {
+            String padded = "  " + words.get(i) + (complete || i < words.size() - 1 ? " " : "");
+            for (int start = 0; start + 3 <= padded.length(); start++) {
+                trigrams.add(((long) padded.charAt(start) << 32)
+                        | ((long) padded.charAt(start + 1) << 16)
+                        | padded.charAt(start + 2));
+            }
+        }
+        return trigrams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
+    }
+
+    private record Document(PresetSummary summary, String name, long[] trigrams) {
+    }
+
+    private record Match(PresetSummary summary, double score) {
+    }
+
+    /**
+     * Ascending ids of the presets containing a trigram, or search candidates in the order found.
+     */
+    private static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        boolean remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PresetSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Presets kept in one append-only file instead of a file each.
+ * <p>
+ * Every save or delete appends a checksummed record and forces it to disk before returning, so a
+ * change is either complete or not there at all: a record cut off by a crash fails its checksum
+ * and is truncated away the next time the store is opened. An in-memory index maps each name to
+ * its latest record, so loading a preset is a single read. Replaced and deleted records are
+ * dropped by compaction, which copies the live records into a new file and moves it over the old
+ * one once the garbage outweighs them.
+ */
+@Slf4j
+class PresetStore implements AutoCloseable {
+
+    static final String STORE_FILE = "presets.db";
+
+    private static final int MAGIC = 0x504B5053; // "PKPS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final long MIN_COMPACTION_GARBAGE = 64 * 1024;
+
+    // Record layout: the length and CRC32 of the body, then the body
+    private static final int RECORD_HEADER = 8;
+    private static final int TIMESTAMP = 0;       // long, epoch millis
+    private static final int OPERATION = 8;       // byte
+    private static final int NAME_LENGTH = 9;     // unsigned short
+    private static final int NAME = 11;           // UTF-8 name, followed by the preset as JSON for a put
+    private static final int MAX_BODY = 16 * 1024 * 1024;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final Map<String, PresetSummary> summaries = new TreeMap<>(PresetCatalog.NAME_ORDER);
+    private FileChannel channel;
+    private long size;
+    private long liveBytes;
+
+    PresetStore(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Opens the store, creating it when missing.
+     *
+     * @return whether the store was created
+     */
+    synchronized boolean open() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean created = !Files.exists(file);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                writeFully(channel, header(), 0);
+                channel.truncate(HEADER_SIZE);
+                channel.force(true);
+                size = HEADER_SIZE;
+                return true;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a preset store: " + file);
+            }
+            load();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+        return created;
+    }
+
+    synchronized List<PresetSummary> list() {
+        return new ArrayList<>(summaries.values());
+    }
+
+    synchronized Optional<PresetSummary> find(String name) {
+        return Optional.ofNullable(summaries.get(name));
+    }
+
+    synchronized boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    synchronized Optional<PackageConfiguration> get(String name) throws IOException {
+        Entry entry = index.get(name);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        int jsonOffset = RECORD_HEADER + NAME + entry.nameLength();
+        ByteBuffer json = ByteBuffer.allocate(entry.size() - jsonOffset);
+        readFully(ensureOpen(), json, entry.offset() + jsonOffset);
+        return Optional.of(objectMapper.readValue(json.array(), PackageConfiguration.class));
+    }
+
+    void put(String name, PackageConfiguration config) throws IOException {
+        putAll(Map.of(name, config));
+    }
+
+    /**
+     * Stores several presets with a single flush to disk, as when importing preset files.
+     */
+    synchronized void putAll(Map<String, PackageConfiguration> presets) throws IOException {
+        ensureOpen();
+        long start = size;
+        List<Runnable> applied = new ArrayList<>(presets.size());
+        try {
+            for (Map.Entry<String, PackageConfiguration> preset : presets.entrySet()) {
+                byte[] json = objectMapper.writeValueAsBytes(preset.getValue());
+                long timestamp = System.currentTimeMillis();
+                Entry entry = append(PUT, preset.getKey(), json, timestamp);
+                PresetSummary summary = PresetCatalog.summarize(preset.getKey(), objectMapper.readTree(json), timestamp);
+                applied.add(() -> {
+                    index(preset.getKey(), entry);
+                    summaries.put(preset.getKey(), summary);
+                });
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            rollBack(start);
+            throw e;
+        }
+        // Only committed records reach the index
+        applied.forEach(Runnable::run);
+        compactIfWorthwhile();
+    }
+
+    synchronized void delete(String name) throws IOException {
+        ensureOpen();
+        if (!index.containsKey(name)) {
+            return;
+        }
+        long start = size;
+        try {
+            append(DELETE, name, new byte[0], System.currentTimeMillis());
+            channel.force(false);
+        } catch (IOException e) {
+            rollBack(start);
+            throw e;
+        }
+        index(name, null);
+        summaries.remove(name);
+        compactIfWorthwhile();
+    }
+
+    /**
+     * Rewrites the store with only the latest record of each preset.
+     */
+    synchronized void compact() throws IOException {
+        ensureOpen();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        Map<String, Entry> compacted = new HashMap<>();
+        long offset = HEADER_SIZE;
+        try {
+            try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(target, header(), 0);
+                for (Map.Entry<String, Entry> preset : index.entrySet()) {
+                    Entry entry = preset.getValue();
+                    ByteBuffer record = ByteBuffer.allocate(entry.size());
+                    readFully(channel, record, entry.offset());
+                    writeFully(target, record.flip(), offset);
+                    compacted.put(preset.getKey(), new Entry(offset, entry.size(), entry.nameLength()));
+                    offset += entry.size();
+                }
+                target.force(true);
+            }
+            // Some platforms cannot replace a file that is still open
+            channel.close();
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            if (!channel.isOpen()) {
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            throw e;
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log.info("Compacted preset store: {} -> {} bytes", size, offset);
+        index.clear();
+        index.putAll(compacted);
+        size = offset;
+        liveBytes = offset - HEADER_SIZE;
+    }
+
+    private void load() throws IOException {
+        index.clear();
+        summaries.clear();
+        liveBytes = 0;
+        long position = HEADER_SIZE;
+        // Not closed: that would close the channel too
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(HEADER_SIZE)), 64 * 1024));
+        try {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < NAME || length > MAX_BODY || position + RECORD_HEADER + length > channel.size()) {
+                    break;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                CRC32 crc = new CRC32();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                ByteBuffer fields = ByteBuffer.wrap(body);
+                int nameLength = Short.toUnsignedInt(fields.getShort(NAME_LENGTH));
+                if (NAME + nameLength > length) {
+                    break;
+                }
+                String name = new String(body, NAME, nameLength, StandardCharsets.UTF_8);
+                if (fields.get(OPERATION) == PUT) {
+                    index(name, new Entry(position, RECORD_HEADER + length, nameLength));
+                    summaries.put(name, summarize(name, body, NAME + nameLength, fields.getLong(TIMESTAMP)));
+                } else {
+                    index(name, null);
+                    summaries.remove(name);
+                }
+                position += RECORD_HEADER + length;
+            }
+        } catch (EOFException e) {
+            // Torn record at the end
+        }
+        if (position < channel.size()) {
+            log.warn("Preset store {} ends with an incomplete record, dropping {} bytes", file, channel.size() - position);
+            channel.truncate(position);
+            channel.force(true);
+        }
+        size = position;
+    }
+
+    private PresetSummary summarize(String name, byte[] body, int jsonOffset, long timestamp) {
+        try {
+            return PresetCatalog.summarize(name, objectMapper.readTree(body, jsonOffset, body.length - jsonOffset), timestamp);
+        } catch (IOException e) {
+            log.debug("Could not read preset {}", name, e);
+            return PresetCatalog.summarize(name, null, timestamp);
+        }
+    }
+
+    private Entry append(byte operation, String name, byte[] json, long timestamp) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xFFFF) {
+            throw new IOException("Preset name is too long");
+        }
+        int length = NAME + nameBytes.length + json.length;
+        if (length > MAX_BODY) {
+            throw new IOException("Preset is too large: " + name);
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + length);
+        record.putInt(length);
+        record.putInt(0); // Checksum, filled in below
+        record.putLong(timestamp);
+        record.put(operation);
+        record.putShort((short) nameBytes.length);
+        record.put(nameBytes);
+        record.put(json);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER, length);
+        record.putInt(4, (int) crc.getValue());
+
+        long offset = size;
+        writeFully(channel, record.flip(), offset);
+        size += record.capacity();
+        return new Entry(offset, record.capacity(), nameBytes.length);
+    }
+
+    private void index(String name, Entry entry) {
+        Entry previous = entry != null ? index.put(name, entry) : index.remove(name);
+        if (previous != null) {
+            liveBytes -= previous.size();
+        }
+        if (entry != null) {
+            liveBytes += entry.size();
+        }
+    }
+
+    private void rollBack(long start) {
+        size = start;
+        try {
+            channel.truncate(start);
+        } catch (IOException e) {
+            // The partial records fail their checksum when the store is opened again
+            log.warn("Could not roll back preset store {}", file, e);
+        }
+    }
+
+    private void compactIfWorthwhile() {
+        long garbage = size - HEADER_SIZE - liveBytes;
+        if (garbage >= MIN_COMPACTION_GARBAGE && garbage > liveBytes) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("Could not compact preset store {}", file, e);
+            }
+        }
+    }
+
+    private FileChannel ensureOpen() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            throw new IOException("Preset store is not open: " + file);
+        }
+        return channel;
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        return header;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of preset store");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Could not close preset store", e);
+            }
+        }
+    }
+
+    /**
+     * Where the latest record of a preset starts and how long it is.
+     */
+    private record Entry(long offset, int size, int nameLength) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.devdam.desktop.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads resource usage of other processes. Linux exposes everything under /proc; elsewhere
+ * only what {@code ps} reports is available and the rest reads as 0.
+ */
+final class ProcessStats {
+
+    private static final boolean PROC_AVAILABLE = Files.isDirectory(Paths.get("/proc", "self"));
+
+    private ProcessStats() {
+    }
+
+    /**
+     * Whether reading stats is cheap here. Without /proc every read of a process starts {@code ps}.
+     */
+    static boolean procAvailable() {
+        return PROC_AVAILABLE;
+    }
+
+    /**
+     * Peak resident memory of the process in bytes, or its current RSS where no peak is kept.
+     */
+    static long residentSetBytes(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        if (Files.isReadable(status)) {
+            try {
+                long rss = 0;
+                for (String line : Files.readAllLines(status)) {
+                    // VmHWM is the kernel's own high-water mark, prefer it over point samples
+                    if (line.startsWith("VmHWM:")) {
+                        return parseKilobytes(line);
+                    }
+                    if (line.startsWith("VmRSS:")) {
+                        rss = parseKilobytes(line);
+                    }
+                }
+                return rss;
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+
+        if (isWindows()) {
+            return 0;
+        }
+
+        // macOS and other Unix systems: fall back to ps
+        try {
+            Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", String.valueOf(pid)).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(ps.getInputStream()))) {
+                String line = reader.readLine();
+                ps.waitFor();
+                return line != null && !line.isBlank() ? Long.parseLong(line.trim()) * 1024 : 0;
+            }
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Bytes the process has read and written so far, including reads served from the page
+     * cache ({@code rchar}/{@code wchar}). Returns {@code {0, 0}} where /proc is not available.
+     */
+    static long[] ioBytes(long pid) {
+        Path io = Paths.get("/proc", String.valueOf(pid), "io");
+        long[] bytes = new long[2];
+        if (!Files.isReadable(io)) {
+            return bytes;
+        }
+        try {
+            for (String line : Files.readAllLines(io)) {
+                if (line.startsWith("rchar:")) {
+                    bytes[0] = Long.parseLong(line.substring(6).trim());
+                } else if (line.startsWith("wchar:")) {
+                    bytes[1] = Long.parseLong(line.substring(6).trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // The process exited between the check and the read
+        }
+        return bytes;
+    }
+
+    private static long parseKilobytes(String statusLine) {
+        String[] parts = statusLine.trim().split("\\s+");
+        return parts.length >= 2 ? Long.parseLong(parts[1]) * 1024 : 0;
+    }
+
+    private static boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase().contains("win");
+    }
+}
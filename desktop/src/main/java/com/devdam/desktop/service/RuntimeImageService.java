@@ -0,0 +1,453 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.jfr.RuntimeCacheEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+public class RuntimeImageService {
+
+    private static final String COMPLETE_MARKER = ".complete";
+
+    public static final List<String> DEFAULT_JLINK_OPTIONS = List.of(
+            "--compress=2",
+            "--no-header-files",
+            "--no-man-pages"
+    );
+
+    private volatile String pluginList;
+    private volatile Integer toolchainFeatureVersion;
+
+    private final Path cacheDirectory;
+    private final Map<Path, Integer> pinned = new ConcurrentHashMap<>();   // Cache entries eviction must skip
+
+    @Value("${packaroo.runtime-cache.max-entries:12}")
+    private int maxCacheEntries;
+
+    private final DirectoryCleanupService directoryCleanupService;
+
+    public RuntimeImageService(DirectoryCleanupService directoryCleanupService) {
+        this.directoryCleanupService = directoryCleanupService;
+        this.cacheDirectory = Paths.get(System.getProperty("user.home"), ".packaroo", "runtime-cache");
+    }
+
+    public void link(Set<String> modules, Path outputPath, List<String> options, Consumer<String> outputConsumer)
+            throws IOException, InterruptedException {
+        link(modules, null, outputPath, options, outputConsumer);
+    }
+
+    public void link(Set<String> modules, Path modulePath, Path outputPath, List<String> options,
+                     Consumer<String> outputConsumer) throws IOException, InterruptedException {
+
+        List<String> command = new ArrayList<>();
+        command.add("jlink");
+        if (modulePath != null) {
+            // jlink adds the JDK's own jmods when the module path lacks java.base
+            command.add("--module-path");
+            command.add(modulePath.toString());
+        }
+        command.add("--add-modules");
+        command.add(String.join(",", modules));
+        command.add("--output");
+        command.add(outputPath.toString());
+        command.addAll(options);
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        Process process = ToolProcesses.started(pb.start());
+
+        // Read output
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+             BufferedReader errorReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                outputConsumer.accept("jlink: " + line);
+            }
+
+            while ((line = errorReader.readLine()) != null) {
+                outputConsumer.accept("jlink ERROR: " + line);
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new RuntimeException("jlink failed with exit code: " + exitCode);
+        }
+    }
+
+    /**
+     * Links the image into {@code outputPath}, copying it from the runtime cache when an image with
+     * the same modules, options and jlink version was linked before.
+     *
+     * @return {@code true} on a cache hit
+     */
+    public boolean linkCached(Set<String> modules, Path outputPath, List<String> options, Consumer<String> outputConsumer)
+            throws IOException, InterruptedException {
+        Path cached = cacheDirectory.resolve(cacheKey(modules, options));
+        RuntimeCacheEvent event = beginCacheEvent(cached, modules, options);
+        if (Files.exists(cached.resolve(COMPLETE_MARKER))) {
+            copyTree(cached, outputPath);
+            Files.deleteIfExists(outputPath.resolve(COMPLETE_MARKER));
+            touch(cached);
+            commitCacheEvent(event, true);
+            return true;
+        }
+
+        link(modules, outputPath, options, outputConsumer);
+        Path staging = null;
+        try {
+            staging = Files.createDirectories(cacheDirectory).resolve(cached.getFileName() + ".tmp-" + System.nanoTime());
+            copyTree(outputPath, staging);
+            publish(staging, cached);
+        } catch (IOException e) {
+            log.warn("Could not store runtime image in cache", e);
+            // Eviction only sees complete entries, so a half-copied one would stay forever
+            directoryCleanupService.discard(staging, message -> { });
+        }
+        commitCacheEvent(event, false);
+        return false;
+    }
+
+    public boolean isCached(Set<String> modules, List<String> options) {
+        return Files.exists(cacheDirectory.resolve(cacheKey(modules, options)).resolve(COMPLETE_MARKER));
+    }
+
+    /**
+     * Returns the cached image for the modules and options, linking it first when missing.
+     * Safe to call from several threads at once.
+     */
+    public Path linkIntoCache(Set<String> modules, List<String> options, Consumer<String> outputConsumer)
+            throws IOException, InterruptedException {
+        return linkIntoCache(modules, options, outputConsumer, null);
+    }
+
+    /**
+     * Like {@link #linkIntoCache(Set, List, Consumer)}, keeping the image from being evicted
+     * until the pin is closed.
+     */
+    public Path linkIntoCache(Set<String> modules, List<String> options, Consumer<String> outputConsumer, Pin pin)
+            throws IOException, InterruptedException {
+        Path cached = cacheDirectory.resolve(cacheKey(modules, options));
+        if (pin != null) {
+            // Pinned before publishing, so other images published meanwhile cannot evict it
+            pin.add(cached);
+        }
+        RuntimeCacheEvent event = beginCacheEvent(cached, modules, options);
+        if (Files.exists(cached.resolve(COMPLETE_MARKER))) {
+            touch(cached);
+            commitCacheEvent(event, true);
+            return cached;
+        }
+
+        Path staging = Files.createDirectories(cacheDirectory).resolve(cached.getFileName() + ".tmp-" + System.nanoTime());
+        try {
+            link(modules, staging, options, outputConsumer);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            directoryCleanupService.discard(staging, message -> { });
+            throw e;
+        }
+        publish(staging, cached);
+        commitCacheEvent(event, false);
+        return cached;
+    }
+
+    private RuntimeCacheEvent beginCacheEvent(Path cached, Set<String> modules, List<String> options) {
+        RuntimeCacheEvent event = new RuntimeCacheEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            event.cacheKey = cached.getFileName().toString();
+            event.moduleCount = modules.size();
+            event.options = String.join(" ", options);
+        }
+        return event;
+    }
+
+    private void commitCacheEvent(RuntimeCacheEvent event, boolean hit) {
+        if (event.isEnabled()) {
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    private void publish(Path staging, Path cached) throws IOException {
+        Files.createFile(staging.resolve(COMPLETE_MARKER));
+        try {
+            Files.move(staging, cached, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Another thread published the same image first
+            directoryCleanupService.discard(staging, message -> { });
+        }
+        evictCache();
+    }
+
+    private String cacheKey(Set<String> modules, List<String> options) {
+        StringBuilder key = new StringBuilder();
+        key.append("jlink=").append(jlinkVersion()).append('\n');
+        key.append("modules=").append(String.join(",", new TreeSet<>(modules))).append('\n');
+        key.append("options=").append(String.join(" ", options));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String jlinkVersion() {
+        String version = Toolchain.jlinkVersion();
+        return version != null ? version : "unknown";
+    }
+
+    /**
+     * Starts pinning cache entries; see {@link #linkIntoCache(Set, List, Consumer, Pin)}.
+     */
+    public Pin pin() {
+        return new Pin();
+    }
+
+    private void evictCache() {
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            List<Path> complete = entries
+                    .filter(path -> Files.exists(path.resolve(COMPLETE_MARKER)))
+                    .sorted(Comparator.comparing(this::lastUsed).reversed())
+                    .collect(Collectors.toList());
+            // Pinned entries count towards the limit but stay; the cache shrinks back once they are unpinned
+            List<Path> evictable = complete.subList(Math.min(maxCacheEntries, complete.size()), complete.size())
+                    .stream()
+                    .filter(path -> !pinned.containsKey(path))
+                    .toList();
+            for (Path stale : evictable) {
+                log.info("Evicting cached runtime image: {}", stale.getFileName());
+                directoryCleanupService.discard(stale, message -> { });
+            }
+        } catch (IOException e) {
+            log.warn("Could not evict runtime cache entries", e);
+        }
+    }
+
+    private FileTime lastUsed(Path cached) {
+        try {
+            return Files.getLastModifiedTime(cached.resolve(COMPLETE_MARKER));
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private void touch(Path cached) {
+        try {
+            Files.setLastModifiedTime(cached.resolve(COMPLETE_MARKER), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Could not update cache timestamp for {}", cached, e);
+        }
+    }
+
+    private void copyTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file).toString()),
+                        StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public boolean supportsPlugin(String pluginOption) {
+        if (pluginList == null) {
+            StringBuilder output = new StringBuilder();
+            try {
+                Process process = ToolProcesses.started(
+                        new ProcessBuilder("jlink", "--list-plugins").redirectErrorStream(true).start());
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        output.append(line).append('\n');
+                    }
+                }
+                process.waitFor();
+            } catch (Exception e) {
+                log.warn("Could not list jlink plugins", e);
+            }
+            pluginList = output.toString();
+        }
+        return pluginList.contains(pluginOption);
+    }
+
+    public Properties readRelease(Path runtimePath) {
+        Properties release = new Properties();
+        Path releaseFile = runtimePath.resolve("release");
+        if (Files.exists(releaseFile)) {
+            try (var reader = Files.newBufferedReader(releaseFile)) {
+                release.load(reader);
+                // Values are written as KEY="value"
+                release.replaceAll((key, value) -> value.toString().replaceAll("^\"|\"$", ""));
+            } catch (IOException e) {
+                log.warn("Could not read release file of runtime: {}", runtimePath, e);
+            }
+        }
+        return release;
+    }
+
+    public Set<String> linkedModules(Path runtimePath) {
+        String modules = readRelease(runtimePath).getProperty("MODULES");
+        if (modules == null || modules.isBlank()) {
+            return null;
+        }
+        return new LinkedHashSet<>(List.of(modules.trim().split("\\s+")));
+    }
+
+    /**
+     * Feature release (17, 21, ...) of the given runtime image, or of the JDK whose
+     * jpackage would bundle its own runtime when {@code runtimePath} is {@code null}.
+     */
+    public int featureVersion(Path runtimePath) {
+        if (runtimePath != null) {
+            String version = readRelease(runtimePath).getProperty("JAVA_VERSION");
+            if (version != null) {
+                return parseFeature(version);
+            }
+        }
+
+        if (toolchainFeatureVersion == null) {
+            String version = Toolchain.jpackageVersion();
+            if (version != null) {
+                toolchainFeatureVersion = parseFeature(version);
+            } else {
+                toolchainFeatureVersion = Runtime.version().feature();
+                log.warn("Could not determine jpackage version, assuming {}", toolchainFeatureVersion);
+            }
+        }
+        return toolchainFeatureVersion;
+    }
+
+    private int parseFeature(String version) {
+        try {
+            String feature = version.split("[.+\\-]")[0];
+            // Pre-JDK 9 style "1.8.0_..."
+            return feature.equals("1") ? Integer.parseInt(version.split("\\.")[1]) : Integer.parseInt(feature);
+        } catch (RuntimeException e) {
+            return Runtime.version().feature();
+        }
+    }
+
+    public Path javaLauncher(Path runtimePath) {
+        String executable = System.getProperty("os.name", "").toLowerCase().contains("win") ? "java.exe" : "java";
+        return runtimePath.resolve("bin").resolve(executable);
+    }
+
+    public long sizeOf(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return 0;
+        }
+
+        long[] total = {0};
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    total[0] += attrs.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not measure size of: {}", directory, e);
+        }
+        return total[0];
+    }
+
+    public Set<String> getAvailableModules() {
+        return new HashSet<>(Toolchain.availableModules());
+    }
+
+    public Set<String> filterLinkable(Set<String> modules) {
+        Set<String> available = getAvailableModules();
+        Set<String> linkable = new TreeSet<>();
+        for (String module : modules) {
+            if (isModuleSafe(module) && available.contains(module)) {
+                linkable.add(module);
+            }
+        }
+        linkable.add("java.base");
+        return linkable;
+    }
+
+    public boolean isModuleSafe(String moduleName) {
+        // Filter out known problematic modules
+        return !moduleName.equals("jdk.management.jfr") &&
+               !moduleName.equals("jdk.jfr") &&
+               !moduleName.equals("jdk.management.agent") &&
+               !moduleName.startsWith("jdk.internal.") &&
+               !moduleName.contains("incubator");
+    }
+
+    /**
+     * Cache entries kept from eviction while in use, released together on close.
+     */
+    public final class Pin implements AutoCloseable {
+
+        private final List<Path> entries = new ArrayList<>();
+        private boolean closed;
+
+        private Pin() {
+        }
+
+        private synchronized void add(Path entry) {
+            if (closed) {
+                return; // A link still finishing after its caller gave up
+            }
+            entries.add(entry);
+            pinned.merge(entry, 1, Integer::sum);
+        }
+
+        @Override
+        public synchronized void close() {
+            for (Path entry : entries) {
+                pinned.computeIfPresent(entry, (path, count) -> count > 1 ? count - 1 : null);
+            }
+            entries.clear();
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LaunchMeasurement;
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.SmokeTestResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Launches a freshly built app image without a display, measures its startup and compares it
+ * with the baseline of the same preset: the last build that passed, or one accepted explicitly.
+ */
+@Slf4j
+@Service
+public class SmokeTestService {
+
+    // Startup differences below this are launch noise, whatever the percentage says
+    private static final long STARTUP_NOISE_MS = 50;
+    private static final List<String> HEADLESS_OPTIONS = List.of("-Djava.awt.headless=true");
+    // JavaFX has no headless mode of its own; it needs the Monocle platform bundled with the app
+    private static final List<String> MONOCLE_OPTIONS = List.of(
+            "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw");
+
+    private final LaunchProbeService launchProbeService;
+    private final RuntimeImageService runtimeImageService;
+    private final ObjectMapper objectMapper;
+    private final Path baselineDirectory;
+
+    @Value("${packaroo.smoke-test.timeout-seconds:15}")
+    private long timeoutSeconds;
+
+    @Value("${packaroo.smoke-test.runs:3}")
+    private int runs;
+
+    @Value("${packaroo.smoke-test.startup-regression-percent:25}")
+    private int startupRegressionPercent;
+
+    @Value("${packaroo.smoke-test.size-regression-percent:10}")
+    private int sizeRegressionPercent;
+
+    @Value("${packaroo.smoke-test.headless:true}")
+    private boolean headless;
+
+    public SmokeTestService(LaunchProbeService launchProbeService, RuntimeImageService runtimeImageService) {
+        this.launchProbeService = launchProbeService;
+        this.runtimeImageService = runtimeImageService;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.baselineDirectory = Paths.get(System.getProperty("user.home"), ".packaroo", "smoke-baselines");
+    }
+
+    public SmokeTestResult run(PackageConfiguration config, Consumer<String> logConsumer) {
+        String baselineKey = baselineKey(config);
+        Path appImage = appImagePath(config);
+        Path launcher = launcherPath(config);
+
+        SmokeTestResult.SmokeTestResultBuilder result = SmokeTestResult.builder()
+                .baselineKey(baselineKey)
+                .timestamp(LocalDateTime.now())
+                .launcher(launcher.toString())
+                .startupMs(-1)
+                .baselineStartupMs(-1)
+                .baselineOutputSizeBytes(-1)
+                .regressions(new ArrayList<>());
+
+        if (!Files.isExecutable(launcher)) {
+            return result.passed(false).errorMessage("Launcher not found: " + launcher).build();
+        }
+
+        logConsumer.accept("Smoke test: launching " + launcher + " " + runs + " times (timeout " + timeoutSeconds + "s)");
+        result.outputSizeBytes(runtimeImageService.sizeOf(appImage));
+        List<String> headlessOptions = headless ? headlessOptions(appImage, logConsumer) : null;
+
+        // Median startup of a few launches; a single cold launch is too noisy to gate a build on
+        List<Long> startupTimes = new ArrayList<>();
+        long peakRss = 0;
+        for (int run = 0; run < Math.max(1, runs); run++) {
+            LaunchMeasurement measurement = launchProbeService.launch(List.of(launcher.toString()),
+                    Duration.ofSeconds(timeoutSeconds), true, null, headlessOptions);
+            peakRss = Math.max(peakRss, measurement.getPeakRssBytes());
+            result.peakRssBytes(peakRss)
+                    .exitCode(measurement.getExitCode())
+                    .timedOut(measurement.isTimedOut());
+
+            if (!measurement.isStarted()) {
+                return result.passed(false).errorMessage(measurement.getErrorMessage()).build();
+            }
+            // A silent app that is still running at the timeout counts as started
+            if (measurement.isExited() && measurement.getExitCode() != null && measurement.getExitCode() != 0) {
+                return result.passed(false)
+                        .errorMessage("Application exited with code " + measurement.getExitCode() + " during startup")
+                        .build();
+            }
+            if (!measurement.isReady()) {
+                break; // Silent apps run until the timeout; once is enough
+            }
+            startupTimes.add(measurement.getReadyTimeMs());
+        }
+        Collections.sort(startupTimes);
+        result.startupMs(startupTimes.isEmpty() ? -1 : startupTimes.get(startupTimes.size() / 2));
+
+        SmokeTestResult current = result.passed(true).build();
+        SmokeTestResult baseline = loadBaseline(baselineKey);
+        if (baseline != null) {
+            compare(current, baseline);
+        }
+        // A regressed build only becomes the baseline when someone accepts it
+        if (!current.hasRegressions()) {
+            saveBaseline(current);
+        }
+        return current;
+    }
+
+    /**
+     * Makes a build that failed on regressions the reference for later builds, for a change in
+     * size or startup that is intended.
+     */
+    public void acceptBaseline(SmokeTestResult result) {
+        if (result.isPassed()) {
+            saveBaseline(result);
+        }
+    }
+
+    private List<String> headlessOptions(Path appImage, Consumer<String> logConsumer) {
+        List<String> options = new ArrayList<>(HEADLESS_OPTIONS);
+        try (Stream<Path> files = Files.walk(appImage)) {
+            if (files.anyMatch(file -> file.getFileName().toString().toLowerCase().contains("monocle"))) {
+                options.addAll(MONOCLE_OPTIONS);
+                logConsumer.accept("Smoke test: running JavaFX on the bundled Monocle headless platform");
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.debug("Could not look for Monocle in {}", appImage, e);
+        }
+        return options;
+    }
+
+    private void compare(SmokeTestResult current, SmokeTestResult baseline) {
+        current.setBaselineStartupMs(baseline.getStartupMs());
+        current.setBaselineOutputSizeBytes(baseline.getOutputSizeBytes());
+
+        if (current.getStartupMs() >= 0 && baseline.getStartupMs() >= 0) {
+            long delta = current.getStartupMs() - baseline.getStartupMs();
+            if (delta > STARTUP_NOISE_MS && exceeds(current.getStartupMs(), baseline.getStartupMs(), startupRegressionPercent)) {
+                current.getRegressions().add(String.format("Startup %d ms -> %d ms (limit +%d%%)",
+                        baseline.getStartupMs(), current.getStartupMs(), startupRegressionPercent));
+            }
+        }
+        if (baseline.getOutputSizeBytes() > 0
+                && exceeds(current.getOutputSizeBytes(), baseline.getOutputSizeBytes(), sizeRegressionPercent)) {
+            current.getRegressions().add(String.format("Output size %.1f MB -> %.1f MB (limit +%d%%)",
+                    baseline.getOutputSizeBytes() / (1024.0 * 1024.0),
+                    current.getOutputSizeBytes() / (1024.0 * 1024.0), sizeRegressionPercent));
+        }
+    }
+
+    private boolean exceeds(long current, long baseline, int percent) {
+        return current * 100 > baseline * (100L + percent);
+    }
+
+    private String baselineKey(PackageConfiguration config) {
+        return config.getPresetName() != null && !config.getPresetName().isBlank()
+                ? config.getPresetName()
+                : config.getAppName();
+    }
+
+    private Path baselineFile(String baselineKey) {
+        return baselineDirectory.resolve(baselineKey.replaceAll("[^\\w.-]", "_") + ".json");
+    }
+
+    private SmokeTestResult loadBaseline(String baselineKey) {
+        Path file = baselineFile(baselineKey);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), SmokeTestResult.class);
+        } catch (IOException e) {
+            log.warn("Could not read smoke test baseline: {}", file, e);
+            return null;
+        }
+    }
+
+    private void saveBaseline(SmokeTestResult result) {
+        try {
+            Files.createDirectories(baselineDirectory);
+            objectMapper.writeValue(baselineFile(result.getBaselineKey()).toFile(), result);
+        } catch (IOException e) {
+            log.warn("Could not save smoke test baseline for {}", result.getBaselineKey(), e);
+        }
+    }
+
+    private Path appImagePath(PackageConfiguration config) {
+        String name = config.getAppName();
+        return isMac()
+                ? config.getOutputDirectory().resolve(name + ".app")
+                : config.getOutputDirectory().resolve(name);
+    }
+
+    private Path launcherPath(PackageConfiguration config) {
+        String name = config.getAppName();
+        Path appImage = appImagePath(config);
+        if (isMac()) {
+            return appImage.resolve("Contents").resolve("MacOS").resolve(name);
+        }
+        if (isWindows()) {
+            return appImage.resolve(name + ".exe");
+        }
+        return appImage.resolve("bin").resolve(name);
+    }
+
+    private boolean isMac() {
+        return System.getProperty("os.name", "").toLowerCase().contains("mac");
+    }
+
+    private boolean isWindows() {
+        return System.getProperty("os.name", "").toLowerCase().contains("win");
+    }
+}
@@ -0,0 +1,202 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.jfr.BuildStageEvent;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.StageMetrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Splits one build into stages and accounts wall time and the resource usage of the tool
+ * processes started in each stage.
+ * <p>
+ * Tool processes are sampled while they run, so a process that lives for less than one
+ * sample interval only contributes to the process count.
+ */
+public class StageRecorder {
+
+    /**
+     * Receives the running stage on every sample, from the sampler thread, and stage boundaries
+     * from the build thread.
+     */
+    public interface Listener {
+        void progress(BuildStage stage, long elapsedMs, long bytesWritten);
+
+        default void stageStarted(BuildStage stage) {
+        }
+
+        /**
+         * The metrics of this run of the stage; a stage entered twice is reported twice.
+         */
+        default void stageFinished(StageMetrics metrics) {
+        }
+    }
+
+    private static final long SAMPLE_INTERVAL_MS = 100;
+    private static final ThreadLocal<StageRecorder> CURRENT = new ThreadLocal<>();
+    private static final ScheduledExecutorService SAMPLER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "build-stage-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<BuildStage, StageMetrics> stages = new EnumMap<>(BuildStage.class);
+    private final List<Process> stageProcesses = new CopyOnWriteArrayList<>();
+    private final Map<Long, long[]> lastSeen = new ConcurrentHashMap<>(); // pid -> {cpu ms, read, written}
+    private final Listener listener;
+
+    private BuildStage currentStage;
+    private long stageStartNanos;
+    private long stagePeakRss;
+    private Boolean stageCacheHit;
+    private ScheduledFuture<?> sampling;
+    private BuildStageEvent stageEvent;
+
+    private StageRecorder(Listener listener) {
+        this.listener = listener;
+    }
+
+    static StageRecorder bind(Listener listener) {
+        StageRecorder recorder = new StageRecorder(listener);
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Attributes a tool process to the current stage of the build running on this thread, if any.
+     */
+    static void processStarted(Process process) {
+        StageRecorder recorder = CURRENT.get();
+        if (recorder != null && recorder.currentStage != null) {
+            recorder.stageProcesses.add(process);
+        }
+    }
+
+    /**
+     * Ends the running stage and starts the next one. A stage entered twice is accumulated.
+     */
+    public synchronized void begin(BuildStage stage) {
+        end();
+        currentStage = stage;
+        stageStartNanos = System.nanoTime();
+        stagePeakRss = 0;
+        stageCacheHit = null;
+        stageProcesses.clear();
+        lastSeen.clear();
+        stageEvent = new BuildStageEvent();
+        stageEvent.begin();
+        if (listener != null) {
+            listener.stageStarted(stage);
+            listener.progress(stage, 0, 0);
+        }
+        sampling = SAMPLER.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void recordCacheHit(boolean hit) {
+        stageCacheHit = hit;
+    }
+
+    public synchronized void end() {
+        if (currentStage == null) {
+            return;
+        }
+        sampling.cancel(false);
+        sample();
+
+        long cpu = 0;
+        long read = 0;
+        long written = 0;
+        for (long[] seen : lastSeen.values()) {
+            cpu += seen[0];
+            read += seen[1];
+            written += seen[2];
+        }
+
+        StageMetrics measured = StageMetrics.builder()
+                .stage(currentStage)
+                .wallTimeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStartNanos))
+                .cpuTimeMs(cpu)
+                .peakRssBytes(stagePeakRss)
+                .bytesRead(read)
+                .bytesWritten(written)
+                .processCount(stageProcesses.size())
+                .cacheHit(stageCacheHit)
+                .build();
+        stages.merge(currentStage, measured, StageRecorder::accumulate);
+        if (listener != null) {
+            listener.stageFinished(measured);
+        }
+
+        stageEvent.end();
+        if (stageEvent.shouldCommit()) {
+            stageEvent.stage = currentStage.getDisplayName();
+            stageEvent.processCount = stageProcesses.size();
+            stageEvent.cacheHit = Boolean.TRUE.equals(stageCacheHit);
+            stageEvent.commit();
+        }
+        currentStage = null;
+    }
+
+    /**
+     * Ends the running stage and returns every stage in build order.
+     */
+    public List<StageMetrics> finish() {
+        end();
+        return new ArrayList<>(stages.values());
+    }
+
+    private synchronized void sample() {
+        long rss = 0;
+        for (Process process : stageProcesses) {
+            if (!process.isAlive()) {
+                continue;
+            }
+            List<ProcessHandle> tree = Stream.concat(Stream.of(process.toHandle()), process.descendants()).toList();
+            for (ProcessHandle handle : tree) {
+                long[] seen = lastSeen.computeIfAbsent(handle.pid(), pid -> new long[3]);
+                handle.info().totalCpuDuration().ifPresent(cpu -> seen[0] = Math.max(seen[0], cpu.toMillis()));
+                long[] io = ProcessStats.ioBytes(handle.pid());
+                seen[1] = Math.max(seen[1], io[0]);
+                seen[2] = Math.max(seen[2], io[1]);
+                rss += ProcessStats.residentSetBytes(handle.pid());
+            }
+        }
+        stagePeakRss = Math.max(stagePeakRss, rss);
+
+        if (listener != null && currentStage != null) {
+            long written = 0;
+            for (long[] seen : lastSeen.values()) {
+                written += seen[2];
+            }
+            listener.progress(currentStage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStartNanos), written);
+        }
+    }
+
+    private static StageMetrics accumulate(StageMetrics earlier, StageMetrics later) {
+        return StageMetrics.builder()
+                .stage(earlier.getStage())
+                .wallTimeMs(earlier.getWallTimeMs() + later.getWallTimeMs())
+                .cpuTimeMs(earlier.getCpuTimeMs() + later.getCpuTimeMs())
+                .peakRssBytes(Math.max(earlier.getPeakRssBytes(), later.getPeakRssBytes()))
+                .bytesRead(earlier.getBytesRead() + later.getBytesRead())
+                .bytesWritten(earlier.getBytesWritten() + later.getBytesWritten())
+                .processCount(earlier.getProcessCount() + later.getProcessCount())
+                .cacheHit(later.getCacheHit() != null ? later.getCacheHit() : earlier.getCacheHit())
+                .build();
+    }
+}
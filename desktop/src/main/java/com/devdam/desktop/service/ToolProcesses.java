@@ -0,0 +1,35 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.jfr.ToolInvocationEvent;
+
+import java.nio.file.Paths;
+
+/**
+ * Single hook for every external tool Packaroo starts: registers the process for cancellation,
+ * attributes it to the current build stage and records it for Flight Recorder.
+ */
+final class ToolProcesses {
+
+    private ToolProcesses() {
+    }
+
+    static Process started(Process process) {
+        StageRecorder.processStarted(process);
+        CancellationToken.register(process);
+
+        ToolInvocationEvent event = new ToolInvocationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            ProcessHandle.Info info = process.info();
+            event.tool = info.command().map(command -> Paths.get(command).getFileName().toString()).orElse("unknown");
+            event.commandLine = info.commandLine().orElse(event.tool);
+            event.pid = process.pid();
+            process.onExit().thenAccept(exited -> {
+                event.end();
+                event.exitCode = exited.exitValue();
+                event.commit();
+            });
+        }
+        return process;
+    }
+}
@@ -0,0 +1,120 @@
+package com.devdam.desktop.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * What the JDK on the path offers: the versions of jpackage and jlink and the modules
+ * {@code java --list-modules} reports.
+ * <p>
+ * Each is probed once per session. Startup probes them in the background, so by the time a
+ * service asks, the answer is usually there already; a caller asking earlier waits for the probe
+ * that is running, and one asking before anyone started it runs the probe itself.
+ */
+@Slf4j
+public final class Toolchain {
+
+    private static final Probe<String> JPACKAGE = new Probe<>(() -> version("jpackage"));
+    private static final Probe<String> JLINK = new Probe<>(() -> version("jlink"));
+    private static final Probe<Set<String>> MODULES = new Probe<>(Toolchain::listModules);
+
+    private Toolchain() {
+    }
+
+    /**
+     * First line of {@code jpackage --version}, or {@code null} when jpackage is not available.
+     */
+    public static String jpackageVersion() {
+        return JPACKAGE.get();
+    }
+
+    /**
+     * First line of {@code jlink --version}, or {@code null} when jlink is not available.
+     */
+    public static String jlinkVersion() {
+        return JLINK.get();
+    }
+
+    /**
+     * Modules of the JDK on the path; empty when they could not be listed.
+     */
+    public static Set<String> availableModules() {
+        return MODULES.get();
+    }
+
+    private static String version(String tool) {
+        try {
+            Process process = ToolProcesses.started(new ProcessBuilder(tool, "--version").redirectErrorStream(true).start());
+            String version;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                version = reader.readLine();
+                while (reader.readLine() != null) {
+                    // Drain the rest so the tool can exit
+                }
+            }
+            if (process.waitFor() != 0 || version == null) {
+                log.warn("{} is not available", tool);
+                return null;
+            }
+            return version.trim();
+        } catch (Exception e) {
+            log.warn("{} not available", tool, e);
+            return null;
+        }
+    }
+
+    private static Set<String> listModules() {
+        Set<String> modules = new HashSet<>();
+        try {
+            Process process = ToolProcesses.started(new ProcessBuilder("java", "--list-modules").start());
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty() && line.contains("@")) {
+                        modules.add(line.split("@")[0]);
+                    }
+                }
+            }
+            process.waitFor();
+        } catch (Exception e) {
+            log.warn("Could not get available modules", e);
+        }
+        return Collections.unmodifiableSet(modules);
+    }
+
+    /**
+     * Result of a probe, computed by whoever asks first.
+     */
+    private static final class Probe<T> {
+        private final Supplier<T> probe;
+        private CompletableFuture<T> result;
+
+        Probe(Supplier<T> probe) {
+            this.probe = probe;
+        }
+
+        T get() {
+            CompletableFuture<T> running;
+            boolean first;
+            synchronized (this) {
+                first = result == null;
+                if (first) {
+                    result = new CompletableFuture<>();
+                }
+                running = result;
+            }
+            if (first) {
+                running.complete(probe.get());
+            }
+            return running.join();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildEstimate;
+import com.devdam.desktop.model.BuildEvent;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.StageMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildEventPublisherTest {
+
+    private static final int LINES = 20_000;
+
+    @Test
+    void slowConsumerGetsCoalescedEventsWhileOthersGetEveryOne() throws InterruptedException {
+        BuildEventPublisher events = new BuildEventPublisher();
+        events.trackProgress(BuildEstimate.builder()
+                .plannedStages(List.of(BuildStage.VALIDATE, BuildStage.JPACKAGE))
+                .stageTimesMs(Map.of(BuildStage.VALIDATE, 100L, BuildStage.JPACKAGE, 1000L))
+                .build());
+
+        // The "UI thread" does not run at all until the build is over
+        Queue<Runnable> uiThread = new ConcurrentLinkedQueue<>();
+        List<BuildEvent> shown = new ArrayList<>();
+        CountDownLatch coalescedDone = new CountDownLatch(1);
+        events.subscribe(completing(new CoalescingBuildSubscriber(uiThread::add, shown::addAll), coalescedDone));
+
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch everyEventDone = new CountDownLatch(1);
+        events.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(BuildEvent event) {
+                received.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+                everyEventDone.countDown();
+            }
+        });
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            events.stageStarted(BuildStage.JPACKAGE);
+            for (int i = 0; i < LINES; i++) {
+                events.line("jpackage: line " + i);
+                if (i % 100 == 0) {
+                    events.progress(BuildStage.JPACKAGE, i / 100, 0);
+                }
+            }
+            events.artifact("Runtime image", Path.of("out", "runtime"));
+            events.stageFinished(StageMetrics.builder().stage(BuildStage.JPACKAGE).wallTimeMs(200).build());
+            events.close();
+        });
+
+        assertTrue(everyEventDone.await(30, TimeUnit.SECONDS));
+        assertTrue(coalescedDone.await(30, TimeUnit.SECONDS));
+        // Lines, stage boundaries and the artifact, plus samples
+        assertTrue(received.get() >= LINES + 3);
+
+        Runnable batch;
+        while ((batch = uiThread.poll()) != null) {
+            batch.run();
+        }
+        long lines = shown.stream().filter(event -> event.getType() == BuildEvent.Type.LINE).count();
+        long samples = shown.stream().filter(event -> event.getType() == BuildEvent.Type.SAMPLE).count();
+        assertTrue(lines < LINES, "lines were coalesced");
+        assertTrue(shown.get(0).getText().endsWith("lines not shown, see the build log"));
+        assertEquals("jpackage: line " + (LINES - 1), shown.stream()
+                .filter(event -> event.getType() == BuildEvent.Type.LINE)
+                .reduce((first, second) -> second).orElseThrow().getText());
+        assertEquals(1, samples);
+        assertEquals(BuildEvent.Type.STAGE_STARTED, shown.stream()
+                .filter(event -> event.getType() != BuildEvent.Type.LINE).findFirst().orElseThrow().getType());
+        assertTrue(shown.stream().anyMatch(event -> event.getType() == BuildEvent.Type.ARTIFACT
+                && event.getPath().endsWith("runtime")));
+    }
+
+    private static Flow.Subscriber<BuildEvent> completing(Flow.Subscriber<BuildEvent> delegate, CountDownLatch done) {
+        return new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                delegate.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(BuildEvent event) {
+                delegate.onNext(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                delegate.onError(throwable);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                delegate.onComplete();
+                done.countDown();
+            }
+        };
+    }
+}
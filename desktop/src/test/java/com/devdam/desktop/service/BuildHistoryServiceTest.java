@@ -0,0 +1,153 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildRecord;
+import com.devdam.desktop.model.BuildStage;
+import com.devdam.desktop.model.BuildSummary;
+import com.devdam.desktop.model.BuildTrend;
+import com.devdam.desktop.model.StageMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildHistoryServiceTest {
+
+    @TempDir
+    Path historyDirectory;
+
+    @TempDir
+    Path presetDirectory;
+
+    private final DirectoryCleanupService directoryCleanupService = new DirectoryCleanupService();
+    private BuildHistoryService history;
+
+    @AfterEach
+    void closeHistory() {
+        if (history != null) {
+            history.close();
+        }
+        directoryCleanupService.shutdown();
+    }
+
+    @Test
+    void queriesByPresetAppAndTime() throws IOException {
+        history = open(365, 1000);
+        LocalDateTime now = LocalDateTime.now();
+        history.append(build(now.minusDays(40), "release", "AppX", 900));
+        history.append(build(now.minusDays(10), "release", "AppX", 1000));
+        history.append(build(now.minusDays(5), null, "AppY", 2000));
+        history.append(build(now.minusDays(1), "release", "AppX", 1200));
+
+        assertEquals(3, history.query("release", null, null, null).size());
+        assertEquals(1, history.query(null, "AppY", null, null).size());
+        assertEquals(2, history.query(null, "AppX", now.minusDays(30), now).size());
+        assertTrue(history.query("unknown", null, null, null).isEmpty());
+
+        List<BuildSummary> recent = history.recent(null, "AppX", 2);
+        assertEquals(2, recent.size());
+        assertEquals(1200, recent.get(0).timeMs(BuildStage.JLINK));
+        assertNull(recent.get(0).getStageTimesMs().get(BuildStage.POST_PROCESS));
+
+        BuildRecord record = history.load(recent.get(0).getId()).orElseThrow();
+        assertEquals("AppX", record.getAppName());
+        assertEquals("abc123", record.getConfigFingerprint());
+    }
+
+    @Test
+    void trendUsesOnlySuccessfulBuildsInWindow() throws IOException {
+        history = open(365, 1000);
+        LocalDateTime now = LocalDateTime.now();
+        history.append(build(now.minusDays(60), null, "AppX", 5000));
+        for (int day = 20; day >= 1; day--) {
+            history.append(build(now.minusDays(day), null, "AppX", day > 10 ? 1000 : 2000));
+        }
+        BuildRecord failed = build(now.minusHours(1), null, "AppX", 9000);
+        failed.setSuccess(false);
+        history.append(failed);
+
+        BuildTrend trend = history.trend(null, "AppX", BuildStage.JLINK, Duration.ofDays(30));
+        assertEquals(21, trend.getBuilds());
+        assertEquals(20, trend.getPoints().size());
+        assertEquals(1000, trend.getMinMs());
+        assertEquals(2000, trend.getMaxMs());
+        assertEquals(100.0, trend.getChangePercent(), 0.001);
+    }
+
+    @Test
+    void survivesReopenAndTruncatedIndex() throws IOException {
+        history = open(365, 1000);
+        history.append(build(LocalDateTime.now(), "release", "AppX", 1000));
+        history.append(build(LocalDateTime.now(), "release", "AppX", 1100));
+        history.close();
+
+        // Simulate a crash halfway through writing an index entry
+        Path index = Files.list(historyDirectory).findFirst().orElseThrow().resolve("builds.idx");
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - BuildHistoryService.ENTRY_SIZE / 2);
+        }
+
+        history = open(365, 1000);
+        assertEquals(1, history.size());
+        history.append(build(LocalDateTime.now(), "release", "AppX", 1200));
+        assertEquals(2, history.query("release", "AppX", null, null).size());
+    }
+
+    @Test
+    void compactionDropsExpiredAndExcessRecords() throws IOException {
+        history = open(30, 3);
+        LocalDateTime now = LocalDateTime.now();
+        history.append(build(now.minusDays(90), "old", "AppOld", 100));
+        for (int i = 5; i >= 1; i--) {
+            history.append(build(now.minusHours(i), "release", "AppX", i * 100L));
+        }
+
+        assertEquals(3, history.compact());
+        assertEquals(3, history.size());
+        assertTrue(history.query("old", null, null, null).isEmpty());
+        assertEquals(3, history.query("release", null, null, null).size());
+        assertEquals("AppX", history.load(0).orElseThrow().getAppName());
+
+        history.close();
+        history = open(30, 3);
+        assertEquals(3, history.size());
+        assertFalse(history.recent(null, null, 10).isEmpty());
+    }
+
+    private BuildHistoryService open(int retentionDays, int maxRecords) {
+        return new BuildHistoryService(historyDirectory, new ConfigurationService(presetDirectory),
+                new RuntimeImageService(directoryCleanupService),
+                retentionDays, maxRecords, false);
+    }
+
+    private static BuildRecord build(LocalDateTime timestamp, String presetName, String appName, long jlinkMs) {
+        return BuildRecord.builder()
+                .timestamp(timestamp)
+                .presetName(presetName)
+                .appName(appName)
+                .success(true)
+                .executionTimeMs(jlinkMs + 500)
+                .outputSizeBytes(50_000_000)
+                .runtimeSizeBytes(40_000_000)
+                .startupMs(-1)
+                .cacheHit(false)
+                .configFingerprint("abc123")
+                .stages(List.of(
+                        StageMetrics.builder().stage(BuildStage.VALIDATE).wallTimeMs(5).build(),
+                        StageMetrics.builder().stage(BuildStage.JLINK).wallTimeMs(jlinkMs).cacheHit(false).build(),
+                        StageMetrics.builder().stage(BuildStage.JPACKAGE).wallTimeMs(495).build()))
+                .build();
+    }
+}
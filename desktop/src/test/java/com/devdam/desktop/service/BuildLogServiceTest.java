@@ -0,0 +1,66 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.BuildLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BuildLogServiceTest {
+
+    @TempDir
+    Path logDirectory;
+
+    @Test
+    void streamsLinesToTheLogFileAndCountsThem() throws IOException {
+        BuildLogService service = new BuildLogService(logDirectory, 10);
+        BuildLogService.BuildLogWriter writer = service.open("My App/1");
+        List<String> shown = new ArrayList<>();
+        BuildOutputSink output = BuildOutputSink.fanOut(BuildOutputSink.of(shown::add), writer);
+
+        output.line("Packaging application with jpackage...");
+        output.detail("Including module: java.base");
+        output.line("jpackage ERROR: Error: Invalid Option: [--bogus]");
+        output.close();
+
+        assertEquals(List.of("Packaging application with jpackage...",
+                "jpackage ERROR: Error: Invalid Option: [--bogus]"), shown);
+        BuildLog buildLog = writer.toBuildLog();
+        assertEquals(3, buildLog.getLines());
+        assertEquals(1, buildLog.getDetailLines());
+        assertEquals(1, buildLog.getErrorLines());
+
+        Path file = Path.of(buildLog.getPath());
+        assertTrue(file.getFileName().toString().endsWith("-My_App_1.log"));
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).endsWith(" Including module: java.base"));
+    }
+
+    @Test
+    void keepsOnlyTheNewestLogs() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Files.writeString(logDirectory.resolve("20240101-00000" + i + "-000-App.log"), "old");
+        }
+        Files.writeString(logDirectory.resolve("notes.txt"), "not a build log");
+
+        new BuildLogService(logDirectory, 3).open("App").close();
+
+        try (Stream<Path> files = Files.list(logDirectory)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).sorted().toList();
+            assertEquals(4, names.size());
+            assertFalse(names.contains("20240101-000002-000-App.log"));
+            assertTrue(names.contains("20240101-000003-000-App.log"));
+            assertTrue(names.contains("notes.txt"));
+        }
+    }
+}
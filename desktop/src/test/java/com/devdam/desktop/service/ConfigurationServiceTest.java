@@ -0,0 +1,85 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.JLinkTuningReport;
+import com.devdam.desktop.model.PackageConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigurationServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ConfigurationService configurationService;
+
+    @BeforeEach
+    void createService() {
+        configurationService = new ConfigurationService(directory.resolve("presets"));
+    }
+
+    @Test
+    void equivalentConfigurationsShareAFingerprint() throws IOException {
+        Path jar = Files.writeString(directory.resolve("app.jar"), "jar content");
+        Set<String> modules = new LinkedHashSet<>(List.of("java.sql", "java.base", "java.desktop"));
+        PackageConfiguration config = configuration(jar, modules);
+        config.setPresetName("Release");
+
+        PackageConfiguration same = configuration(directory.resolve("lib").resolve("..").resolve("app.jar"),
+                new TreeSet<>(modules));
+        same.setPresetName("Another name");
+        same.setJlinkTuning(new JLinkTuningReport());
+        same.setDescription("");
+
+        assertEquals(configurationService.canonicalForm(config), configurationService.canonicalForm(same));
+        assertEquals(configurationService.fingerprint(config), configurationService.fingerprint(same));
+        String canonical = configurationService.canonicalForm(config);
+        assertTrue(canonical.contains("[\"java.base\",\"java.desktop\",\"java.sql\"]"), canonical);
+        assertFalse(canonical.contains("Release"), canonical);
+
+        same.setVersion("2.0");
+        assertNotEquals(configurationService.fingerprint(config), configurationService.fingerprint(same));
+    }
+
+    @Test
+    void fingerprintFollowsTheJarContent() throws IOException {
+        Path jar = Files.writeString(directory.resolve("app.jar"), "first build");
+        PackageConfiguration config = configuration(jar, Set.of("java.base"));
+        String first = configurationService.fingerprint(config);
+        assertEquals(first, configurationService.fingerprint(config));
+
+        Files.writeString(jar, "second build");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 2000));
+        assertNotEquals(first, configurationService.fingerprint(config));
+
+        Files.delete(jar);
+        assertTrue(configurationService.canonicalForm(config).contains(ConfigurationFingerprinter.MISSING_FILE));
+    }
+
+    private static PackageConfiguration configuration(Path jar, Set<String> modules) {
+        return PackageConfiguration.builder()
+                .jarFile(jar)
+                .appName("Demo")
+                .version("1.0")
+                .mainClass("com.example.Main")
+                .outputFormat(PackageConfiguration.OutputFormat.APP_IMAGE)
+                .enableJLink(true)
+                .requiredModules(modules)
+                .jvmArgs(List.of("-Xmx512m", "-Dmode=release"))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogExportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesCompressedJsonLines() throws IOException {
+        LogStore store = new LogStore(directory.resolve("logs"), 100, 64 * 1024, 1);
+        try {
+            for (int i = 0; i < 10_000; i++) {
+                store.append(new LogRecord(1_714_566_615_000_000_000L + i, LogLevel.INFO,
+                        i % 2 == 0 ? "BUILD" : null, "line " + i + " \"quoted\""));
+            }
+
+            Path target = directory.resolve("packaroo-logs.jsonl.gz");
+            assertEquals(LogExportService.Format.JSON_LINES, LogExportService.Format.forFile(target));
+            assertTrue(LogExportService.isGzip(target));
+            double[] lastProgress = {-1};
+            long written = new LogExportService().export(store.cursor(), target, LogExportService.Format.JSON_LINES,
+                    true, fraction -> lastProgress[0] = fraction);
+
+            assertEquals(10_000, written);
+            assertEquals(1.0, lastProgress[0]);
+            assertFalse(Files.exists(directory.resolve("packaroo-logs.jsonl.gz.tmp")));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(target)), StandardCharsets.UTF_8))) {
+                List<String> lines = reader.lines().toList();
+                assertEquals(10_000, lines.size());
+                ObjectMapper mapper = new ObjectMapper();
+                JsonNode first = mapper.readTree(lines.get(0));
+                assertEquals("2024-05-01T12:30:15Z", first.get("time").asText());
+                assertEquals("INFO", first.get("level").asText());
+                assertEquals("BUILD", first.get("category").asText());
+                assertEquals("line 0 \"quoted\"", first.get("message").asText());
+                assertFalse(mapper.readTree(lines.get(1)).has("category"));
+            }
+        } finally {
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LogFilter;
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogIndexTest {
+
+    private static final String[] CATEGORIES = {"BUILD", "MODULES", "ANALYSIS", "SYSTEM"};
+
+    @Test
+    void searchAgreesWithMatchingEachRecord() {
+        LogIndex index = new LogIndex();
+        List<LogRecord> records = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            LogLevel level = i % 1000 == 0 ? LogLevel.ERROR : LogLevel.values()[i % 2];
+            String message = i % 1000 == 0
+                    ? "jlink failed: Error: module java.desktop not found, required by app (" + i + ")"
+                    : "Copying lib/dependency-" + (i % 50) + ".jar to the app image";
+            LogRecord record = new LogRecord(i, level, CATEGORIES[i % CATEGORIES.length], message);
+            records.add(record);
+            index.add(100 + i, record); // Sequence numbers need not start at zero
+        }
+
+        List<LogFilter> filters = List.of(
+                LogFilter.builder().level(LogLevel.ERROR).build(),
+                LogFilter.builder().category("BUILD").text("jlin desk").build(),
+                LogFilter.builder().level(LogLevel.INFO).category("MODULES").text("dependency 7").build(),
+                LogFilter.builder().text("JAR").build(),
+                LogFilter.builder().text("nothing-like-this").build());
+        for (LogFilter filter : filters) {
+            List<Long> expected = new ArrayList<>();
+            for (int i = 0; i < records.size(); i++) {
+                if (LogIndex.matches(filter, records.get(i))) {
+                    expected.add(100L + i);
+                }
+            }
+
+            LogIndex.Result result = index.search(filter, 50);
+            assertEquals(expected.size(), result.total(), filter.toString());
+            long[] newest = expected.subList(Math.max(0, expected.size() - 50), expected.size()).stream()
+                    .mapToLong(Long::longValue).toArray();
+            assertArrayEquals(newest, result.sequences(), filter.toString());
+        }
+    }
+
+    @Test
+    void wordsMatchByPrefixOnly() {
+        LogRecord record = new LogRecord(0, LogLevel.INFO, "BUILD", "Running jlink --add-modules java.base");
+        assertTrue(LogIndex.matches(LogFilter.builder().text("jli").build(), record));
+        assertTrue(LogIndex.matches(LogFilter.builder().text("add-mod").build(), record));
+        assertFalse(LogIndex.matches(LogFilter.builder().text("link").build(), record));
+        assertFalse(LogIndex.matches(LogFilter.builder().category("MODULES").build(), record));
+    }
+
+    @Test
+    void plainLinesNeverMatch() {
+        LogIndex index = new LogIndex();
+        LogRecord banner = LogRecord.plain("  MODULE PROFILING");
+        LogRecord record = new LogRecord(0, LogLevel.INFO, "MODULES", "Profiling module java.base");
+        index.add(0, banner);
+        index.add(1, record);
+
+        LogFilter filter = LogFilter.builder().text("profiling").build();
+        assertFalse(LogIndex.matches(filter, banner));
+        assertArrayEquals(new long[] {1}, index.search(filter, 10).sequences());
+    }
+
+    @Test
+    void keepsOnlyTheNewestBlocks() {
+        LogIndex index = new LogIndex(3000, 1000);
+        for (int i = 0; i < 10_000; i++) {
+            index.add(i, new LogRecord(i, LogLevel.INFO, "BUILD", "token" + i + " shared"));
+        }
+        assertEquals(3000, index.size());
+        assertEquals(0, index.search(LogFilter.builder().text("token42").build(), 10).total());
+
+        LogIndex.Result result = index.search(LogFilter.builder().text("shared").build(), 2500);
+        assertEquals(3000, result.total());
+        assertEquals(7500, result.sequences()[0]);
+        assertEquals(9999, result.sequences()[2499]);
+
+        index.retainFrom(8500);
+        assertEquals(2000, index.size());
+        assertEquals(0, index.search(LogFilter.builder().text("token7999").build(), 10).total());
+        assertEquals(1, index.search(LogFilter.builder().text("token8000").build(), 10).total());
+    }
+
+    @Test
+    void clearStartsOverAtTheNextSequence() {
+        LogIndex index = new LogIndex();
+        index.add(0, new LogRecord(0, LogLevel.ERROR, "BUILD", "first failure"));
+        index.clear(1);
+        index.add(1, new LogRecord(1, LogLevel.ERROR, "BUILD", "second failure"));
+
+        LogIndex.Result result = index.search(LogFilter.builder().text("failure").build(), 10);
+        assertArrayEquals(new long[] {1}, result.sequences());
+        assertEquals(List.of("BUILD"), index.categories());
+    }
+}
@@ -0,0 +1,114 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.LogLevel;
+import com.devdam.desktop.model.LogRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogStoreTest {
+
+    @TempDir
+    Path logDirectory;
+
+    private LogStore store;
+
+    @AfterEach
+    void closeStore() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    void spillsOlderRecordsAndReadsThemBack() throws IOException {
+        // Small segments so that the records span several files
+        store = new LogStore(logDirectory, 100, 64 * 1024, 3);
+        long epochNanos = 1_714_566_615_123_456_789L;
+        for (int i = 0; i < 5000; i++) {
+            store.append(new LogRecord(epochNanos, i % 7 == 0 ? null : LogLevel.values()[i % LogLevel.values().length],
+                    i % 3 == 0 ? null : "BUILD", "line " + i + " ünïcode"));
+        }
+
+        assertEquals(5000, store.size());
+        assertEquals(0, store.dropped());
+        try (Stream<Path> sessions = Files.list(logDirectory)) {
+            Path session = sessions.findFirst().orElseThrow();
+            try (Stream<Path> segments = Files.list(session)) {
+                assertTrue(segments.count() > 1);
+            }
+        }
+
+        LogRecord spilled = store.get(1234);
+        assertEquals("line 1234 ünïcode", spilled.getMessage());
+        assertEquals(LogLevel.values()[1234 % LogLevel.values().length], spilled.getLevel());
+        assertEquals("BUILD", spilled.getCategory());
+        assertEquals(epochNanos, spilled.getEpochNanos());
+        assertNull(store.get(0).getLevel());
+        assertNull(store.get(3).getCategory());
+
+        LogStore.Cursor cursor = store.cursor(4000);
+        int expected = 4000;
+        while (cursor.hasNext()) {
+            assertEquals("line " + expected++ + " ünïcode", cursor.next().getMessage());
+        }
+        assertEquals(5000, expected);
+    }
+
+    @Test
+    void dropsTheOldestSegmentsBeyondTheSessionLimit() throws IOException {
+        store = new LogStore(logDirectory, 100, 64 * 1024, 3, 3 * 64 * 1024);
+        for (int i = 0; i < 50_000; i++) {
+            store.append(LogRecord.now(LogLevel.INFO, "BUILD", "line " + i));
+        }
+
+        try (Stream<Path> sessions = Files.list(logDirectory)) {
+            Path session = sessions.findFirst().orElseThrow();
+            try (Stream<Path> segments = Files.list(session)) {
+                assertEquals(3, segments.count());
+            }
+        }
+        assertEquals(0, store.dropped());
+        assertTrue(store.firstSequence() > 0);
+        assertNull(store.get(0));
+        LogStore.Cursor cursor = store.cursor();
+        long first = cursor.position();
+        assertEquals("line " + first, cursor.next().getMessage());
+        assertEquals("line 49999", store.get(49_999).getMessage());
+    }
+
+    @Test
+    void cursorStopsAtCreationAndSkipsClearedRecords() {
+        store = new LogStore(logDirectory, 10, 64 * 1024, 3);
+        for (int i = 0; i < 20; i++) {
+            store.append(LogRecord.now(LogLevel.INFO, null, "before " + i));
+        }
+
+        LogStore.Cursor cursor = store.cursor();
+        assertEquals("before 0", cursor.next().getMessage());
+        store.append(LogRecord.now(LogLevel.INFO, null, "after"));
+        int remaining = 0;
+        while (cursor.hasNext()) {
+            assertFalse(cursor.next().getMessage().equals("after"));
+            remaining++;
+        }
+        assertEquals(19, remaining);
+
+        LogStore.Cursor cleared = store.cursor();
+        store.clear();
+        assertFalse(cleared.hasNext());
+        assertEquals(0, store.size());
+        store.append(LogRecord.now(LogLevel.INFO, null, "fresh"));
+        assertEquals("fresh", store.cursor().next().getMessage());
+    }
+}
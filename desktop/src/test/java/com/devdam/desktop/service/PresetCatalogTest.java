@@ -0,0 +1,95 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PresetSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresetCatalogTest {
+
+    @TempDir
+    Path presetDirectory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PresetCatalog catalog;
+
+    @AfterEach
+    void closeCatalog() {
+        if (catalog != null) {
+            catalog.close();
+        }
+    }
+
+    @Test
+    void loadsOnceAndFollowsChangesMadeOutside() throws IOException, InterruptedException {
+        write("beta", "Beta", PackageConfiguration.OutputFormat.DEB);
+        write("Alpha", "Alpha", PackageConfiguration.OutputFormat.APP_IMAGE);
+        Files.writeString(presetDirectory.resolve("broken.json"), "{ not json");
+        Files.writeString(presetDirectory.resolve("notes.txt"), "not a preset");
+
+        catalog = new PresetCatalog(presetDirectory, objectMapper);
+        Semaphore changes = new Semaphore(0);
+        catalog.addListener(changes::release);
+        catalog.start();
+
+        assertEquals(List.of("Alpha", "beta", "broken"),
+                catalog.list().stream().map(PresetSummary::getName).toList());
+        assertEquals(PackageConfiguration.OutputFormat.DEB, catalog.find("beta").orElseThrow().getOutputFormat());
+        assertNull(catalog.find("broken").orElseThrow().getAppName());
+
+        write("gamma", "Gamma", PackageConfiguration.OutputFormat.APP_IMAGE);
+        // The file may be seen empty first and again once written
+        awaitUntil(changes, () -> catalog.find("gamma").map(PresetSummary::getAppName).filter("Gamma"::equals).isPresent());
+
+        Files.delete(presetDirectory.resolve("beta.json"));
+        awaitUntil(changes, () -> catalog.find("beta").isEmpty());
+        assertEquals(3, catalog.list().size());
+    }
+
+    @Test
+    void savesAndDeletesShowUpWithoutWaitingForTheWatcher() throws IOException {
+        catalog = new PresetCatalog(presetDirectory, objectMapper);
+        PackageConfiguration config = PackageConfiguration.builder()
+                .appName("Delta")
+                .outputFormat(PackageConfiguration.OutputFormat.APP_IMAGE)
+                .build();
+        Path file = presetDirectory.resolve("delta.json");
+        objectMapper.writeValue(file.toFile(), config);
+
+        catalog.saved("delta", config, file);
+        assertEquals("Delta", catalog.find("delta").orElseThrow().getAppName());
+        assertTrue(catalog.find("delta").orElseThrow().getLastModified() > 0);
+
+        catalog.deleted("delta");
+        assertFalse(catalog.find("delta").isPresent());
+    }
+
+    private void write(String name, String appName, PackageConfiguration.OutputFormat format) throws IOException {
+        objectMapper.writeValue(presetDirectory.resolve(name + ".json").toFile(),
+                PackageConfiguration.builder().appName(appName).outputFormat(format).build());
+    }
+
+    private static void awaitUntil(Semaphore changes, java.util.function.BooleanSupplier condition)
+            throws InterruptedException {
+        // Polling file systems may report late; each change wakes the check up
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "catalog did not follow the change");
+            changes.tryAcquire(500, TimeUnit.MILLISECONDS);
+        }
+    }
+}
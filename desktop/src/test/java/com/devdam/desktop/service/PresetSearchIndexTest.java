@@ -0,0 +1,114 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PresetSummary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresetSearchIndexTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    void findsPresetsByAnyFieldDespiteTyposAndRanksNameMatchesFirst() {
+        long now = System.currentTimeMillis();
+        PresetSearchIndex index = new PresetSearchIndex();
+        index.update(List.of(
+                preset("Invoicing release", "Invoicer", "com.acme.billing.InvoiceApp", "Acme", now - 30 * DAY),
+                preset("Reports nightly", "Reporter", "org.example.ReportMain", "Example Corp", now - 30 * DAY),
+                preset("Inventory", "Stockroom", "com.acme.stock.Main", "Acme", now - 30 * DAY)));
+
+        assertEquals(List.of("Inventory", "Invoicing release"), names(index.search("inv", 10)));
+        assertEquals(List.of("Reports nightly"), names(index.search("ReportMain", 10)));
+        assertEquals(List.of("Invoicing release"), names(index.search("invoiceapp", 10)));
+        assertEquals(List.of("Invoicing release"), names(index.search("invocing", 10)));
+        assertEquals(List.of("Inventory", "Invoicing release"), names(index.search("acme", 10)));
+        assertTrue(index.search("zzz", 10).isEmpty());
+
+        // Equal matches are ordered by recent use
+        index.used("Invoicing release", now);
+        assertEquals(List.of("Invoicing release", "Inventory"), names(index.search("acme", 10)));
+
+        // Changed and removed presets are reindexed
+        index.update(List.of(
+                preset("Inventory", "Stockroom", "com.acme.stock.Main", "Globex", now),
+                preset("Reports nightly", "Reporter", "org.example.ReportMain", "Example Corp", now - 30 * DAY)));
+        assertEquals(List.of("Inventory"), names(index.search("acme", 10)));
+        assertTrue(index.search("invoicer", 10).isEmpty());
+        assertEquals(List.of("Inventory"), names(index.search("globex", 10)));
+    }
+
+    @Test
+    void ranksTheFullMatchFirstAmongTenThousandPresets() {
+        List<PresetSummary> results = tenThousandPresets().search("gateway monitor", 50);
+        assertTrue(results.size() <= 50);
+        assertTrue(results.get(0).getName().startsWith("gateway monitor"));
+    }
+
+    /**
+     * Timing depends on the machine, so this only runs when asked for:
+     * {@code mvn test -Dgroups=benchmark -DexcludedGroups=none}.
+     */
+    @Test
+    @Tag("benchmark")
+    void searchesTenThousandPresetsPerKeystroke() {
+        PresetSearchIndex index = tenThousandPresets();
+        String query = "gateway monitor";
+        List<Long> times = new ArrayList<>();
+        // Early rounds only warm up the JIT
+        for (int round = 0; round < 40; round++) {
+            for (int length = 1; length <= query.length(); length++) {
+                long start = System.nanoTime();
+                List<PresetSummary> results = index.search(query.substring(0, length), 50);
+                if (round >= 30) {
+                    times.add(System.nanoTime() - start);
+                }
+                assertTrue(results.size() <= 50);
+            }
+        }
+        Collections.sort(times);
+        long median = times.get(times.size() / 2);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(median) < 5, "median keystroke took " + median / 1000 + " us");
+    }
+
+    private static PresetSearchIndex tenThousandPresets() {
+        String[] words = {"alpha", "billing", "catalog", "desktop", "editor", "gateway", "monitor", "report", "studio", "viewer"};
+        List<PresetSummary> presets = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String word = words[i % words.length];
+            String other = words[(i / words.length) % words.length];
+            presets.add(preset(word + " " + other + " " + i, capitalize(word) + capitalize(other),
+                    "com.vendor" + (i % 97) + "." + word + "." + capitalize(other) + "Main", "Vendor " + (i % 97), i));
+        }
+        PresetSearchIndex index = new PresetSearchIndex();
+        index.update(presets);
+        return index;
+    }
+
+    private static PresetSummary preset(String name, String appName, String mainClass, String vendor, long lastModified) {
+        return PresetSummary.builder()
+                .name(name)
+                .appName(appName)
+                .mainClass(mainClass)
+                .vendor(vendor)
+                .outputFormat(PackageConfiguration.OutputFormat.APP_IMAGE)
+                .lastModified(lastModified)
+                .build();
+    }
+
+    private static List<String> names(List<PresetSummary> presets) {
+        return presets.stream().map(PresetSummary::getName).toList();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
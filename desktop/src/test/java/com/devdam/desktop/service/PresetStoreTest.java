@@ -0,0 +1,113 @@
+package com.devdam.desktop.service;
+
+import com.devdam.desktop.model.PackageConfiguration;
+import com.devdam.desktop.model.PresetSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PresetStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void keepsTheLatestVersionOfEachPresetAcrossReopens() throws IOException {
+        Path file = directory.resolve(PresetStore.STORE_FILE);
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            assertTrue(store.open());
+            store.put("beta", config("Beta", "1.0"));
+            store.put("alpha", config("Alpha", "1.0"));
+            store.put("beta", config("Beta", "2.0"));
+            store.put("gone", config("Gone", "1.0"));
+            store.delete("gone");
+        }
+
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            assertFalse(store.open());
+            assertEquals(List.of("alpha", "beta"), store.list().stream().map(PresetSummary::getName).toList());
+            assertEquals("2.0", store.get("beta").orElseThrow().getVersion());
+            assertEquals("Alpha", store.find("alpha").orElseThrow().getAppName());
+            assertFalse(store.get("gone").isPresent());
+        }
+    }
+
+    @Test
+    void dropsARecordCutOffByACrash() throws IOException {
+        Path file = directory.resolve(PresetStore.STORE_FILE);
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            store.open();
+            store.put("kept", config("Kept", "1.0"));
+        }
+        long committed = Files.size(file);
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            store.open();
+            store.put("torn", config("Torn", "1.0"));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 5);
+        }
+
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            store.open();
+            assertEquals(List.of("kept"), store.list().stream().map(PresetSummary::getName).toList());
+            assertEquals(committed, Files.size(file));
+            store.put("after", config("After", "1.0"));
+        }
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            store.open();
+            assertEquals(List.of("after", "kept"), store.list().stream().map(PresetSummary::getName).toList());
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLivePresets() throws IOException {
+        Path file = directory.resolve(PresetStore.STORE_FILE);
+        Map<String, PackageConfiguration> presets = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            presets.put("preset-" + i, config("App " + i, "1.0"));
+        }
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            store.open();
+            store.putAll(presets);
+            long imported = Files.size(file);
+            for (int round = 2; round <= 5; round++) {
+                for (int i = 0; i < 500; i++) {
+                    store.put("preset-" + i, config("App " + i, round + ".0"));
+                }
+            }
+            // Four rounds of replacements would have grown the file fivefold without compaction
+            assertTrue(Files.size(file) < imported * 3, "store was compacted");
+            store.compact();
+            assertEquals("5.0", store.get("preset-123").orElseThrow().getVersion());
+        }
+        try (PresetStore store = new PresetStore(file, objectMapper)) {
+            store.open();
+            assertEquals(500, store.list().size());
+            assertEquals("5.0", store.get("preset-499").orElseThrow().getVersion());
+        }
+    }
+
+    private static PackageConfiguration config(String appName, String version) {
+        return PackageConfiguration.builder()
+                .appName(appName)
+                .version(version)
+                .outputFormat(PackageConfiguration.OutputFormat.APP_IMAGE)
+                .build();
+    }
+}